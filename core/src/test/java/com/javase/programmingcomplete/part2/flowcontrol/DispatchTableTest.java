@@ -0,0 +1,188 @@
+package com.javase.programmingcomplete.part2.flowcontrol;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DispatchTableTest {
+
+    /* As mesmas regras do switch: default em primeiro, labels vazios e fall-through passando pelo default. */
+    @Test
+    @SuppressWarnings("fallthrough")
+    void followsSwitchDefaultAndFallThroughRules() {
+        DispatchTable<List<String>> table = DispatchTable.<List<String>>builder()
+                .defaultCase(out -> out.add("None"))
+                .on('A', out -> out.add("A"))
+                .label('B')
+                .onFallThrough('C', out -> out.add("BC"))
+                .on('D', out -> out.add("D"))
+                .onFallThrough('E', out -> out.add("E"))
+                .onFallThrough('F', out -> out.add("F"))
+                .build();
+        DispatchTable<List<String>> middleDefault = DispatchTable.<List<String>>builder()
+                .onFallThrough('A', out -> out.add("A"))
+                .defaultFallThrough(out -> out.add("default"))
+                .on('B', out -> out.add("B"))
+                .build();
+        for (char op : "ABCDEFZ".toCharArray()) {
+            List<String> expected = new ArrayList<>();
+            switch (op) {
+                default:
+                    expected.add("None");
+                    break;
+                case 'A':
+                    expected.add("A");
+                    break;
+                case 'B':
+                case 'C':
+                    expected.add("BC");
+                case 'D':
+                    expected.add("D");
+                    break;
+                case 'E':
+                    expected.add("E");
+                case 'F':
+                    expected.add("F");
+            }
+            assertEquals(expected, dispatch(out -> table.dispatch(op, out)), String.valueOf(op));
+
+            List<String> expectedMiddle = new ArrayList<>();
+            switch (op) {
+                case 'A':
+                    expectedMiddle.add("A");
+                default:
+                    expectedMiddle.add("default");
+                case 'B':
+                    expectedMiddle.add("B");
+            }
+            assertEquals(expectedMiddle, dispatch(out -> middleDefault.dispatch(op, out)), String.valueOf(op));
+        }
+        assertTrue(table.hasCase('B'));
+        assertFalse(table.hasCase('Z'));
+    }
+
+    /* "Aa" e "BB" têm o mesmo hashCode(), então essa tabela usa o HashMap. */
+    @Test
+    void stringTableWithCollidingHashCodes() {
+        StringDispatchTable<List<String>> strings = StringDispatchTable.<List<String>>builder()
+                .label("Aa")
+                .on("BB", out -> out.add("Aa/BB"))
+                .on("C", out -> out.add("C"))
+                .build();
+        for (String key : new String[]{"Aa", "BB", "C", "D"}) {
+            List<String> expected = new ArrayList<>();
+            switch (key) {
+                case "Aa":
+                case "BB":
+                    expected.add("Aa/BB");
+                    break;
+                case "C":
+                    expected.add("C");
+                    break;
+            }
+            assertEquals(expected, dispatch(out -> strings.dispatch(key, out)), key);
+        }
+        assertFalse(strings.isPerfectHash());
+        assertTrue(strings.hasCase("Aa"));
+    }
+
+    /* Erros que no switch seriam de compilação. */
+    @Test
+    void rejectsDuplicateLabels() {
+        assertThrows(IllegalArgumentException.class, () -> DispatchTable.<Object>builder().on(1, c -> {
+        }).label(1));
+        assertThrows(IllegalArgumentException.class, () -> StringDispatchTable.<Object>builder().defaultCase(c -> {
+        }).defaultCase(c -> {
+        }));
+    }
+
+    /* Chaves densas, esparsas e String, com 1 em cada 8 buscas caindo no default, contra um HashMap de handlers. */
+    @Test
+    void matchesAHashMapOfHandlers() {
+        for (int size : new int[]{8, 64, 1024}) {
+            int[] denseKeys = new int[size];
+            int[] sparseKeys = new int[size];
+            String[] stringKeys = new String[size];
+            for (int i = 0; i < size; i++) {
+                denseKeys[i] = i;
+                sparseKeys[i] = 100_000 + i * 7919;
+                stringKeys[i] = (i % 2 == 0 ? "cmd." : "op/") + Integer.toString(i * 31 + 7, 36) + (i % 3 == 0 ? "_ext" : "");
+            }
+            checkInts(denseKeys);
+            checkInts(sparseKeys);
+            checkStrings(stringKeys);
+        }
+    }
+
+    private static void checkInts(int[] keys) {
+        DispatchTable.Builder<long[]> builder = DispatchTable.builder();
+        Map<Integer, Consumer<long[]>> map = new HashMap<>();
+        builder.defaultCase(c -> c[0] -= 1);
+        for (int i = 0; i < keys.length; i++) {
+            builder.on(keys[i], handler(i));
+            map.put(keys[i], handler(i));
+        }
+        DispatchTable<long[]> table = builder.build();
+        Random random = new Random(keys.length);
+        long[] expected = new long[1];
+        long[] actual = new long[1];
+        for (int i = 0; i < 4096; i++) {
+            int key = random.nextInt(8) == 0 ? -5 - random.nextInt(1000) : keys[random.nextInt(keys.length)];
+            map.getOrDefault(key, c -> c[0] -= 1).accept(expected);
+            table.dispatch(key, actual);
+            assertEquals(expected[0], actual[0], "key " + key);
+        }
+    }
+
+    private static void checkStrings(String[] keys) {
+        StringDispatchTable.Builder<long[]> builder = StringDispatchTable.builder();
+        Map<String, Consumer<long[]>> map = new HashMap<>();
+        builder.defaultCase(c -> c[0] -= 1);
+        for (int i = 0; i < keys.length; i++) {
+            builder.on(keys[i], handler(i));
+            map.put(keys[i], handler(i));
+        }
+        StringDispatchTable<long[]> table = builder.build();
+        Random random = new Random(keys.length);
+        long[] expected = new long[1];
+        long[] actual = new long[1];
+        for (int i = 0; i < 4096; i++) {
+            // Cópias novas das chaves, como se viessem de um parser (sem o hashCode em cache).
+            String key = new String(random.nextInt(8) == 0 ? "missing-" + random.nextInt(1000)
+                    : keys[random.nextInt(keys.length)]);
+            map.getOrDefault(key, c -> c[0] -= 1).accept(expected);
+            table.dispatch(key, actual);
+            assertEquals(expected[0], actual[0], "key " + key);
+        }
+    }
+
+    private static Consumer<long[]> handler(int i) {
+        long value = i;
+        switch (i % 4) {
+            case 0:
+                return c -> c[0] += value;
+            case 1:
+                return c -> c[0] ^= value;
+            case 2:
+                return c -> c[0] -= value;
+            default:
+                return c -> c[0] += value * 3;
+        }
+    }
+
+    private static List<String> dispatch(Consumer<List<String>> dispatch) {
+        List<String> out = new ArrayList<>();
+        dispatch.accept(out);
+        return out;
+    }
+}
@@ -0,0 +1,40 @@
+package com.javase.programmingcomplete.part3.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IntIntMapTest {
+
+    @Test
+    void matchesHashMapAfterRandomPutsAndRemoves() {
+        Random random = new Random(1);
+        Map<Integer, Integer> expected = new HashMap<>();
+        IntIntMap heap = new IntIntMap(4);
+        IntIntMap direct = new IntIntMap(4, true, -1);
+        for (int i = 0; i < 500_000; i++) {
+            int key = random.nextInt(5_000) - 2_500;
+            int value = random.nextInt();
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                heap.remove(key);
+                direct.remove(key);
+            } else {
+                expected.put(key, value);
+                heap.put(key, value);
+                direct.put(key, value);
+            }
+        }
+        assertEquals(expected.size(), heap.size());
+        assertEquals(expected.size(), direct.size());
+        for (int key = -2_600; key < 2_600; key++) {
+            Integer value = expected.get(key);
+            assertEquals(value == null ? 0 : value, heap.get(key), "key " + key);
+            assertEquals(value == null ? -1 : value, direct.get(key), "key " + key);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.javase.programmingcomplete.part3.collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotsTest {
+
+    @Test
+    void offHeapLengthIsLimitedToOneByteBuffer() {
+        assertEquals(536_870_911, IntSlots.MAX_DIRECT_LENGTH);
+        assertEquals(268_435_455, LongSlots.MAX_DIRECT_LENGTH);
+
+        IllegalArgumentException ints = assertThrows(IllegalArgumentException.class,
+                () -> IntSlots.allocate(IntSlots.MAX_DIRECT_LENGTH + 1, true));
+        assertTrue(ints.getMessage().contains(String.valueOf(IntSlots.MAX_DIRECT_LENGTH)), ints.getMessage());
+        IllegalArgumentException longs = assertThrows(IllegalArgumentException.class,
+                () -> LongSlots.allocate(LongSlots.MAX_DIRECT_LENGTH + 1, true));
+        assertTrue(longs.getMessage().contains(String.valueOf(LongSlots.MAX_DIRECT_LENGTH)), longs.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> new IntList(Integer.MAX_VALUE, true));
+        assertThrows(IllegalArgumentException.class, () -> new LongList(Integer.MAX_VALUE, true));
+    }
+
+    @Test
+    void offHeapSlotsStoreValues() {
+        IntSlots ints = IntSlots.allocate(3, true);
+        ints.fill(-1);
+        ints.set(2, 42);
+        assertEquals(-1, ints.get(0));
+        assertEquals(42, ints.get(2));
+
+        LongSlots longs = LongSlots.allocate(3, true);
+        longs.fill(-1);
+        longs.set(2, Long.MAX_VALUE);
+        assertEquals(-1, longs.get(1));
+        assertEquals(Long.MAX_VALUE, longs.get(2));
+    }
+}
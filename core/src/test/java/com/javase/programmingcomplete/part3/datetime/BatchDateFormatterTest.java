@@ -0,0 +1,64 @@
+package com.javase.programmingcomplete.part3.datetime;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BatchDateFormatterTest {
+
+    private static final Locale[] LOCALES = {new Locale("en", "GB"), new Locale("ru"),
+            Locale.forLanguageTag("th-TH-u-ca-buddhist-nu-thai")};
+    private static final String[] PATTERNS = {"EEEE dd MMM yyyy", "d/M/yy", "EEE, d MMMM y 'at ''noon'''", "dd.MM.yyyy",
+            "yyyy-MM-dd G", "dd/MM/yyyy"};
+
+    @Test
+    void formatsAndParsesLikeDateTimeFormatter() {
+        long[] days = new long[200_000];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = -800_000 + i * 17L;
+        }
+        int firstCommonEra = 0;
+        while (days[firstCommonEra] < LocalDate.of(1, 1, 1).toEpochDay()) {
+            firstCommonEra++;
+        }
+        for (Locale locale : LOCALES) {
+            for (String pattern : PATTERNS) {
+                DateTimeFormatter format = DateTimeFormatter.ofPattern(pattern, locale);
+                BatchDateFormatter batch = BatchDateFormatter.ofPattern(pattern, locale);
+                TextColumn column = batch.format(days);
+                for (int i = 0; i < days.length; i++) {
+                    assertEquals(LocalDate.ofEpochDay(days[i]).format(format), column.get(i), locale + " " + pattern);
+                }
+                // Anos antes de 1 d.C. não voltam no parse nem no JDK (yyyy é o ano da era e a era se perde).
+                batch.formatTo(days, firstCommonEra, days.length, column);
+                long[] parsed = batch.parse(column);
+                for (int i = 0; i < column.size(); i++) {
+                    assertEquals(LocalDate.parse(column.get(i), format).toEpochDay(), parsed[i],
+                            locale + " " + pattern + ": parse of " + column.get(i));
+                }
+            }
+        }
+    }
+
+    /* Anos que não cabem nos 23 bits do EpochDays.pack: precisam ir para o DateTimeFormatter, não dar a volta. */
+    @Test
+    void formatsYearsOutsideThePackedRange() {
+        long[] outOfRange = {LocalDate.of(8_390_627, 4, 1).toEpochDay(), LocalDate.of(1 << 22, 1, 1).toEpochDay(),
+                LocalDate.of(-8_390_627, 4, 1).toEpochDay(), LocalDate.of(10_000, 1, 1).toEpochDay(),
+                LocalDate.of(0, 12, 31).toEpochDay(), LocalDate.MAX.toEpochDay(), LocalDate.MIN.toEpochDay()};
+        for (Locale locale : LOCALES) {
+            for (String pattern : PATTERNS) {
+                DateTimeFormatter format = DateTimeFormatter.ofPattern(pattern, locale);
+                TextColumn column = BatchDateFormatter.ofPattern(pattern, locale).format(outOfRange);
+                for (int i = 0; i < outOfRange.length; i++) {
+                    assertEquals(LocalDate.ofEpochDay(outOfRange[i]).format(format), column.get(i),
+                            locale + " " + pattern);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.javase.programmingcomplete.part3.datetime;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkIntervalsTest {
+
+    private static final int SIZE = 300_000;
+    private static final long NANOS_PER_DAY = 86_400_000_000_000L;
+
+    @Test
+    void durationsMatchDuration() {
+        long[] startNanos = new long[SIZE];
+        long[] endNanos = new long[SIZE];
+        fill(new SplittableRandom(42), startNanos, endNanos);
+        startNanos[0] = Long.MIN_VALUE / 2;
+        endNanos[0] = Long.MAX_VALUE / 2;
+        startNanos[1] = -1_500_000_000L;
+        endNanos[1] = 1;
+
+        long[] durations = new long[SIZE];
+        long[] seconds = new long[SIZE];
+        int[] nanos = new int[SIZE];
+        BulkIntervals.durations(startNanos, endNanos, durations, 0, SIZE);
+        BulkIntervals.durations(startNanos, endNanos, seconds, nanos, 0, SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            Duration expected = Duration.between(BulkIntervals.toInstant(startNanos[i]),
+                    BulkIntervals.toInstant(endNanos[i]));
+            assertEquals(expected.toNanos(), durations[i], "duration " + i);
+            assertEquals(expected.getSeconds(), seconds[i], "duration " + i);
+            assertEquals(expected.getNano(), nanos[i], "duration " + i);
+        }
+    }
+
+    /* Igual ao Duration.toNanos(). */
+    @Test
+    void durationOverflowThrows() {
+        assertThrows(ArithmeticException.class, () -> BulkIntervals.durations(new long[]{0, Long.MIN_VALUE},
+                new long[]{0, Long.MAX_VALUE}, new long[2], 0, 2));
+    }
+
+    @Test
+    void periodsMatchPeriod() {
+        SplittableRandom random = new SplittableRandom(42);
+        long[] startDays = new long[SIZE];
+        long[] endDays = new long[SIZE];
+        long[] startNanos = new long[SIZE];
+        long[] endNanos = new long[SIZE];
+        fill(random, startNanos, endNanos);
+        for (int i = 0; i < SIZE; i++) {
+            startDays[i] = Math.floorDiv(startNanos[i], NANOS_PER_DAY);
+            endDays[i] = Math.floorDiv(endNanos[i], NANOS_PER_DAY);
+        }
+        // Casos de borda: fins de mês, 29/02, anos negativos, datas longe demais para o caminho rápido.
+        long[][] edges = {
+                {LocalDate.of(2020, 1, 31).toEpochDay(), LocalDate.of(2020, 2, 29).toEpochDay()},
+                {LocalDate.of(2020, 2, 29).toEpochDay(), LocalDate.of(2021, 2, 28).toEpochDay()},
+                {LocalDate.of(2021, 3, 31).toEpochDay(), LocalDate.of(2021, 2, 28).toEpochDay()},
+                {LocalDate.of(2019, 4, 1).toEpochDay(), LocalDate.of(2024, 1, 31).toEpochDay()},
+                {LocalDate.of(-400, 3, 1).toEpochDay(), LocalDate.of(2000, 2, 29).toEpochDay()},
+                {LocalDate.MIN.toEpochDay(), LocalDate.MAX.toEpochDay() / 2},
+                {LocalDate.MAX.toEpochDay(), 0},
+        };
+        for (int i = 0; i < edges.length; i++) {
+            startDays[i] = edges[i][0];
+            endDays[i] = edges[i][1];
+        }
+        // Pares de datas aleatórias em até +-3000 anos, para cobrir todas as combinações de dia e mês.
+        for (int i = edges.length; i < 100_000; i++) {
+            startDays[i] = random.nextLong(-1_100_000, 1_100_000);
+            endDays[i] = random.nextLong(-1_100_000, 1_100_000);
+        }
+
+        int[] years = new int[SIZE];
+        int[] months = new int[SIZE];
+        int[] days = new int[SIZE];
+        BulkIntervals.periods(startDays, endDays, years, months, days, 0, SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            LocalDate start = LocalDate.ofEpochDay(startDays[i]);
+            LocalDate end = LocalDate.ofEpochDay(endDays[i]);
+            assertEquals(Period.between(start, end), Period.of(years[i], months[i], days[i]), start + " -> " + end);
+        }
+    }
+
+    @Test
+    void dayLengthsAndLocalDaysMatchZoneRules() {
+        long[] startNanos = new long[SIZE];
+        fill(new SplittableRandom(42), startNanos, new long[SIZE]);
+        for (ZoneId zoneId : new ZoneId[]{ZoneId.of("America/Sao_Paulo"), ZoneId.of("Europe/London"),
+                ZoneId.of("Australia/Lord_Howe"), ZoneId.of("America/Havana"), ZoneId.of("UTC")}) {
+            ZoneOffsetTable zone = ZoneOffsetTable.of(zoneId, 1970, 2100);
+            // Todos os dias de 1970 a 2110 (a tabela delega para o ZoneRules fora do intervalo).
+            int dayCount = (int) LocalDate.of(2110, 1, 1).toEpochDay();
+            long[] allDays = new long[dayCount];
+            for (int i = 0; i < dayCount; i++) {
+                allDays[i] = i;
+            }
+            long[] lengths = new long[dayCount];
+            BulkIntervals.dayLengths(allDays, zone, lengths, 0, dayCount);
+            for (int i = 0; i < dayCount; i++) {
+                LocalDate date = LocalDate.ofEpochDay(allDays[i]);
+                assertEquals(Duration.between(date.atStartOfDay(zoneId), date.plusDays(1).atStartOfDay(zoneId))
+                        .toNanos(), lengths[i], zoneId + " " + date);
+            }
+
+            long[] localDays = new long[SIZE];
+            BulkIntervals.localEpochDays(startNanos, zone, localDays, 0, SIZE);
+            for (int i = 0; i < SIZE; i++) {
+                Instant instant = BulkIntervals.toInstant(startNanos[i]);
+                assertEquals(instant.atZone(zoneId).toLocalDate().toEpochDay(), localDays[i], zoneId + " " + instant);
+            }
+        }
+    }
+
+    @Test
+    void toEpochNanosBeforeTheEpoch() {
+        assertEquals(-1_999_999_500L, BulkIntervals.toEpochNanos(Instant.ofEpochSecond(-2, 500)));
+    }
+
+    /* Eventos entre 1980 e 2060 que duram de alguns segundos a alguns anos. */
+    private static void fill(SplittableRandom random, long[] startNanos, long[] endNanos) {
+        for (int i = 0; i < startNanos.length; i++) {
+            long start = random.nextLong(315_532_800_000_000_000L, 2_840_140_800_000_000_000L);
+            long length = random.nextLong(1_000_000_000L, 4 * 365 * NANOS_PER_DAY);
+            startNanos[i] = start;
+            endNanos[i] = random.nextInt(8) == 0 ? start - length : start + length;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.javase.programmingcomplete.part3.datetime;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ZoneConverterTest {
+
+    /*
+    Confere o ZoneConverter contra o caminho do JDK (ZonedDateTime.of(...).withZoneSameInstant(...)) em volta de todas as
+    transições de 1970 até 2100, para zones com horário de verão de 1 hora, de 30 minutos (Lord Howe), no hemisfério sul
+    e com offset fixo. Para cada transição testa os instantes vizinhos e os horários locais antes, dentro e depois do gap
+    ou overlap.
+     */
+
+    private static final String[] ZONES = {"Europe/London", "America/Los_Angeles", "Australia/Lord_Howe",
+            "America/Sao_Paulo", "Europe/Berlin", "Asia/Kolkata", "UTC-05:00"};
+    private static final long[] DELTAS = {-3_600_001, -1_800_000, -1, 0, 1, 1_799_999, 1_800_000, 3_599_999, 3_600_000};
+
+    @Test
+    void matchesZonedDateTimeAroundEveryTransition() {
+        for (String from : ZONES) {
+            for (String to : ZONES) {
+                sweep(ZoneId.of(from), ZoneId.of(to));
+            }
+        }
+    }
+
+    private static void sweep(ZoneId from, ZoneId to) {
+        ZoneConverter converter = ZoneConverter.of(from, to);
+        ZoneRules rules = from.getRules();
+        Instant start = LocalDateTime.of(ZoneConverter.DEFAULT_FROM_YEAR, 1, 1, 0, 0).toInstant(ZoneOffset.UTC);
+        Instant end = LocalDateTime.of(ZoneConverter.DEFAULT_TO_YEAR + 1, 1, 1, 0, 0).toInstant(ZoneOffset.UTC);
+        ZoneOffsetTransition transition = rules.nextTransition(start);
+        // Zones sem transição (offset fixo) ainda são testados em alguns pontos do intervalo.
+        if (transition == null) {
+            for (long point : new long[]{start.toEpochMilli(), 0, 1_000_000_000_000L, end.toEpochMilli() - 1}) {
+                check(converter, from, to, point);
+            }
+        }
+        while (transition != null && transition.getInstant().isBefore(end)) {
+            long instant = transition.getInstant().toEpochMilli();
+            long localBefore = ZoneOffsetTable.localMillis(transition.getDateTimeBefore());
+            long localAfter = ZoneOffsetTable.localMillis(transition.getDateTimeAfter());
+            for (long delta : DELTAS) {
+                check(converter, from, to, instant + delta);
+                checkLocal(converter, from, to, localBefore + delta);
+                checkLocal(converter, from, to, localAfter + delta);
+            }
+            transition = rules.nextTransition(transition.getInstant());
+        }
+    }
+
+    private static void check(ZoneConverter converter, ZoneId from, ZoneId to, long epochMillis) {
+        LocalDateTime expected = Instant.ofEpochMilli(epochMillis).atZone(to).toLocalDateTime();
+        assertEquals(expected, ZoneOffsetTable.toLocalDateTime(converter.toTargetLocalMillis(epochMillis)),
+                () -> from + " -> " + to + " at instant " + Instant.ofEpochMilli(epochMillis));
+    }
+
+    private static void checkLocal(ZoneConverter converter, ZoneId from, ZoneId to, long localMillis) {
+        LocalDateTime time = ZoneOffsetTable.toLocalDateTime(localMillis);
+        ZonedDateTime expected = ZonedDateTime.of(time, from).withZoneSameInstant(to);
+        assertEquals(expected.toInstant().toEpochMilli(), converter.toEpochMillis(localMillis),
+                () -> from + " -> " + to + " at local " + time);
+        assertEquals(expected.toLocalDateTime(), ZoneOffsetTable.toLocalDateTime(converter.convert(localMillis)),
+                () -> from + " -> " + to + " at local " + time);
+    }
+}
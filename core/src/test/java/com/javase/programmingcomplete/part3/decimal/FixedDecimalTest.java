@@ -0,0 +1,94 @@
+package com.javase.programmingcomplete.part3.decimal;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FixedDecimalTest {
+
+    /*
+    Verificação por propriedades: para valores aleatórios (de todos os tamanhos e scales) e todos os RoundingModes, o
+    resultado de cada operação do FixedDecimal precisa ser igual ao do BigDecimal, ou os dois precisam lançar
+    ArithmeticException (arredondamento necessário com UNNECESSARY, divisão por zero, ou um resultado que não cabe em um
+    long, que o BigDecimal não tem como recusar mas o longValueExact recusa).
+     */
+    @Test
+    void matchesBigDecimal() {
+        Random random = new Random(42);
+        RoundingMode[] modes = RoundingMode.values();
+        for (int n = 0; n < 200_000; n++) {
+            BigDecimal a = randomDecimal(random);
+            BigDecimal b = randomDecimal(random);
+            RoundingMode mode = modes[random.nextInt(modes.length)];
+            int scale = random.nextInt(FixedDecimal.MAX_SCALE + 1);
+            long quantity = random.nextInt(10_000) - 5_000;
+
+            check("add", () -> a.add(b), () -> FixedDecimal.valueOf(a).add(FixedDecimal.valueOf(b)));
+            check("subtract", () -> a.subtract(b), () -> FixedDecimal.valueOf(a).subtract(FixedDecimal.valueOf(b)));
+            check("multiply", () -> a.multiply(b), () -> FixedDecimal.valueOf(a).multiply(FixedDecimal.valueOf(b)));
+            check("multiply quantity", () -> a.multiply(BigDecimal.valueOf(quantity)),
+                    () -> FixedDecimal.valueOf(a).multiply(quantity));
+            check("setScale " + scale + " " + mode, () -> a.setScale(scale, mode),
+                    () -> FixedDecimal.valueOf(a).setScale(scale, mode));
+            check("multiply setScale " + scale + " " + mode, () -> a.multiply(b).setScale(scale, mode),
+                    () -> FixedDecimal.valueOf(a).multiply(FixedDecimal.valueOf(b), scale, mode));
+            check("divide " + scale + " " + mode, () -> a.divide(b, scale, mode),
+                    () -> FixedDecimal.valueOf(a).divide(FixedDecimal.valueOf(b), scale, mode));
+
+            FixedDecimalArray prices = new FixedDecimalArray(1, a.scale());
+            prices.set(0, a);
+            FixedDecimalArray out = new FixedDecimalArray(1, scale);
+            check("array multiply " + scale + " " + mode,
+                    () -> a.multiply(BigDecimal.valueOf(quantity)).multiply(b).setScale(scale, mode),
+                    () -> {
+                        FixedDecimalArray.multiply(prices, new long[]{quantity}, FixedDecimal.valueOf(b), out, mode);
+                        return out.get(0, new FixedDecimal());
+                    });
+        }
+    }
+
+    /* Valores de vários tamanhos: centavos, números grandes perto do limite do long e alguns zeros. */
+    private static BigDecimal randomDecimal(Random random) {
+        int scale = random.nextInt(7);
+        long unscaled;
+        switch (random.nextInt(4)) {
+            case 0:
+                unscaled = random.nextInt(1000) - 500;
+                break;
+            case 1:
+                unscaled = random.nextInt();
+                break;
+            case 2:
+                unscaled = random.nextLong() >> random.nextInt(64);
+                break;
+            default:
+                unscaled = random.nextInt(3) - 1;
+        }
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /* null quando a operação lança ArithmeticException (ou, no BigDecimal, quando o resultado não cabe no FixedDecimal) */
+    private static void check(String name, Supplier<BigDecimal> expected, Supplier<FixedDecimal> actual) {
+        BigDecimal want;
+        try {
+            want = expected.get();
+            if (want.scale() > FixedDecimal.MAX_SCALE || want.unscaledValue().bitLength() > 63) {
+                want = null;
+            }
+        } catch (ArithmeticException e) {
+            want = null;
+        }
+        BigDecimal got;
+        try {
+            got = actual.get().toBigDecimal();
+        } catch (ArithmeticException e) {
+            got = null;
+        }
+        assertEquals(want, got, name);
+    }
+}
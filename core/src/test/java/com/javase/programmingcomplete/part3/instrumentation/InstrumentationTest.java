@@ -0,0 +1,185 @@
+package com.javase.programmingcomplete.part3.instrumentation;
+
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters;
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters.Style;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class InstrumentationTest {
+
+    private static final Locale UK = new Locale("en", "GB");
+
+    @BeforeEach
+    void enable() {
+        Instrumentation.reset();
+        Instrumentation.setEnabled(true);
+    }
+
+    @AfterEach
+    void disable() {
+        Instrumentation.setEnabled(false);
+        Instrumentation.reset();
+    }
+
+    @Test
+    void countsNothingWhileDisabled() {
+        Instrumentation.setEnabled(false);
+        LocaleFormatters.formatTo(UK, Style.NUMBER, 1, new StringBuilder());
+        assertEquals(List.of(), Instrumentation.snapshot());
+    }
+
+    @Test
+    void keepsTheCountsOfThreadsThatEnded() throws InterruptedException {
+        Locale[] locales = {UK, new Locale("ru"), Locale.JAPAN};
+        Thread[] threads = new Thread[3];
+        for (int t = 0; t < threads.length; t++) {
+            Locale locale = locales[t];
+            int calls = 1000 * (t + 1);
+            threads[t] = new Thread(() -> {
+                StringBuilder text = new StringBuilder();
+                for (int i = 0; i < calls; i++) {
+                    text.setLength(0);
+                    LocaleFormatters.formatTo(locale, Style.CURRENCY, i, text);
+                    LocaleFormatters.formatTo(UK, Style.NUMBER, i, text);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // As threads já terminaram: os números delas precisam continuar no snapshot (e no seguinte).
+        for (int round = 0; round < 2; round++) {
+            check(Operation.NUMBER_FORMAT, UK, 1000 + 6000);
+            check(Operation.NUMBER_FORMAT, locales[1], 2000);
+            check(Operation.NUMBER_FORMAT, locales[2], 3000);
+        }
+    }
+
+    @Test
+    void mbeanShowsTheSnapshotAndResets() throws Exception {
+        LocaleFormatters.formatTo(UK, Style.NUMBER, 1, new StringBuilder());
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = Instrumentation.registerMBean();
+        CompositeData[] snapshot = (CompositeData[]) server.getAttribute(name, "Snapshot");
+        assertEquals(1, snapshot.length);
+        assertEquals("NUMBER_FORMAT", snapshot[0].get("operation"));
+        server.invoke(name, "reset", null, null);
+        assertEquals(List.of(), Instrumentation.snapshot());
+    }
+
+    /*
+    Uma thread que termina depois do reset(): os números dela são descartados e o Recorder (com a Thread) sai da lista já
+    quando outra thread começa a medir, sem depender de alguém chamar o snapshot().
+     */
+    @Test
+    void dropsRecordersOfDeadThreads() throws InterruptedException {
+        CountDownLatch measured = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread stale = new Thread(() -> {
+            LocaleFormatters.formatTo(UK, Style.NUMBER, 1, new StringBuilder());
+            measured.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        stale.start();
+        measured.await();
+        Instrumentation.reset();
+        release.countDown();
+        stale.join();
+        WeakReference<Thread> staleReference = new WeakReference<>(stale);
+        stale = null;
+        Thread next = new Thread(() -> LocaleFormatters.formatTo(UK, Style.NUMBER, 2, new StringBuilder()));
+        next.start();
+        next.join();
+        for (int i = 0; i < 10 && staleReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(staleReference.get(), "Recorder of a dead thread still referenced");
+        check(Operation.NUMBER_FORMAT, UK, 1);
+    }
+
+    @Test
+    void emitsJfrEvents() throws Exception {
+        Instrumentation.registerJfrEvents();
+        Path file = Files.createTempFile("instrumentation", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.javase.programmingcomplete.OperationStats").withPeriod(Duration.ofMillis(100));
+            recording.start();
+            StringBuilder out = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                out.setLength(0);
+                LocaleFormatters.formatTo(UK, Style.PERCENT, i / 100.0, out);
+            }
+            Thread.sleep(500);
+            recording.stop();
+            recording.dump(file);
+            long count = 0;
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals("com.javase.programmingcomplete.OperationStats")) {
+                    count = Math.max(count, event.getLong("count"));
+                }
+            }
+            assertEquals(100, count);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void toStringDoesNotDependOnTheDefaultLocale() {
+        for (int i = 0; i < 1500; i++) {
+            LocaleFormatters.formatTo(UK, Style.NUMBER, i, new StringBuilder());
+        }
+        OperationStats stats = Instrumentation.snapshot().get(0);
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.GERMANY);
+            String german = stats.toString();
+            Locale.setDefault(Locale.ROOT);
+            assertEquals(stats.toString(), german);
+            assertTrue(german.contains("1,500 ops"), german);
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    private static void check(Operation operation, Locale locale, long expected) {
+        for (OperationStats stats : Instrumentation.snapshot()) {
+            if (stats.operation() == operation && stats.locale().equals(locale)) {
+                assertEquals(expected, stats.getCount(), stats.toString());
+                assertTrue(stats.getP50Nanos() <= stats.getP99Nanos(), stats.toString());
+                assertTrue(stats.getP99Nanos() <= stats.getMaxNanos(), stats.toString());
+                assertTrue(stats.getAllocatedBytes() >= 0, stats.toString());
+                return;
+            }
+        }
+        fail("No stats for " + operation + " " + locale);
+    }
+}
@@ -0,0 +1,47 @@
+package com.javase.programmingcomplete.part3.localization;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BundleCacheTest {
+
+    private static final Path DIRECTORY = Paths.get("src", "resource");
+    private static final Locale[] LOCALES = {new Locale("en", "GB"), new Locale("ru"), Locale.JAPAN, Locale.FRANCE,
+            Locale.ROOT};
+
+    @Test
+    void matchesResourceBundle() throws IOException {
+        verify(BundleCache.load(DIRECTORY, "messages"));
+    }
+
+    /* Com um locale default que tem arquivo próprio: o fallback para ele não vale para o root. */
+    @Test
+    void matchesResourceBundleWithADefaultLocaleThatHasItsOwnFile() throws IOException {
+        Locale original = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("ru"));
+            ResourceBundle.clearCache();
+            verify(BundleCache.load(DIRECTORY, "messages"));
+        } finally {
+            Locale.setDefault(original);
+            ResourceBundle.clearCache();
+        }
+    }
+
+    private static void verify(BundleCache cache) {
+        for (Locale locale : LOCALES) {
+            ResourceBundle bundle = ResourceBundle.getBundle("resource.messages", locale);
+            for (String key : bundle.keySet()) {
+                assertEquals(bundle.getString(key), cache.getString(locale, key), locale + " " + key);
+            }
+            assertEquals(bundle.keySet(), cache.bundle(locale).keySet(), locale.toString());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.javase.programmingcomplete.part3.localization;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledBundleTest {
+
+    private static final String BASE_NAME = "messages";
+
+    /* Os arquivos de src/resource, comparados com o ResourceBundle do classpath. */
+    @Test
+    void matchesResourceBundleForTheProjectResources(@TempDir Path directory) throws IOException {
+        Path compiled = directory.resolve("resource.bundle");
+        BundleCompiler.compile(Paths.get("src", "resource"), BASE_NAME, compiled);
+        CompiledBundle bundle = CompiledBundle.open(compiled);
+        Locale[] locales = {new Locale("en", "GB"), new Locale("ru"), Locale.JAPAN, Locale.FRANCE, Locale.ROOT,
+                Locale.US, new Locale("ru", "RU", "x")};
+        for (Locale locale : locales) {
+            ResourceBundle expected = ResourceBundle.getBundle("resource.messages", locale);
+            for (String key : List.of("hello", "product", "other", "missing")) {
+                check(locale, key, expected, bundle);
+            }
+        }
+    }
+
+    /* Cada locale gerado tem 90% das chaves, o resto vem do root. */
+    @Test
+    void matchesResourceBundleForGeneratedLocales(@TempDir Path directory) throws IOException {
+        int keyCount = 500;
+        List<Locale> locales = generate(directory, 60, keyCount);
+        Path compiled = directory.resolve(BASE_NAME + ".bundle");
+        BundleCompiler.compile(directory, BASE_NAME, compiled);
+        CompiledBundle bundle = CompiledBundle.open(compiled);
+        assertEquals(keyCount, bundle.keyCount());
+        assertTrue(bundle.locales().containsAll(locales), bundle.locales().toString());
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, null)) {
+            for (Locale locale : locales) {
+                ResourceBundle expected = ResourceBundle.getBundle(BASE_NAME, locale, loader);
+                for (int k = 0; k < keyCount; k += 7) {
+                    check(locale, key(k), expected, bundle);
+                }
+                check(locale, "no.such.key", expected, bundle);
+            }
+        }
+    }
+
+    /* Valor igual, ou MissingResourceException nas duas formas. */
+    private static void check(Locale locale, String key, ResourceBundle expected, CompiledBundle bundle) {
+        String expectedValue;
+        try {
+            expectedValue = expected.getString(key);
+        } catch (MissingResourceException e) {
+            expectedValue = null;
+        }
+        String actual;
+        try {
+            actual = bundle.getString(locale, key);
+        } catch (MissingResourceException e) {
+            actual = null;
+        }
+        assertEquals(expectedValue, actual, locale + " " + key);
+        assertEquals(actual != null, bundle.containsKey(locale, key), locale + " " + key);
+    }
+
+    private static List<Locale> generate(Path directory, int localeCount, int keyCount) throws IOException {
+        TreeMap<String, Locale> available = new TreeMap<>();
+        for (Locale locale : Locale.getAvailableLocales()) {
+            if (!locale.getCountry().isEmpty() && locale.getVariant().isEmpty() && locale.getScript().isEmpty()
+                    && !locale.hasExtensions() && locale.getCountry().length() == 2) {
+                available.put(locale.toString(), locale);
+            }
+        }
+        List<Locale> locales = new ArrayList<>(available.values());
+        locales = locales.subList(0, Math.min(localeCount, locales.size()));
+        write(directory.resolve(BASE_NAME + ".properties"), -1, "root", keyCount);
+        for (int l = 0; l < locales.size(); l++) {
+            Locale locale = locales.get(l);
+            write(directory.resolve(BASE_NAME + "_" + locale + ".properties"), l % 10, locale.toLanguageTag(),
+                    keyCount);
+        }
+        return locales;
+    }
+
+    /* Um arquivo com todas as chaves menos as de número terminado em "skip" (o root tem todas). */
+    private static void write(Path file, int skip, String tag, int keyCount) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int k = 0; k < keyCount; k++) {
+                if (k % 10 != skip) {
+                    out.write(key(k) + "=Mensagem nº " + k + " para " + tag + ": {0} — ação concluída\n");
+                }
+            }
+        }
+    }
+
+    private static String key(int k) {
+        return "section" + (k % 50) + ".message" + k;
+    }
+}
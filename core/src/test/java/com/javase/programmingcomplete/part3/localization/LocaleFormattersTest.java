@@ -0,0 +1,76 @@
+package com.javase.programmingcomplete.part3.localization;
+
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters.Style;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocaleFormattersTest {
+
+    private static final Locale[] LOCALES = {
+            new Locale("en", "GB"),
+            new Locale("ru"),
+            Locale.JAPAN,
+            Locale.forLanguageTag("th-TH-u-ca-buddhist-nu-thai")
+    };
+
+    @Test
+    void formatsLikeNumberFormat() {
+        for (Locale locale : LOCALES) {
+            for (Style style : Style.values()) {
+                NumberFormat expected = create(locale, style);
+                assertEquals(expected.format(12_345), LocaleFormatters.format(locale, style, 12_345L));
+                assertEquals(expected.format(0.2), LocaleFormatters.format(locale, style, 0.2));
+                assertEquals(expected.format(BigDecimal.valueOf(2.99)),
+                        LocaleFormatters.format(locale, style, BigDecimal.valueOf(2.99)));
+                assertEquals(expected.format(BigInteger.TEN.pow(20)),
+                        LocaleFormatters.formatTo(locale, style, BigInteger.TEN.pow(20), new StringBuilder())
+                                .toString());
+            }
+        }
+    }
+
+    @Test
+    void getReturnsACopyThatCanBeChanged() {
+        Locale uk = new Locale("en", "GB");
+        String before = LocaleFormatters.format(uk, Style.NUMBER, 1.23456);
+        NumberFormat copy = LocaleFormatters.get(uk, Style.NUMBER);
+        copy.setMaximumFractionDigits(0);
+        copy.setParseIntegerOnly(true);
+
+        assertEquals("1", copy.format(1.23456));
+        assertNotSame(copy, LocaleFormatters.get(uk, Style.NUMBER));
+        assertEquals(before, LocaleFormatters.format(uk, Style.NUMBER, 1.23456));
+        assertEquals("1.235", before);
+    }
+
+    @Test
+    void registryIsBounded() {
+        for (int i = 0; i < LocaleFormatters.MAX_LOCALES + 50; i++) {
+            Locale locale = new Locale("en", "GB", "v" + i);
+            assertEquals(create(locale, Style.CURRENCY).format(2.99),
+                    LocaleFormatters.format(locale, Style.CURRENCY, 2.99));
+        }
+        assertTrue(LocaleFormatters.cachedLocaleCount() <= LocaleFormatters.MAX_LOCALES,
+                "cached " + LocaleFormatters.cachedLocaleCount());
+    }
+
+    private static NumberFormat create(Locale locale, Style style) {
+        switch (style) {
+            case CURRENCY:
+                return NumberFormat.getCurrencyInstance(locale);
+            case PERCENT:
+                return NumberFormat.getPercentInstance(locale);
+            default:
+                return NumberFormat.getNumberInstance(locale);
+        }
+    }
+}
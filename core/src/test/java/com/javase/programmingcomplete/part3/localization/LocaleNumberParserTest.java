@@ -0,0 +1,67 @@
+package com.javase.programmingcomplete.part3.localization;
+
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters.Style;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocaleNumberParserTest {
+
+    private static final Locale UK = new Locale("en", "GB");
+
+    @Test
+    void matchesNumberFormatParse() throws ParseException {
+        Locale[] locales = {UK, new Locale("ru"), Locale.forLanguageTag("th-TH-u-ca-buddhist-nu-thai")};
+        double[] values = {0, 1.7, 2, 0.12, 0.125, 54321, 1234567.89, -3.5, -0.01, 99.99, 1e15};
+        for (Locale locale : locales) {
+            LocaleNumberParser parser = LocaleNumberParser.of(locale);
+            for (Style style : Style.values()) {
+                NumberFormat format = LocaleFormatters.get(locale, style);
+                for (double value : values) {
+                    String text = format.format(value);
+                    double expected = format.parse(text).doubleValue();
+                    // 0.0 e -0.0 contam como o mesmo valor
+                    assertEquals(expected + 0.0, parser.parseDouble(style, text, 0, text.length()) + 0.0,
+                            locale + " " + style + " [" + text + "]");
+                    if (style == Style.CURRENCY) {
+                        long unscaled = parser.parseUnscaled(style, text, 0, text.length(), 2);
+                        assertEquals(0, BigDecimal.valueOf(unscaled, 2).compareTo(BigDecimal.valueOf(expected)),
+                                locale + " [" + text + "]: unscaled " + unscaled);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void wholeCurrencyAmountIsADouble() throws ParseException {
+        // O caso do ClassCastException: "£2" vira Long no NumberFormat, aqui é só um double.
+        assertEquals(2.0, LocaleNumberParser.of(UK).parseCurrency("£2"));
+    }
+
+    @Test
+    void parsesFieldsInPlace() throws ParseException {
+        LocaleNumberParser parser = LocaleNumberParser.of(UK);
+        String line = "£1.70;£12.99;£1,234.50;£0.99";
+        assertEquals(170, parser.parseUnscaled(Style.CURRENCY, line, 0, 5, 2));
+        assertEquals(123_450, parser.parseUnscaled(Style.CURRENCY, line, 13, 22, 2));
+        assertEquals(0.12, parser.parsePercent("12%"));
+        assertEquals(54_321, parser.parseLong("54,321"));
+    }
+
+    @Test
+    void rejectsWhatDoesNotFitTheStyleOrScale() {
+        LocaleNumberParser parser = LocaleNumberParser.of(UK);
+        assertThrows(ParseException.class, () -> parser.parseUnscaled(Style.CURRENCY, "£1.705", 0, 6, 2));
+        assertThrows(ParseException.class, () -> parser.parsePercent("12"));
+        assertThrows(ParseException.class, () -> parser.parseLong("54,321x"));
+        assertThrows(ParseException.class, () -> parser.parseLong("1.5"));
+    }
+}
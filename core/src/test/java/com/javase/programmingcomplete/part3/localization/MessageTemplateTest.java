@@ -0,0 +1,75 @@
+package com.javase.programmingcomplete.part3.localization;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageTemplateTest {
+
+    private static final Locale[] LOCALES = {Locale.JAPAN, new Locale("en", "GB"), new Locale("ru")};
+    private static final Object[] ARGS = {"Cookie", BigDecimal.valueOf(2.99), 12345, "10 Apr 2021"};
+
+    @Test
+    void matchesMessageFormatForAllBundles() {
+        for (Locale locale : LOCALES) {
+            ResourceBundle bundle = ResourceBundle.getBundle("resource.messages", locale);
+            for (String key : bundle.keySet()) {
+                String expected = new MessageFormat(bundle.getString(key), locale).format(ARGS);
+                assertEquals(expected, MessageTemplate.of("resource.messages", locale, key).format(ARGS),
+                        locale + " " + key);
+            }
+        }
+    }
+
+    @Test
+    void matchesMessageFormatForQuotesAndFormatTypes() {
+        String[] patterns = {"It''s {0}", "'{0}' is {0}", "{0} '{1}' ''{1}''", "{1,number,#.##} of {0}",
+                "{2,choice,0#none|1#one|1<many}", "{3}{2}{1}{0}", "no arguments"};
+        for (Locale locale : LOCALES) {
+            for (String pattern : patterns) {
+                assertEquals(new MessageFormat(pattern, locale).format(ARGS),
+                        MessageTemplate.compile(pattern, locale).format(ARGS), locale + " " + pattern);
+            }
+        }
+    }
+
+    @Test
+    void largeIndexesAreWrittenAsPlaceholders() {
+        for (String pattern : new String[]{"{0} {99999999}", "{0} {2147483647,number}", "{1024}{1023}"}) {
+            MessageTemplate template = MessageTemplate.compile(pattern, Locale.ROOT);
+            assertTrue(template.argumentCount() <= MessageTemplate.MAX_ARGUMENTS, pattern);
+            assertEquals(new MessageFormat(pattern, Locale.ROOT).format(new Object[]{"a"}), template.format("a"),
+                    pattern);
+        }
+        assertEquals("{1024}x", MessageTemplate.compile("{1024}{1023}", Locale.ROOT).bind()
+                .arg(1024, "ignored").arg(1023, "x").render());
+    }
+
+    @Test
+    void unsetArgumentsAreWrittenAsPlaceholdersOnBothPaths() {
+        MessageTemplate simple = MessageTemplate.compile("{0}, {1}, {2}, {3}", Locale.ROOT);
+        MessageTemplate withTypes = MessageTemplate.compile("{0}, {1}, {2,number,#.#}, {3}", Locale.ROOT);
+        assertEquals("a, {1}, 2.5, {3}", simple.bind().arg(0, "a").arg(2, 2.5).render());
+        assertEquals("a, {1}, 2.5, {3}", withTypes.bind().arg(0, "a").arg(2, 2.5).render());
+        assertEquals("{0}, {1}, {2}, {3}", withTypes.bind().render());
+        // Um null informado continua sendo "null", como no MessageFormat.
+        assertEquals("null, {1}, 2, {3}", withTypes.bind().arg(0, null).arg(2, 2L).render());
+        assertEquals("null, {1}, 2, {3}", simple.bind().arg(0, null).arg(2, 2L).render());
+    }
+
+    @Test
+    void rejectsTheSameArgumentIndexesAsMessageFormat() {
+        for (String pattern : new String[]{"{ 0 }", "{0 }", "{0 ,number}", "{-1}", "{x}"}) {
+            assertThrows(IllegalArgumentException.class, () -> new MessageFormat(pattern, Locale.ROOT), pattern);
+            assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile(pattern, Locale.ROOT),
+                    pattern);
+        }
+    }
+}
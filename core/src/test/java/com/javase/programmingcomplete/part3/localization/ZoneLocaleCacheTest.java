@@ -0,0 +1,99 @@
+package com.javase.programmingcomplete.part3.localization;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.IllformedLocaleException;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZoneLocaleCacheTest {
+
+    private static final String[] ZONES = {"America/Los_Angeles", "america/los_angeles", " Europe/London", "GMT+2",
+            "gmt+2", "UTC-05:00", "Asia/Tokyo", "America/Sao_Paulo", "Z", "+03:00", "Australia/Lord_Howe", "UTC"};
+    private static final String[] INVALID_ZONES = {"America/Nowhere", "GMT+25", "Mars/Olympus", "UTC+", "PST"};
+    private static final String[] LOCALES = {"en-GB", "en_GB", "ru", "ja-JP", "th-TH-u-ca-buddhist-nu-thai", "EN-us",
+            "pt-BR", "de_DE", "fr", "zh-Hant-TW"};
+    private static final String[] INVALID_LOCALES = {"en_US_POSIX!", "en_US.UTF-8", "x", "12-34", "en--US"};
+
+    /* Da segunda volta em diante tudo, inclusive os inválidos, vem do cache. */
+    @Test
+    void matchesZoneIdOfAndLocaleForLanguageTag() {
+        ZoneLocaleCache cache = ZoneLocaleCache.bounded(1_000);
+        for (int round = 0; round < 2; round++) {
+            for (String text : ZONES) {
+                ZoneId expected = ZoneId.of(canonicalForJdk(text));
+                assertEquals(expected, cache.zoneId(text), text);
+                assertEquals(expected.getRules(), cache.rules(text), text);
+            }
+            for (String text : LOCALES) {
+                assertEquals(Locale.forLanguageTag(text.replace('_', '-')), cache.locale(text), text);
+            }
+            for (String text : INVALID_ZONES) {
+                expectZoneFailure(cache, text);
+            }
+            for (String text : INVALID_LOCALES) {
+                assertThrows(IllformedLocaleException.class, () -> cache.locale(text), text);
+                assertSame(Locale.ROOT, cache.locale(text, Locale.ROOT), text);
+            }
+        }
+        long misses = cache.missCount();
+        expectZoneFailure(cache, "Mars/Olympus");
+        assertEquals(misses, cache.missCount(), cache.toString());
+        assertTrue(cache.negativeHitCount() > 0, cache.toString());
+        assertEquals(0, cache.evictionCount(), cache.toString());
+    }
+
+    @Test
+    void returnsOneInstancePerCanonicalText() {
+        ZoneLocaleCache cache = ZoneLocaleCache.bounded(100);
+        assertSame(cache.zoneId("America/Los_Angeles"), cache.zoneId("america/los_angeles"));
+        assertSame(cache.zoneId("gmt+2"), cache.zoneId(" GMT+2 "));
+        assertSame(cache.locale("en-US"), cache.locale("EN_us"));
+    }
+
+    @Test
+    void rejectsLongTextWithoutParsing() {
+        ZoneLocaleCache cache = ZoneLocaleCache.bounded(100);
+        String huge = "A".repeat(ZoneLocaleCache.MAX_INPUT_LENGTH + 1);
+        assertSame(ZoneOffset.UTC, cache.zoneId(huge, ZoneOffset.UTC));
+        assertEquals(1, cache.rejectedCount(), cache.toString());
+    }
+
+    @Test
+    void boundedCacheEvicts() {
+        ZoneLocaleCache small = ZoneLocaleCache.bounded(20);
+        List<String> ids = new ArrayList<>(ZoneId.getAvailableZoneIds());
+        for (int i = 0; i < 2_000; i++) {
+            String id = ids.get(i % 300);
+            assertEquals(id, small.zoneId(id).getId());
+        }
+        assertTrue(small.size() <= 20, small.toString());
+        assertTrue(small.evictionCount() > 0, small.toString());
+    }
+
+    /* A mesma exceção do ZoneId.of, e o default quando ele é passado. */
+    private static void expectZoneFailure(ZoneLocaleCache cache, String text) {
+        DateTimeException expected = assertThrows(DateTimeException.class, () -> ZoneId.of(text), text);
+        DateTimeException actual = assertThrows(DateTimeException.class, () -> cache.zoneId(text), text);
+        assertEquals(expected.getClass(), actual.getClass(), text);
+        assertSame(ZoneOffset.UTC, cache.zoneId(text, ZoneOffset.UTC), text);
+    }
+
+    /* Os textos de ZONES escritos do jeito que o ZoneId.of aceita. */
+    private static String canonicalForJdk(String text) {
+        String zone = text.strip();
+        if (zone.equals("america/los_angeles")) {
+            return "America/Los_Angeles";
+        }
+        return zone.startsWith("gmt") ? "GMT" + zone.substring(3) : zone;
+    }
+}
@@ -0,0 +1,140 @@
+package com.javase.programmingcomplete.part3.report;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocalizedReportTest {
+
+    private static final int RECORDS = 20_000;
+    // th-TH-u-ca-buddhist-nu-thai: ano budista e dígitos tailandeses na data, como no localizedBy.
+    private static final Locale[] LOCALES = {new Locale("en", "GB"), new Locale("ru"), Locale.JAPAN, Locale.GERMANY,
+            Locale.US, Locale.forLanguageTag("th-TH-u-ca-buddhist-nu-thai")};
+    private static final Charset[] CHARSETS = {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1,
+            Charset.forName("Shift_JIS")};
+    private static final String[] NAMES = {
+            "Cookie", "Café", "Crème brûlée", "Шоколад", "抹茶", "Apple pie", "Bread", "Cheese", "Tea", "Milk",
+    };
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(3);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    /* O arquivo precisa ser byte a byte igual ao do jeito do P3ZonedDateTime.localizedResources(). */
+    @Test
+    void sequentialAndParallelMatchMessageFormat() throws IOException {
+        for (Locale locale : LOCALES) {
+            String text = reference(source(RECORDS), locale);
+            for (Charset charset : CHARSETS) {
+                byte[] expected = text.getBytes(charset);
+                check(expected, LocalizedReport.builder(locale).charset(charset).sequential().build(),
+                        source(RECORDS), "sequential " + locale + " " + charset);
+                for (int chunk : new int[]{1, 7, 4096}) {
+                    LocalizedReport report = LocalizedReport.builder(locale).charset(charset)
+                            .chunkRecords(chunk).ioBufferSize(chunk * 11).parallel(POOL).build();
+                    check(expected, report, source(RECORDS), "parallel " + locale + " " + charset + " " + chunk);
+                }
+            }
+        }
+    }
+
+    @Test
+    void csvInputGivesTheSameReport() throws IOException {
+        String csv = csv(RECORDS);
+        for (Locale locale : LOCALES) {
+            byte[] expected = reference(source(RECORDS), locale).getBytes(StandardCharsets.UTF_8);
+            try (CsvProductSource source = new CsvProductSource(new BufferedReader(new StringReader(csv)))) {
+                check(expected, LocalizedReport.builder(locale).parallel(POOL).build(), source, "csv " + locale);
+            }
+        }
+    }
+
+    /* UTF-16 escreveria um BOM em cada chunk. */
+    @Test
+    void rejectsCharsetsWithAByteOrderMark() {
+        assertThrows(IllegalArgumentException.class,
+                () -> LocalizedReport.builder(Locale.UK).charset(StandardCharsets.UTF_16).build());
+    }
+
+    private static void check(byte[] expected, LocalizedReport report, ProductSource source, String name)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(expected.length);
+        long written = report.write(source, Channels.newChannel(out));
+        byte[] actual = out.toByteArray();
+        assertEquals(actual.length, written, name);
+        assertArrayEquals(expected, actual, name);
+    }
+
+    private static ProductSource source(int records) {
+        int[] next = {0};
+        return batch -> {
+            int count = 0;
+            while (!batch.isFull() && next[0] < records) {
+                int i = next[0]++;
+                batch.add(NAMES[i % NAMES.length], (i * 7919L) % 1_000_000 - (i % 97 == 0 ? 5_000 : 0),
+                        (i * 31L) % 100_000, 10_000 + (i * 13L) % 30_000);
+                count++;
+            }
+            return count;
+        };
+    }
+
+    /* NumberFormat, DateTimeFormatter e MessageFormat.format por produto. */
+    private static String reference(ProductSource source, Locale locale) throws IOException {
+        String pattern = ResourceBundle.getBundle("resource.messages", locale).getString("product");
+        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(locale);
+        NumberFormat numberFormat = NumberFormat.getNumberInstance(locale);
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).localizedBy(locale);
+        StringBuilder out = new StringBuilder();
+        ProductBatch batch = new ProductBatch(1024, 2);
+        while (source.read(batch) > 0) {
+            for (int i = 0; i < batch.size(); i++) {
+                String formattedPrice = currencyFormat.format(BigDecimal.valueOf(batch.prices().getUnscaled(i), 2));
+                String formattedQuantity = numberFormat.format(batch.quantity(i));
+                String bestBefore = LocalDate.ofEpochDay(batch.bestBefore(i)).format(dateFormatter);
+                out.append(MessageFormat.format(pattern, batch.name(i), formattedPrice, formattedQuantity, bestBefore))
+                        .append('\n');
+            }
+            batch.clear();
+        }
+        return out.toString();
+    }
+
+    private static String csv(int records) throws IOException {
+        StringBuilder csv = new StringBuilder();
+        ProductBatch batch = new ProductBatch(1024, 2);
+        ProductSource source = source(records);
+        while (source.read(batch) > 0) {
+            for (int i = 0; i < batch.size(); i++) {
+                csv.append(batch.name(i)).append(';').append(batch.prices().toBigDecimal(i).toPlainString())
+                        .append(';').append(batch.quantity(i)).append(';')
+                        .append(LocalDate.ofEpochDay(batch.bestBefore(i))).append('\n');
+            }
+            batch.clear();
+        }
+        return csv.toString();
+    }
+}
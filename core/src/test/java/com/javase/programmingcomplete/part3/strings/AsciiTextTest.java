@@ -0,0 +1,110 @@
+package com.javase.programmingcomplete.part3.strings;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsciiTextTest {
+
+    /* Confere a tabela do SpecialCasing: cada code point, sozinho e no fim de uma palavra, converte como a String. */
+    @Test
+    void convertsEveryCodePointLikeString() {
+        char[] out = new char[8];
+        for (int codePoint = 0x80; codePoint <= Character.MAX_CODE_POINT; codePoint++) {
+            if (Character.getType(codePoint) == Character.UNASSIGNED) {
+                continue;
+            }
+            for (String text : new String[]{new String(Character.toChars(codePoint)),
+                    "a" + new String(Character.toChars(codePoint))}) {
+                char[] chars = text.toCharArray();
+                assertEquals(text.toLowerCase(Locale.ROOT),
+                        new String(out, 0, AsciiText.toLowerCase(chars, 0, chars.length, out, 0)), text);
+                assertEquals(text.toUpperCase(Locale.ROOT),
+                        new String(out, 0, AsciiText.toUpperCase(chars, 0, chars.length, out, 0)), text);
+            }
+        }
+    }
+
+    /* Textos aleatórios com ASCII, acentos, 'ß', 'İ', sigma, surrogate pairs, dígitos árabes e espaços Unicode. */
+    @Test
+    void matchesStringMethodsOnRandomTexts() {
+        Random random = new Random(42);
+        String[] pieces = {"a", "Z", "m", "0", "9", " ", "\t", "/", "~", "é", "É", "ß", "İ", "ı", "Σ", "σ", "ς",
+                "𐐀", "𐐨", "٣", "\u2003", "\u00A0", "ǅ", "ﬁ", "\u0000", "Ω", "x", "Q"};
+        for (int round = 0; round < 200_000; round++) {
+            StringBuilder builder = new StringBuilder();
+            int length = random.nextInt(round % 10 == 0 ? 40 : 12);
+            boolean ascii = random.nextBoolean();
+            for (int i = 0; i < length; i++) {
+                builder.append(ascii ? String.valueOf((char) random.nextInt(128)) : pieces[random.nextInt(pieces.length)]);
+            }
+            String text = builder.toString();
+            char[] chars = ("<<" + text + ">>").toCharArray();
+            byte[] bytes = ("<<" + text + ">>").getBytes(StandardCharsets.UTF_8);
+            int from = 2;
+            int to = chars.length - 2;
+            int byteTo = bytes.length - 2;
+
+            char[] charOut = new char[text.length() * 3 + 4];
+            byte[] byteOut = new byte[bytes.length * 3 + 4];
+            assertEquals(text.toLowerCase(Locale.ROOT),
+                    new String(charOut, 1, AsciiText.toLowerCase(chars, from, to, charOut, 1)), text);
+            assertEquals(text.toUpperCase(Locale.ROOT),
+                    new String(charOut, 1, AsciiText.toUpperCase(chars, from, to, charOut, 1)), text);
+            assertEquals(text.toLowerCase(Locale.ROOT), new String(byteOut, 1,
+                    AsciiText.toLowerCase(bytes, from, byteTo, byteOut, 1), StandardCharsets.UTF_8), text);
+            assertEquals(text.toUpperCase(Locale.ROOT), new String(byteOut, 1,
+                    AsciiText.toUpperCase(bytes, from, byteTo, byteOut, 1), StandardCharsets.UTF_8), text);
+
+            int start = AsciiText.trimStart(chars, from, to);
+            assertEquals(text.trim(), new String(chars, start, AsciiText.trimEnd(chars, start, to) - start), text);
+            int byteStart = AsciiText.trimStart(bytes, from, byteTo);
+            assertEquals(text.trim(), new String(bytes, byteStart, AsciiText.trimEnd(bytes, byteStart, byteTo) - byteStart,
+                    StandardCharsets.UTF_8), text);
+            start = AsciiText.stripStart(chars, from, to);
+            assertEquals(text.strip(), new String(chars, start, AsciiText.stripEnd(chars, start, to) - start), text);
+
+            for (char ch : new char[]{'/', '~', 'a', 'é', 'Σ'}) {
+                int expected = text.indexOf(ch);
+                int index = AsciiText.indexOf(chars, from, to, ch);
+                assertEquals(expected, index < 0 ? -1 : index - from, text + " " + ch);
+                int byteIndex = AsciiText.indexOf(bytes, from, byteTo, ch);
+                assertEquals(expected, byteIndex < 0 ? -1 : new String(bytes, from, byteIndex - from,
+                        StandardCharsets.UTF_8).length(), text + " " + ch);
+            }
+
+            int digits = 0;
+            while (digits < text.length() && Character.isDigit(text.charAt(digits))) {
+                digits++;
+            }
+            assertEquals(digits, AsciiText.digitPrefixEnd(chars, from, to) - from, text);
+            int asciiDigits = 0;
+            while (asciiDigits < text.length() && text.charAt(asciiDigits) >= '0' && text.charAt(asciiDigits) <= '9') {
+                asciiDigits++;
+            }
+            assertEquals(asciiDigits, AsciiText.digitPrefixEnd(bytes, from, byteTo) - from, text);
+            byte[] values = new byte[text.length()];
+            AsciiText.digitValues(chars, from, to, values, 0);
+            byte[] expectedValues = new byte[text.length()];
+            for (int i = 0; i < text.length(); i++) {
+                expectedValues[i] = (byte) Character.digit(text.charAt(i), 10);
+            }
+            assertArrayEquals(expectedValues, values, text);
+            boolean isAscii = text.chars().allMatch(c -> c < 0x80);
+            assertEquals(isAscii, AsciiText.isAscii(bytes, from, byteTo), text);
+            assertEquals(isAscii, AsciiText.isAscii(chars, from, to), text);
+        }
+    }
+
+    @Test
+    void convertsInPlace() {
+        char[] chars = "Hello WORLD ß".toCharArray();
+        AsciiText.toLowerCase(chars, 0, chars.length, chars, 0);
+        assertEquals("hello world ß", new String(chars));
+    }
+}
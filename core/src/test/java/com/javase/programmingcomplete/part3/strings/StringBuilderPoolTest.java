@@ -0,0 +1,66 @@
+package com.javase.programmingcomplete.part3.strings;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StringBuilderPoolTest {
+
+    @Test
+    void learnsTheMessageLengthPerSite() {
+        StringBuilderPool pool = new StringBuilderPool(1024);
+        StringBuilderPool.Site site = pool.site("learn");
+        String text = "x".repeat(300);
+        for (int i = 0; i < 10; i++) {
+            try (StringBuilderPool.Lease lease = site.acquire()) {
+                lease.builder().append(text);
+            }
+        }
+        // Só o primeiro builder cresce: depois disso o site já sabe que as mensagens têm 300 chars.
+        assertEquals(1, pool.resizeCount(), pool.toString());
+        assertEquals(300, site.expectedLength());
+        assertTrue(pool.hitRate() >= 0.89, pool.toString());
+    }
+
+    @Test
+    void nestedLeasesGetDifferentBuilders() {
+        StringBuilderPool.Site site = new StringBuilderPool(1024).site("nested");
+        try (StringBuilderPool.Lease outer = site.acquire(); StringBuilderPool.Lease inner = site.acquire()) {
+            assertNotSame(outer.builder(), inner.builder());
+        }
+    }
+
+    @Test
+    void closeIsIdempotent() {
+        StringBuilderPool.Site site = new StringBuilderPool(1024).site("close");
+        StringBuilderPool.Lease first = site.acquire();
+        first.close();
+        // O segundo close() não faz nada, nem quando o builder já foi emprestado de novo.
+        StringBuilderPool.Lease next = site.acquire();
+        next.builder().append("kept");
+        first.close();
+        StringBuilderPool.Lease other = site.acquire();
+        assertNotSame(next.builder(), other.builder());
+        assertEquals("kept", next.builder().toString());
+        other.close();
+        next.close();
+        next.close();
+        assertThrows(IllegalStateException.class, first::builder);
+    }
+
+    @Test
+    void dropsBuildersOverTheLimit() {
+        StringBuilderPool pool = new StringBuilderPool(1024);
+        StringBuilderPool.Site site = pool.site("oversized");
+        try (StringBuilderPool.Lease lease = site.acquire()) {
+            lease.builder().append("y".repeat(5_000));
+        }
+        // O builder maior que o limite é descartado, e o aprendizado fica limitado ao máximo.
+        assertEquals(1, pool.discardedCount(), pool.toString());
+        assertEquals(1024, site.expectedLength());
+        assertTrue(pool.retainedBytes() <= 2 * 2 * 1024, pool.toString());
+    }
+}
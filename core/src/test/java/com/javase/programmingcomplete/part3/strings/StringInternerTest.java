@@ -0,0 +1,46 @@
+package com.javase.programmingcomplete.part3.strings;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StringInternerTest {
+
+    @Test
+    void returnsOneInstancePerText() {
+        for (StringInterner interner : new StringInterner[]{StringInterner.bounded(1_000), StringInterner.weak()}) {
+            // Mantém as strings vivas, senão o modo weak pode liberá-las no meio da verificação.
+            String[] alive = new String[500];
+            for (int i = 0; i < alive.length; i++) {
+                String text = "key-" + i + (i % 2 == 0 ? "" : "-ção");
+                String interned = interner.intern(text);
+                alive[i] = interned;
+                char[] padded = ("[" + text + "]").toCharArray();
+                byte[] utf8 = ("[" + text + "]").getBytes(StandardCharsets.UTF_8);
+                assertSame(interned, interner.intern(new String(text)), text);
+                assertSame(interned, interner.intern(padded, 1, text.length()), text);
+                assertSame(interned, interner.intern(utf8, 1, utf8.length - 2), text);
+                assertSame(interned, interner.intern(new StringBuilder(text), 0, text.length()), text);
+                assertSame(interned, interner.intern("x" + text, 1, text.length() + 1), text);
+            }
+            assertEquals(500, interner.size(), interner.toString());
+            assertEquals(500, interner.missCount(), interner.toString());
+            assertEquals(2_500, interner.hitCount(), interner.toString());
+        }
+    }
+
+    @Test
+    void boundedInternerEvicts() {
+        StringInterner small = StringInterner.bounded(100);
+        for (int i = 0; i < 10_000; i++) {
+            String text = "k" + (i % 300);
+            assertEquals(text, small.intern(text));
+        }
+        assertTrue(small.size() <= 100, small.toString());
+        assertTrue(small.evictionCount() > 0, small.toString());
+    }
+}
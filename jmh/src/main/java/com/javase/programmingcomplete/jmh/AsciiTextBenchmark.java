@@ -0,0 +1,166 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.strings.AsciiText;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsciiTextBenchmark {
+
+    /*
+    AsciiText contra os métodos da String em chaves curtas (menos de 16 chars) e em um documento de 1 MB. Nos métodos
+    da String o texto chega em um char[] ou byte[] (como viria de um parser), então a conta inclui criar a String, como
+    seria no código real. Os do documento são por documento inteiro (microssegundos).
+
+    Que os resultados são os mesmos dos métodos da String é conferido no AsciiTextTest.
+     */
+
+    private static final int DOCUMENT_SIZE = 1 << 20;
+
+    @State(Scope.Thread)
+    public static class Keys {
+        private final String[] keys = {"  EUR/usd ", "Europe/Berlin", "SKU-00042", " 12345 ", "America/Sao_Paulo"};
+        private final char[][] chars = new char[keys.length][];
+        private final byte[][] bytes = new byte[keys.length][];
+        private final char[] charOut = new char[64];
+        private final byte[] byteOut = new byte[64];
+        private int next;
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < keys.length; i++) {
+                chars[i] = keys[i].toCharArray();
+                bytes[i] = keys[i].getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        int nextIndex() {
+            int index = next;
+            next = next + 1 == keys.length ? 0 : next + 1;
+            return index;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Document {
+        private char[] chars;
+        private byte[] bytes;
+        private final char[] charOut = new char[DOCUMENT_SIZE];
+        private final byte[] byteOut = new byte[DOCUMENT_SIZE];
+
+        @Setup
+        public void setUp() {
+            String document = randomAscii(new Random(1), DOCUMENT_SIZE);
+            chars = document.toCharArray();
+            bytes = document.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public String stringTrimToLowerCaseChars(Keys state) {
+        return new String(state.chars[state.nextIndex()]).trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Benchmark
+    public int asciiTextTrimToLowerCaseChars(Keys state) {
+        char[] key = state.chars[state.nextIndex()];
+        int start = AsciiText.trimStart(key, 0, key.length);
+        int end = AsciiText.trimEnd(key, start, key.length);
+        return AsciiText.toLowerCase(key, start, end, state.charOut, 0);
+    }
+
+    @Benchmark
+    public String stringTrimToLowerCaseBytes(Keys state) {
+        return new String(state.bytes[state.nextIndex()], StandardCharsets.UTF_8).trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Benchmark
+    public int asciiTextTrimToLowerCaseBytes(Keys state) {
+        byte[] key = state.bytes[state.nextIndex()];
+        int start = AsciiText.trimStart(key, 0, key.length);
+        int end = AsciiText.trimEnd(key, start, key.length);
+        return AsciiText.toLowerCase(key, start, end, state.byteOut, 0);
+    }
+
+    @Benchmark
+    public int stringIndexOf(Keys state) {
+        return new String(state.bytes[state.nextIndex()], StandardCharsets.UTF_8).indexOf('/');
+    }
+
+    @Benchmark
+    public int asciiTextIndexOf(Keys state) {
+        byte[] key = state.bytes[state.nextIndex()];
+        return AsciiText.indexOf(key, 0, key.length, '/');
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String documentStringToUpperCaseBytes(Document state) {
+        return new String(state.bytes, StandardCharsets.UTF_8).toUpperCase(Locale.ROOT);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int documentAsciiTextToUpperCaseBytes(Document state) {
+        return AsciiText.toUpperCase(state.bytes, 0, state.bytes.length, state.byteOut, 0);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String documentStringToUpperCaseChars(Document state) {
+        return new String(state.chars).toUpperCase(Locale.ROOT);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int documentAsciiTextToUpperCaseChars(Document state) {
+        return AsciiText.toUpperCase(state.chars, 0, state.chars.length, state.charOut, 0);
+    }
+
+    /* O '~' não aparece no documento: a busca passa pelo documento inteiro. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int documentStringIndexOfAbsent(Document state) {
+        return new String(state.bytes, StandardCharsets.UTF_8).indexOf('~');
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int documentAsciiTextIndexOfAbsent(Document state) {
+        return AsciiText.indexOf(state.bytes, 0, state.bytes.length, '~');
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean documentAsciiTextIsAscii(Document state) {
+        return AsciiText.isAscii(state.bytes, 0, state.bytes.length);
+    }
+
+    /* Letras, dígitos, pontuação e espaços ASCII, sem o '~'. */
+    private static String randomAscii(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            char c = (char) (' ' + random.nextInt(94));
+            chars[i] = c == '~' ? '\n' : c;
+        }
+        return new String(chars);
+    }
+}
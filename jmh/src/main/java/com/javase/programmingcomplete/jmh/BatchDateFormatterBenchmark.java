@@ -0,0 +1,94 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.datetime.BatchDateFormatter;
+import com.javase.programmingcomplete.part3.datetime.TextColumn;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchDateFormatterBenchmark {
+
+    /*
+    LocalDate.format/LocalDate.parse linha a linha (como em P3ZonedDateTime.usingLocaleDateAndTime()) contra o
+    BatchDateFormatter em colunas de "rows" linhas. O tempo é por coluna inteira: divida por rows para ter o tempo por
+    linha. Acima de BatchDateFormatter.PARALLEL_THRESHOLD linhas o BatchDateFormatter usa todos os cores. Colunas
+    maiores são processadas em blocos de 1 milhão reusando a mesma TextColumn, então o tempo por linha é o de rows=1000000.
+
+    Que o texto e o parse são iguais aos do DateTimeFormatter é conferido no BatchDateFormatterTest.
+     */
+
+    @Param({"1000", "1000000"})
+    private int rows;
+
+    private DateTimeFormatter format;
+    private BatchDateFormatter batch;
+    private long[] days;
+    private long[] parsed;
+    private String[] texts;
+    private final TextColumn column = new TextColumn();
+
+    @Setup
+    public void setUp() {
+        Locale locale = new Locale("en", "GB");
+        String pattern = "EEEE dd MMM yyyy";
+        format = DateTimeFormatter.ofPattern(pattern, locale);
+        batch = BatchDateFormatter.ofPattern(pattern, locale);
+        days = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            days[i] = 10_000 + (i * 7L) % 40_000;
+        }
+        parsed = new long[rows];
+        batch.formatTo(days, 0, rows, column);
+        texts = column.toStrings();
+    }
+
+    @Benchmark
+    public long localDateFormat() {
+        long length = 0;
+        for (long day : days) {
+            length += LocalDate.ofEpochDay(day).format(format).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int batchDateFormatterFormatTo() {
+        batch.formatTo(days, 0, rows, column);
+        return column.end(rows - 1);
+    }
+
+    @Benchmark
+    public long localDateParse() {
+        long sum = 0;
+        for (String text : texts) {
+            sum += LocalDate.parse(text, format).toEpochDay();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long batchDateFormatterParseTo() {
+        batch.parseTo(column, parsed);
+        return parsed[rows - 1];
+    }
+}
@@ -0,0 +1,59 @@
+package com.javase.programmingcomplete.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+import java.io.IOException;
+
+public final class BenchmarkRunner {
+
+    /*
+    Main do benchmarks.jar. Aceita as mesmas opções do org.openjdk.jmh.Main, mas sempre roda com o profiler de GC (bytes
+    alocados por operação, gc.count e gc.time) e, se -rf não for passado, grava os resultados em jmh-result.json, que
+    é o arquivo a guardar para comparar entre versões.
+
+        java -jar jmh/target/benchmarks.jar                       todos os benchmarks
+        java -jar jmh/target/benchmarks.jar StringsBenchmark -f 2 só os de P1, com dois forks
+        java -jar jmh/target/benchmarks.jar -l                    lista os benchmarks
+     */
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, IOException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!hasGcProfiler(commandLine)) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        Runner runner = new Runner(options.build());
+        if (commandLine.shouldList()) {
+            runner.list();
+            return;
+        }
+        runner.run();
+    }
+
+    private static boolean hasGcProfiler(CommandLineOptions commandLine) {
+        for (ProfilerConfig profiler : commandLine.getProfilers()) {
+            if (profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
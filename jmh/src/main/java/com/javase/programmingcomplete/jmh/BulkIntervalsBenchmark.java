@@ -0,0 +1,125 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.datetime.BulkIntervals;
+import com.javase.programmingcomplete.part3.datetime.ZoneOffsetTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkIntervalsBenchmark {
+
+    /*
+    O jeito do P2PrimitiveWrappers.instantDurationPeriods() (Duration.between de Instants, Period.between de
+    LocalDates, atStartOfDay para o tamanho do dia), linha a linha, contra o BulkIntervals em colunas de "size" pares. O
+    tempo é por coluna inteira. Acima de BulkIntervals.PARALLEL_THRESHOLD o BulkIntervals usa todos os cores.
+
+    Os resultados são conferidos linha a linha contra o JDK no BulkIntervalsTest.
+     */
+
+    private static final ZoneId SAO_PAULO = ZoneId.of("America/Sao_Paulo");
+
+    @Param({"1000", "1000000"})
+    private int size;
+
+    private ZoneOffsetTable zone;
+    private long[] startNanos;
+    private long[] endNanos;
+    private long[] startDays;
+    private long[] endDays;
+    private long[] outLong;
+    private int[] outYears;
+    private int[] outMonths;
+    private int[] outDays;
+
+    /* Eventos entre 1980 e 2060 que duram de alguns segundos a alguns anos. */
+    @Setup
+    public void setUp() {
+        zone = ZoneOffsetTable.of(SAO_PAULO, 1970, 2100);
+        startNanos = new long[size];
+        endNanos = new long[size];
+        startDays = new long[size];
+        endDays = new long[size];
+        outLong = new long[size];
+        outYears = new int[size];
+        outMonths = new int[size];
+        outDays = new int[size];
+        SplittableRandom random = new SplittableRandom(size);
+        for (int i = 0; i < size; i++) {
+            long start = random.nextLong(315_532_800_000_000_000L, 2_840_140_800_000_000_000L);
+            long length = random.nextLong(1_000_000_000L, 4 * 365 * 86_400_000_000_000L);
+            startNanos[i] = start;
+            endNanos[i] = random.nextInt(8) == 0 ? start - length : start + length;
+            startDays[i] = Math.floorDiv(startNanos[i], 86_400_000_000_000L);
+            endDays[i] = Math.floorDiv(endNanos[i], 86_400_000_000_000L);
+        }
+    }
+
+    @Benchmark
+    public long durationBetween() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += Duration.between(BulkIntervals.toInstant(startNanos[i]), BulkIntervals.toInstant(endNanos[i]))
+                    .toNanos();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long bulkIntervalsDurations() {
+        BulkIntervals.durations(startNanos, endNanos, outLong, 0, size);
+        return outLong[size - 1];
+    }
+
+    @Benchmark
+    public long periodBetween() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += Period.between(LocalDate.ofEpochDay(startDays[i]), LocalDate.ofEpochDay(endDays[i])).getDays();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int bulkIntervalsPeriods() {
+        BulkIntervals.periods(startDays, endDays, outYears, outMonths, outDays, 0, size);
+        return outDays[size - 1];
+    }
+
+    @Benchmark
+    public long atStartOfDayLength() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            LocalDate date = LocalDate.ofEpochDay(startDays[i]);
+            sum += Duration.between(date.atStartOfDay(SAO_PAULO), date.plusDays(1).atStartOfDay(SAO_PAULO)).toNanos();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long bulkIntervalsDayLengths() {
+        BulkIntervals.dayLengths(startDays, zone, outLong, 0, size);
+        return outLong[size - 1];
+    }
+}
@@ -0,0 +1,84 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.localization.BundleCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BundleCacheBenchmark {
+
+    /*
+    BundleCache contra ResourceBundle.getBundle em dois cenários:
+    - inicialização: carregar os bundles de todos os locales (com o cache do JDK limpo a cada chamada);
+    - busca: getString de uma chave do próprio locale (hello) e de uma chave que vem do fallback (other).
+    Que as duas formas retornam os mesmos valores é conferido no BundleCacheTest.
+
+    O BundleCache lê src/resource, então rode o benchmarks.jar da raiz do projeto.
+     */
+
+    private static final Path DIRECTORY = Paths.get("src", "resource");
+    private static final Locale[] LOCALES = {
+            new Locale("en", "GB"), new Locale("ru"), Locale.JAPAN, Locale.FRANCE, Locale.ROOT
+    };
+    private static final Locale UK = new Locale("en", "GB");
+
+    @State(Scope.Thread)
+    public static class Lookup {
+        @Param({"hello", "other"})
+        private String key;
+        private BundleCache cache;
+
+        @Setup
+        public void setUp() throws IOException {
+            cache = BundleCache.load(DIRECTORY, "messages");
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ResourceBundle startupResourceBundle() {
+        ResourceBundle.clearCache();
+        ResourceBundle last = null;
+        for (Locale locale : LOCALES) {
+            last = ResourceBundle.getBundle("resource.messages", locale);
+        }
+        return last;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public BundleCache startupBundleCache() throws IOException {
+        return BundleCache.load(DIRECTORY, "messages");
+    }
+
+    @Benchmark
+    public String lookupResourceBundle(Lookup state) {
+        return ResourceBundle.getBundle("resource.messages", UK).getString(state.key);
+    }
+
+    @Benchmark
+    public String lookupBundleCache(Lookup state) {
+        return state.cache.getString(UK, state.key);
+    }
+}
@@ -0,0 +1,211 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.localization.BundleCompiler;
+import com.javase.programmingcomplete.part3.localization.CompiledBundle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledBundleBenchmark {
+
+    /*
+    CompiledBundle contra ResourceBundle.getBundle com muitos locales e muitas chaves: gera "locales" arquivos
+    .properties com "keys" chaves (cada locale tem 90% das chaves, o resto vem do root) em um diretório temporário e
+    compila todos com o BundleCompiler.
+
+    A inicialização (abrir o bundle de todos os locales e ler uma chave de cada) é medida em SingleShotTime, uma vez
+    por fork: o que importa é o primeiro uso, em uma JVM nova e com nada carregado. A memória alocada para abrir os
+    bundles aparece no gc.alloc.rate.norm do profiler de GC. A busca é medida já com tudo carregado, com chaves
+    espalhadas por todos os locales e só com as 100 mais usadas de um locale.
+
+    Que as duas formas retornam os mesmos valores (e a MissingResourceException para chaves que não existem) é conferido
+    no CompiledBundleTest.
+     */
+
+    private static final String BASE_NAME = "messages";
+
+    /* Os .properties e o .bundle compilado, gerados uma vez por fork. */
+    @State(Scope.Benchmark)
+    public static class Bundles {
+        @Param({"200"})
+        private int locales;
+        @Param({"5000"})
+        private int keys;
+        private Path directory;
+        private Path compiled;
+        private List<Locale> available;
+
+        @Setup
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("bundles");
+            compiled = directory.resolve(BASE_NAME + ".bundle");
+            available = generate(directory, locales, keys);
+            BundleCompiler.compile(directory, BASE_NAME, compiled);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+
+        ClassLoader loader() throws IOException {
+            return new URLClassLoader(new URL[]{directory.toUri().toURL()}, null);
+        }
+    }
+
+    /* Tudo aberto, para medir só a busca. */
+    @State(Scope.Thread)
+    public static class Loaded {
+        private List<Locale> locales;
+        private CompiledBundle compiled;
+        private final List<ResourceBundle> bundles = new ArrayList<>();
+        private String[] keys;
+        private int next;
+
+        @Setup
+        public void setUp(Bundles files) throws IOException {
+            locales = files.available;
+            compiled = CompiledBundle.open(files.compiled);
+            ClassLoader loader = files.loader();
+            for (Locale locale : locales) {
+                bundles.add(ResourceBundle.getBundle(BASE_NAME, locale, loader));
+            }
+            keys = new String[files.keys];
+            for (int k = 0; k < keys.length; k++) {
+                keys[k] = key(k);
+            }
+        }
+
+        /* Volta a zero antes de i * 31 passar do int. */
+        int nextIndex() {
+            int i = next;
+            next = (next + 1) & ((1 << 24) - 1);
+            return i;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(5)
+    public long startupResourceBundle(Bundles files) throws IOException {
+        ClassLoader loader = files.loader();
+        List<ResourceBundle> open = new ArrayList<>();
+        long length = 0;
+        for (Locale locale : files.available) {
+            ResourceBundle bundle = ResourceBundle.getBundle(BASE_NAME, locale, loader);
+            open.add(bundle);
+            length += bundle.getString(key(0)).length();
+        }
+        return length + open.size();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(5)
+    public long startupCompiledBundle(Bundles files) throws IOException {
+        CompiledBundle bundle = CompiledBundle.open(files.compiled);
+        long length = 0;
+        for (Locale locale : files.available) {
+            length += bundle.getString(locale, key(0)).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public String lookupResourceBundle(Loaded state) {
+        int i = state.nextIndex();
+        return state.bundles.get(i % state.bundles.size()).getString(state.keys[(i * 31) % state.keys.length]);
+    }
+
+    @Benchmark
+    public String lookupCompiledBundle(Loaded state) {
+        int i = state.nextIndex();
+        return state.compiled.getString(state.locales.get(i % state.locales.size()),
+                state.keys[(i * 31) % state.keys.length]);
+    }
+
+    @Benchmark
+    public String lookupResourceBundleHotKeys(Loaded state) {
+        return state.bundles.get(0).getString(state.keys[state.nextIndex() % 100]);
+    }
+
+    @Benchmark
+    public String lookupCompiledBundleHotKeys(Loaded state) {
+        return state.compiled.getString(state.locales.get(0), state.keys[state.nextIndex() % 100]);
+    }
+
+    private static List<Locale> generate(Path directory, int localeCount, int keyCount) throws IOException {
+        TreeMap<String, Locale> available = new TreeMap<>();
+        for (Locale locale : Locale.getAvailableLocales()) {
+            if (!locale.getCountry().isEmpty() && locale.getVariant().isEmpty() && locale.getScript().isEmpty()
+                    && !locale.hasExtensions() && locale.getCountry().length() == 2) {
+                available.put(locale.toString(), locale);
+            }
+        }
+        List<Locale> locales = new ArrayList<>(available.values());
+        locales = locales.subList(0, Math.min(localeCount, locales.size()));
+        write(directory.resolve(BASE_NAME + ".properties"), -1, "root", keyCount);
+        for (int l = 0; l < locales.size(); l++) {
+            Locale locale = locales.get(l);
+            write(directory.resolve(BASE_NAME + "_" + locale + ".properties"), l % 10, locale.toLanguageTag(),
+                    keyCount);
+        }
+        return locales;
+    }
+
+    /* Um arquivo com todas as chaves menos as de número terminado em "skip" (o root tem todas). */
+    private static void write(Path file, int skip, String tag, int keyCount) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int k = 0; k < keyCount; k++) {
+                if (k % 10 != skip) {
+                    out.write(key(k) + "=Mensagem nº " + k + " para " + tag + ": {0} — ação concluída\n");
+                }
+            }
+        }
+    }
+
+    private static String key(int k) {
+        return "section" + (k % 50) + ".message" + k;
+    }
+}
@@ -0,0 +1,240 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part2.flowcontrol.DispatchTable;
+import com.javase.programmingcomplete.part2.flowcontrol.StringDispatchTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchTableBenchmark {
+
+    /*
+    DispatchTable e StringDispatchTable contra um HashMap de handlers e contra um switch escrito no código, com 8, 64
+    e 1024 chaves. Ninguém escreve um switch de 1024 cases à mão, então o switch é gerado como código fonte e compilado
+    com o javac (javax.tools) no @Setup: é exatamente o que o javac faria com o switch escrito (tableswitch/lookupswitch
+    para int, hashCode + lookupswitch + equals para String). Por isso o benchmarks.jar precisa rodar em um JDK.
+
+    Os handlers têm quatro formas diferentes, como em uma tabela real, para a chamada não ser monomórfica. 1 em cada 8
+    buscas usa uma chave que não existe e cai no default.
+
+    Com 1024 cases o método do switch passa de 8000 bytes de bytecode, e a HotSpot não compila com o JIT métodos desse
+    tamanho (-XX:-DontCompileHugeMethods muda isso): o switch gigante roda interpretado. É mais um motivo para uma tabela.
+
+    As regras de default e fall-through e o resultado das buscas são conferidos no DispatchTableTest.
+     */
+
+    private static final int LOOKUPS = 4096;
+    private static final Consumer<long[]> DEFAULT_CASE = c -> c[0] -= 1;
+
+    @State(Scope.Thread)
+    public static class IntKeys {
+        @Param({"8", "64", "1024"})
+        private int size;
+        @Param({"dense", "sparse"})
+        private String keys;
+        private DispatchTable<long[]> table;
+        private final Map<Integer, Consumer<long[]>> map = new HashMap<>();
+        private ObjIntConsumer<long[]> generated;
+        private final int[] lookups = new int[LOOKUPS];
+        private final long[] context = new long[1];
+        private int next;
+
+        @Setup
+        public void setUp() throws Exception {
+            int[] values = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = keys.equals("dense") ? i : 100_000 + i * 7919;
+            }
+            DispatchTable.Builder<long[]> builder = DispatchTable.builder();
+            builder.defaultCase(DEFAULT_CASE);
+            for (int i = 0; i < size; i++) {
+                builder.on(values[i], handler(i));
+                map.put(values[i], handler(i));
+            }
+            table = builder.build();
+            generated = compileIntSwitch(values);
+            Random random = new Random(size);
+            for (int i = 0; i < LOOKUPS; i++) {
+                lookups[i] = random.nextInt(8) == 0 ? -5 - random.nextInt(1000) : values[random.nextInt(size)];
+            }
+        }
+
+        int nextKey() {
+            return lookups[next++ & (LOOKUPS - 1)];
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class StringKeys {
+        @Param({"8", "64", "1024"})
+        private int size;
+        private StringDispatchTable<long[]> table;
+        private final Map<String, Consumer<long[]>> map = new HashMap<>();
+        private BiConsumer<long[], String> generated;
+        private final String[] lookups = new String[LOOKUPS];
+        private final long[] context = new long[1];
+        private int next;
+
+        @Setup
+        public void setUp() throws Exception {
+            String[] values = new String[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = (i % 2 == 0 ? "cmd." : "op/") + Integer.toString(i * 31 + 7, 36) + (i % 3 == 0 ? "_ext" : "");
+            }
+            StringDispatchTable.Builder<long[]> builder = StringDispatchTable.builder();
+            builder.defaultCase(DEFAULT_CASE);
+            for (int i = 0; i < size; i++) {
+                builder.on(values[i], handler(i));
+                map.put(values[i], handler(i));
+            }
+            table = builder.build();
+            generated = compileStringSwitch(values);
+            Random random = new Random(size);
+            for (int i = 0; i < LOOKUPS; i++) {
+                // Cópias novas das chaves, como se viessem de um parser (sem o hashCode em cache).
+                lookups[i] = new String(random.nextInt(8) == 0 ? "missing-" + random.nextInt(1000)
+                        : values[random.nextInt(size)]);
+            }
+        }
+
+        String nextKey() {
+            return lookups[next++ & (LOOKUPS - 1)];
+        }
+    }
+
+    @Benchmark
+    public long intSwitch(IntKeys state) {
+        state.generated.accept(state.context, state.nextKey());
+        return state.context[0];
+    }
+
+    @Benchmark
+    public long intHashMap(IntKeys state) {
+        Consumer<long[]> handler = state.map.get(state.nextKey());
+        (handler != null ? handler : DEFAULT_CASE).accept(state.context);
+        return state.context[0];
+    }
+
+    @Benchmark
+    public long intDispatchTable(IntKeys state) {
+        state.table.dispatch(state.nextKey(), state.context);
+        return state.context[0];
+    }
+
+    @Benchmark
+    public long stringSwitch(StringKeys state) {
+        state.generated.accept(state.context, state.nextKey());
+        return state.context[0];
+    }
+
+    @Benchmark
+    public long stringHashMap(StringKeys state) {
+        Consumer<long[]> handler = state.map.get(state.nextKey());
+        (handler != null ? handler : DEFAULT_CASE).accept(state.context);
+        return state.context[0];
+    }
+
+    @Benchmark
+    public long stringDispatchTable(StringKeys state) {
+        state.table.dispatch(state.nextKey(), state.context);
+        return state.context[0];
+    }
+
+    /* Quatro formas de handler, iguais às geradas no switch por body(i). */
+    private static Consumer<long[]> handler(int i) {
+        long value = i;
+        switch (i % 4) {
+            case 0:
+                return c -> c[0] += value;
+            case 1:
+                return c -> c[0] ^= value;
+            case 2:
+                return c -> c[0] -= value;
+            default:
+                return c -> c[0] += value * 3;
+        }
+    }
+
+    private static String body(int i) {
+        switch (i % 4) {
+            case 0:
+                return "c[0] += " + i + "L;";
+            case 1:
+                return "c[0] ^= " + i + "L;";
+            case 2:
+                return "c[0] -= " + i + "L;";
+            default:
+                return "c[0] += " + i + "L * 3;";
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjIntConsumer<long[]> compileIntSwitch(int[] keys) throws Exception {
+        StringBuilder cases = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            cases.append("case ").append(keys[i]).append(": ").append(body(i)).append(" break;\n");
+        }
+        return (ObjIntConsumer<long[]>) compile("GeneratedIntSwitch",
+                "public final class GeneratedIntSwitch implements java.util.function.ObjIntConsumer<long[]> {\n"
+                        + "public void accept(long[] c, int key) {\nswitch (key) {\n" + cases
+                        + "default: c[0] -= 1;\n}\n}\n}\n");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<long[], String> compileStringSwitch(String[] keys) throws Exception {
+        StringBuilder cases = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            cases.append("case \"").append(keys[i]).append("\": ").append(body(i)).append(" break;\n");
+        }
+        return (BiConsumer<long[], String>) compile("GeneratedStringSwitch",
+                "public final class GeneratedStringSwitch implements java.util.function.BiConsumer<long[], String> {\n"
+                        + "public void accept(long[] c, String key) {\nswitch (key) {\n" + cases
+                        + "default: c[0] -= 1;\n}\n}\n}\n");
+    }
+
+    private static Object compile(String className, String source) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("Run with a JDK: the switch baseline is compiled with javax.tools");
+        }
+        Path directory = Files.createTempDirectory("switch");
+        Path file = directory.resolve(className + ".java");
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        if (compiler.run(null, null, null, "-d", directory.toString(), file.toString()) != 0) {
+            throw new IOException("Could not compile " + file);
+        }
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.toUri().toURL()})) {
+            return loader.loadClass(className).getDeclaredConstructor().newInstance();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.decimal.FixedDecimal;
+import com.javase.programmingcomplete.part3.decimal.FixedDecimalArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FixedDecimalBenchmark {
+
+    /*
+    O method chaining do BigDecimal (P2PrimitiveWrappers) contra o FixedDecimal e o FixedDecimalArray no cálculo
+    preço x quantidade x imposto, somado em ROWS linhas (@OperationsPerInvocation, o tempo é por linha).
+
+    Que o FixedDecimal dá os mesmos resultados do BigDecimal (ou lança ArithmeticException nos mesmos casos) é conferido
+    no FixedDecimalTest.
+     */
+
+    private static final int ROWS = 10_000;
+
+    private final BigDecimal[] bigPrices = new BigDecimal[ROWS];
+    private final FixedDecimalArray prices = new FixedDecimalArray(ROWS, 2);
+    private final long[] quantities = new long[ROWS];
+    private final BigDecimal bigTax = new BigDecimal("1.20");
+    private final FixedDecimal tax = FixedDecimal.of(120, 2);
+    private final FixedDecimalArray totals = new FixedDecimalArray(ROWS, 2);
+    private final FixedDecimal line = new FixedDecimal();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < ROWS; i++) {
+            long cents = 1 + random.nextInt(100_000);
+            bigPrices[i] = BigDecimal.valueOf(cents, 2);
+            prices.setUnscaled(i, cents);
+            quantities[i] = 1 + random.nextInt(500);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BigDecimal bigDecimalChain() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < ROWS; i++) {
+            total = total.add(bigPrices[i].multiply(BigDecimal.valueOf(quantities[i])).multiply(bigTax)
+                    .setScale(2, RoundingMode.HALF_UP));
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long fixedDecimalChain() {
+        long sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            prices.get(i, line).multiply(quantities[i]).multiply(tax, 2, RoundingMode.HALF_UP);
+            sum += line.unscaledValue();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long fixedDecimalArrayMultiply() {
+        FixedDecimalArray.multiply(prices, quantities, tax, totals, RoundingMode.HALF_UP);
+        return totals.sumUnscaled();
+    }
+}
@@ -0,0 +1,71 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.instrumentation.Instrumentation;
+import com.javase.programmingcomplete.part3.instrumentation.Operation;
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters;
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters.Style;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InstrumentationBenchmark {
+
+    /*
+    Quanto a instrumentação custa em volta de uma operação de verdade (LocaleFormatters.formatTo de um long) e sozinha
+    (um begin/end sem nada no meio): desligada, ligada sem registro de alocação e ligada com registro de alocação.
+
+    As contagens, o MBean e o evento do JFR são conferidos no InstrumentationTest.
+     */
+
+    private static final Locale UK = new Locale("en", "GB");
+
+    @Param({"off", "on", "allocation"})
+    private String mode;
+
+    private final StringBuilder out = new StringBuilder();
+    private long value;
+
+    @Setup
+    public void setUp() {
+        Instrumentation.setEnabled(!mode.equals("off"));
+        Instrumentation.setAllocationTracking(mode.equals("allocation"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Instrumentation.setEnabled(false);
+        Instrumentation.setAllocationTracking(false);
+    }
+
+    @Benchmark
+    public int formatTo() {
+        out.setLength(0);
+        return LocaleFormatters.formatTo(UK, Style.NUMBER, value++, out).length();
+    }
+
+    @Benchmark
+    public long beginEnd() {
+        long started = Instrumentation.begin();
+        Instrumentation.end(Operation.NUMBER_FORMAT, UK, started);
+        return started;
+    }
+}
@@ -0,0 +1,89 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters;
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters.Style;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LocaleFormattersBenchmark {
+
+    /*
+    O jeito usado no P3ZonedDateTime.usingLocaleNumbers() (criar o NumberFormat a cada chamada) contra o registro
+    LocaleFormatters, para moeda, porcentagem e número, nos locales listados em P3ZonedDateTime.specifyingLocale().
+    Que os dois formatam igual é conferido no LocaleFormattersTest.
+     */
+
+    private static final BigDecimal PRICE = BigDecimal.valueOf(2.99);
+    private static final double TAX = 0.2;
+    private static final int QUANTITY = 12345;
+
+    @Param({"en-GB", "ru", "th-TH-u-ca-buddhist-nu-thai"})
+    private String locale;
+
+    private Locale value;
+    private final StringBuilder out = new StringBuilder(64);
+
+    @Setup
+    public void setUp() {
+        value = Locale.forLanguageTag(locale);
+    }
+
+    @Benchmark
+    public String currencyPerCall() {
+        return NumberFormat.getCurrencyInstance(value).format(PRICE);
+    }
+
+    @Benchmark
+    public String currencyRegistry() {
+        return LocaleFormatters.format(value, Style.CURRENCY, PRICE);
+    }
+
+    @Benchmark
+    public StringBuilder currencyRegistryFormatTo() {
+        out.setLength(0);
+        return LocaleFormatters.formatTo(value, Style.CURRENCY, PRICE, out);
+    }
+
+    @Benchmark
+    public String percentPerCall() {
+        return NumberFormat.getPercentInstance(value).format(TAX);
+    }
+
+    @Benchmark
+    public StringBuilder percentRegistryFormatTo() {
+        out.setLength(0);
+        return LocaleFormatters.formatTo(value, Style.PERCENT, TAX, out);
+    }
+
+    @Benchmark
+    public String numberPerCall() {
+        return NumberFormat.getNumberInstance(value).format(QUANTITY);
+    }
+
+    @Benchmark
+    public StringBuilder numberRegistryFormatTo() {
+        out.setLength(0);
+        return LocaleFormatters.formatTo(value, Style.NUMBER, QUANTITY, out);
+    }
+}
@@ -0,0 +1,99 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters.Style;
+import com.javase.programmingcomplete.part3.localization.LocaleNumberParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LocaleNumberParserBenchmark {
+
+    /*
+    NumberFormat.parse (com o Number e o cast do P3ZonedDateTime.usingLocaleNumbers()) contra o LocaleNumberParser,
+    para os textos "£1.7", "12%" e "54,321" e para uma linha de CSV com vários preços, lida direto da linha sem
+    substring. Que os dois chegam no mesmo valor é conferido no LocaleNumberParserTest.
+     */
+
+    private static final Locale UK = new Locale("en", "GB");
+    private static final String LINE = "£1.70;£12.99;£1,234.50;£0.99";
+
+    private final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(UK);
+    private final NumberFormat percentageFormat = NumberFormat.getPercentInstance(UK);
+    private final NumberFormat numberFormat = NumberFormat.getNumberInstance(UK);
+    private final LocaleNumberParser parser = LocaleNumberParser.of(UK);
+    private String currency = "£1.7";
+    private String percent = "12%";
+    private String number = "54,321";
+
+    @Benchmark
+    public Number numberFormatParseCurrency() throws ParseException {
+        return currencyFormat.parse(currency);
+    }
+
+    @Benchmark
+    public long localeNumberParserCurrency() throws ParseException {
+        return parser.parseUnscaled(Style.CURRENCY, currency, 0, currency.length(), 2);
+    }
+
+    @Benchmark
+    public Number numberFormatParsePercent() throws ParseException {
+        return percentageFormat.parse(percent);
+    }
+
+    @Benchmark
+    public double localeNumberParserPercent() throws ParseException {
+        return parser.parsePercent(percent);
+    }
+
+    @Benchmark
+    public Number numberFormatParseNumber() throws ParseException {
+        return numberFormat.parse(number);
+    }
+
+    @Benchmark
+    public long localeNumberParserNumber() throws ParseException {
+        return parser.parseLong(number);
+    }
+
+    @Benchmark
+    public double numberFormatParseCsvLine() throws ParseException {
+        double total = 0;
+        for (String field : LINE.split(";")) {
+            total += currencyFormat.parse(field).doubleValue();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long localeNumberParserCsvLine() throws ParseException {
+        long total = 0;
+        int start = 0;
+        while (start <= LINE.length()) {
+            int end = LINE.indexOf(';', start);
+            if (end < 0) {
+                end = LINE.length();
+            }
+            total += parser.parseUnscaled(Style.CURRENCY, LINE, start, end, 2);
+            start = end + 1;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,132 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.report.LocalizedReport;
+import com.javase.programmingcomplete.part3.report.ProductBatch;
+import com.javase.programmingcomplete.part3.report.ProductSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocalizedReportBenchmark {
+
+    /*
+    Gera uma lista de preços de "records" produtos em arquivo, comparando:
+    - o jeito direto do P3ZonedDateTime.localizedResources(): NumberFormat, DateTimeFormatter e MessageFormat.format
+      por produto, escrevendo em um BufferedWriter;
+    - o LocalizedReport sequencial;
+    - o LocalizedReport em paralelo no ForkJoinPool comum e em um pool de 4 threads.
+    Cada chamada escreve o arquivo inteiro, então o tempo é por relatório (SingleShotTime). O gc.alloc.rate.norm do
+    profiler de GC é o que a thread do benchmark alocou por relatório: no paralelo, a maior parte da alocação é das
+    threads do pool.
+
+    Que o arquivo é byte a byte igual ao do jeito direto é conferido no LocalizedReportTest.
+     */
+
+    private static final String[] NAMES = {
+            "Cookie", "Café", "Crème brûlée", "Шоколад", "抹茶", "Apple pie", "Bread", "Cheese", "Tea", "Milk",
+    };
+    private static final Locale UK = new Locale("en", "GB");
+
+    @Param({"2000000"})
+    private int records;
+
+    private Path file;
+    private ForkJoinPool four;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("price-list", ".txt");
+        four = new ForkJoinPool(4);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        four.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long messageFormatBufferedWriter() throws IOException {
+        String pattern = ResourceBundle.getBundle("resource.messages", UK).getString("product");
+        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(UK);
+        NumberFormat numberFormat = NumberFormat.getNumberInstance(UK);
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).localizedBy(UK);
+        ProductSource source = source(records);
+        ProductBatch batch = new ProductBatch(1024, 2);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            while (source.read(batch) > 0) {
+                for (int i = 0; i < batch.size(); i++) {
+                    String formattedPrice = currencyFormat.format(BigDecimal.valueOf(batch.prices().getUnscaled(i), 2));
+                    String formattedQuantity = numberFormat.format(batch.quantity(i));
+                    String bestBefore = LocalDate.ofEpochDay(batch.bestBefore(i)).format(dateFormatter);
+                    out.append(MessageFormat.format(pattern, batch.name(i), formattedPrice, formattedQuantity,
+                            bestBefore)).append('\n');
+                }
+                batch.clear();
+            }
+        }
+        return Files.size(file);
+    }
+
+    @Benchmark
+    public long localizedReportSequential() throws IOException {
+        return LocalizedReport.builder(UK).sequential().build().write(source(records), file);
+    }
+
+    @Benchmark
+    public long localizedReportCommonPool() throws IOException {
+        return LocalizedReport.builder(UK).build().write(source(records), file);
+    }
+
+    @Benchmark
+    public long localizedReportPoolOfFour() throws IOException {
+        return LocalizedReport.builder(UK).parallel(four).build().write(source(records), file);
+    }
+
+    /* Produtos sintéticos, sem ler de disco, para medir só a geração. */
+    private static ProductSource source(int records) {
+        int[] next = {0};
+        return batch -> {
+            int count = 0;
+            while (!batch.isFull() && next[0] < records) {
+                int i = next[0]++;
+                batch.add(NAMES[i % NAMES.length], (i * 7919L) % 1_000_000 - (i % 97 == 0 ? 5_000 : 0),
+                        (i * 31L) % 100_000, 10_000 + (i * 13L) % 30_000);
+                count++;
+            }
+            return count;
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.localization.MessageTemplate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageTemplateBenchmark {
+
+    /*
+    new MessageFormat(pattern, locale).format(...) (que faz o parse do padrão a cada chamada) contra o MessageTemplate
+    pré-compilado, para a chave product dos bundles resource.messages. Que os dois produzem o mesmo texto é conferido
+    no MessageTemplateTest.
+     */
+
+    private static final String NAME = "Cookie";
+    private static final BigDecimal PRICE = BigDecimal.valueOf(2.99);
+    private static final int QUANTITY = 12345;
+    private static final String BEST_BEFORE = "10 Apr 2021";
+
+    @Param({"ja-JP", "en-GB", "ru"})
+    private String locale;
+
+    private Locale value;
+    private String pattern;
+    private MessageTemplate template;
+    private final StringBuilder out = new StringBuilder(128);
+
+    @Setup
+    public void setUp() {
+        value = Locale.forLanguageTag(locale);
+        pattern = ResourceBundle.getBundle("resource.messages", value).getString("product");
+        template = MessageTemplate.of("resource.messages", value, "product");
+    }
+
+    @Benchmark
+    public String messageFormat() {
+        return new MessageFormat(pattern, value).format(new Object[]{NAME, PRICE, QUANTITY, BEST_BEFORE});
+    }
+
+    @Benchmark
+    public String messageTemplateFormat() {
+        return template.format(NAME, PRICE, QUANTITY, BEST_BEFORE);
+    }
+
+    @Benchmark
+    public StringBuilder messageTemplateRenderTo() {
+        out.setLength(0);
+        return template.bind().arg(0, NAME).arg(1, PRICE).arg(2, QUANTITY).arg(3, BEST_BEFORE).renderTo(out);
+    }
+}
@@ -0,0 +1,154 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.collections.IntIntMap;
+import com.javase.programmingcomplete.part3.collections.IntList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveCollectionsBenchmark {
+
+    /*
+    HashMap<Integer, Integer> contra IntIntMap (no heap e fora do heap) em insert, lookup e iteração, e
+    ArrayList<Integer> contra IntList, com "size" entradas. O tempo é pela coleção inteira (divida por size para ter o
+    tempo por entrada), e o gc.alloc.rate.norm do profiler de GC mostra os bytes alocados, que é o que pressiona o GC.
+    Que o IntIntMap dá os mesmos resultados que o HashMap é conferido no IntIntMapTest.
+
+    Com 10^8 entradas o HashMap precisa de uns 10 GB de heap (Node + dois Integer por entrada), enquanto o IntIntMap
+    precisa de 2 GB. Para medir tamanhos assim, passe -p size=... e aumente -Xmx e -XX:MaxDirectMemorySize com -jvmArgs.
+     */
+
+    @State(Scope.Thread)
+    public static class Boxed {
+        @Param({"1000", "100000", "1000000"})
+        private int size;
+        private Map<Integer, Integer> map;
+
+        @Setup
+        public void setUp() {
+            map = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                map.put(key(i), i);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Primitive {
+        @Param({"1000", "100000", "1000000"})
+        private int size;
+        @Param({"false", "true"})
+        private boolean offHeap;
+        private IntIntMap map;
+        private long sum;
+
+        @Setup
+        public void setUp() {
+            map = new IntIntMap(16, offHeap, 0);
+            for (int i = 0; i < size; i++) {
+                map.put(key(i), i);
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> hashMapInsert(Boxed state) {
+        Map<Integer, Integer> map = new HashMap<>();
+        for (int i = 0; i < state.size; i++) {
+            map.put(key(i), i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public long hashMapLookup(Boxed state) {
+        long sum = 0;
+        for (int i = 0; i < state.size; i++) {
+            sum += state.map.get(key(i));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long hashMapIteration(Boxed state) {
+        long sum = 0;
+        for (Map.Entry<Integer, Integer> entry : state.map.entrySet()) {
+            sum += entry.getKey() + entry.getValue();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long arrayListAddSum(Boxed state) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < state.size; i++) {
+            list.add(key(i));
+        }
+        long sum = 0;
+        for (int value : list) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public IntIntMap intIntMapInsert(Primitive state) {
+        IntIntMap map = new IntIntMap(16, state.offHeap, 0);
+        for (int i = 0; i < state.size; i++) {
+            map.put(key(i), i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public long intIntMapLookup(Primitive state) {
+        long sum = 0;
+        for (int i = 0; i < state.size; i++) {
+            sum += state.map.get(key(i));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long intIntMapIteration(Primitive state) {
+        state.sum = 0;
+        state.map.forEach((key, value) -> state.sum += key + value);
+        return state.sum;
+    }
+
+    @Benchmark
+    public long intListAddSum(Primitive state) {
+        IntList list = new IntList(10, state.offHeap);
+        for (int i = 0; i < state.size; i++) {
+            list.add(key(i));
+        }
+        state.sum = 0;
+        list.forEach(value -> state.sum += value);
+        return state.sum;
+    }
+
+    /* Chaves espalhadas (não sequenciais) e sem repetição. */
+    private static int key(int i) {
+        return (i * 0x2545F491) ^ 0x5BD1E995;
+    }
+}
@@ -0,0 +1,80 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.localization.MessageTemplate;
+import com.javase.programmingcomplete.part3.strings.StringBuilderPool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StringBuilderPoolBenchmark {
+
+    /*
+    Montar a mensagem de produto do P3ZonedDateTime.localizedResources() com um new StringBuilder() (que começa com 16
+    chars e cresce), com um StringBuilder dimensionado à mão, com um builder do StringBuilderPool e com o render() do
+    MessageTemplate, que usa o pool compartilhado. O comportamento do pool (resizes, hit rate, memória guardada) é
+    conferido no StringBuilderPoolTest.
+     */
+
+    private static final String[] NAMES = {"Cookie", "Chocolate chip cookie with extra hazelnuts", "Tea"};
+    private static final BigDecimal PRICE = BigDecimal.valueOf(2.99);
+    private static final String BEST_BEFORE = "10 Apr 2021";
+
+    private final MessageTemplate template = MessageTemplate.of("resource.messages", new Locale("en", "GB"), "product");
+    private final StringBuilderPool pool = new StringBuilderPool(StringBuilderPool.DEFAULT_MAX_RETAINED_CAPACITY);
+    private final StringBuilderPool.Site site = pool.site("product");
+    private int next;
+
+    @Benchmark
+    public String messageFormat() {
+        return MessageFormat.format("{0}, price {1}, quantity {2}, best before {3}", nextName(), PRICE, 5, BEST_BEFORE);
+    }
+
+    @Benchmark
+    public String newStringBuilder() {
+        return template.bind().arg(0, nextName()).arg(1, PRICE).arg(2, 5).arg(3, BEST_BEFORE)
+                .renderTo(new StringBuilder()).toString();
+    }
+
+    @Benchmark
+    public String newStringBuilderPresized() {
+        return template.bind().arg(0, nextName()).arg(1, PRICE).arg(2, 5).arg(3, BEST_BEFORE)
+                .renderTo(new StringBuilder(100)).toString();
+    }
+
+    @Benchmark
+    public String stringBuilderPoolSite() {
+        try (StringBuilderPool.Lease lease = site.acquire()) {
+            return template.bind().arg(0, nextName()).arg(1, PRICE).arg(2, 5).arg(3, BEST_BEFORE)
+                    .renderTo(lease.builder()).toString();
+        }
+    }
+
+    @Benchmark
+    public String messageTemplateRender() {
+        return template.bind().arg(0, nextName()).arg(1, PRICE).arg(2, 5).arg(3, BEST_BEFORE).render();
+    }
+
+    private String nextName() {
+        String name = NAMES[next];
+        next = next + 1 == NAMES.length ? 0 : next + 1;
+        return name;
+    }
+}
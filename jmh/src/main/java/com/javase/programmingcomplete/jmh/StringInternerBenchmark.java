@@ -0,0 +1,120 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.strings.StringInterner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringInternerBenchmark {
+
+    /*
+    StringInterner contra String.intern() e contra um interner feito com ConcurrentHashMap. O cenário é o de um parser:
+    o texto chega em um char[] ou byte[] (códigos de moeda, zone ids, SKUs) e precisa virar uma String compartilhada.
+    String.intern() e o ConcurrentHashMap precisam de uma String temporária para procurar; o StringInterner procura
+    direto no array.
+
+    Os interners são compartilhados por todas as threads do benchmark e cada thread usa uma sequência própria de
+    índices aleatórios sobre DISTINCT textos. Para ver a contenção, rode também com várias threads
+    (ex: StringInternerBenchmark -t 8 e -t 32).
+    Que cada texto vira uma única instância, venha de String, CharSequence, char[] ou byte[], é conferido no
+    StringInternerTest.
+     */
+
+    private static final int DISTINCT = 10_000;
+    private static final int INDEXES = 1 << 16;
+
+    @State(Scope.Benchmark)
+    public static class Texts {
+        private final char[][] chars = new char[DISTINCT][];
+        private final byte[][] bytes = new byte[DISTINCT][];
+        private final ConcurrentMap<String, String> map = new ConcurrentHashMap<>();
+        private final StringInterner bounded = StringInterner.bounded(DISTINCT * 2);
+        private final StringInterner half = StringInterner.bounded(DISTINCT / 2);
+        private final StringInterner weak = StringInterner.weak();
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < DISTINCT; i++) {
+                String text = (i % 3 == 0 ? "SKU-" : i % 3 == 1 ? "Europe/Zone-" : "CUR-")
+                        + Integer.toString(i * 7919, 36);
+                chars[i] = text.toCharArray();
+                bytes[i] = text.getBytes(StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Indexes {
+        private int[] indexes;
+        private int next;
+
+        @Setup
+        public void setUp(ThreadParams thread) {
+            indexes = new Random(thread.getThreadIndex()).ints(INDEXES, 0, DISTINCT).toArray();
+        }
+
+        int nextIndex() {
+            return indexes[next++ & (INDEXES - 1)];
+        }
+    }
+
+    @Benchmark
+    public String stringIntern(Texts texts, Indexes state) {
+        return new String(texts.chars[state.nextIndex()]).intern();
+    }
+
+    @Benchmark
+    public String concurrentHashMapInterner(Texts texts, Indexes state) {
+        String text = new String(texts.chars[state.nextIndex()]);
+        String existing = texts.map.get(text);
+        if (existing != null) {
+            return existing;
+        }
+        existing = texts.map.putIfAbsent(text, text);
+        return existing != null ? existing : text;
+    }
+
+    @Benchmark
+    public String boundedInternString(Texts texts, Indexes state) {
+        return texts.bounded.intern(new String(texts.chars[state.nextIndex()]));
+    }
+
+    @Benchmark
+    public String boundedInternChars(Texts texts, Indexes state) {
+        char[] text = texts.chars[state.nextIndex()];
+        return texts.bounded.intern(text, 0, text.length);
+    }
+
+    /* Limite menor que a quantidade de textos distintos: mostra o custo com remoções. */
+    @Benchmark
+    public String boundedHalfInternChars(Texts texts, Indexes state) {
+        char[] text = texts.chars[state.nextIndex()];
+        return texts.half.intern(text, 0, text.length);
+    }
+
+    @Benchmark
+    public String weakInternBytes(Texts texts, Indexes state) {
+        byte[] text = texts.bytes[state.nextIndex()];
+        return texts.weak.intern(text, 0, text.length);
+    }
+}
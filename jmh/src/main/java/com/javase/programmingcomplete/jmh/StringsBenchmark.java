@@ -0,0 +1,132 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.strings.StringInterner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StringsBenchmark {
+
+    /*
+    P1CharWrapper: concatenação com +, StringBuilder com e sem tamanho inicial, concat() e intern. Os benchmarks só
+    recebem os parâmetros do @State que usam: os de concatenação variam "parts", os de intern variam "distinct".
+     */
+
+    private static final String[] WORDS = {"Cookie", "price", "2.99", "quantity", "5", "best", "before", "April"};
+
+    private String hello = "Hello";
+    private int number = 1;
+
+    @State(Scope.Thread)
+    public static class Parts {
+        @Param({"4", "16", "64"})
+        private int parts;
+        private int exactLength;
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < parts; i++) {
+                exactLength += WORDS[i % WORDS.length].length();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        @Param({"100", "10000"})
+        private int distinct;
+        private String[] keys;
+        private StringInterner interner;
+        private ConcurrentMap<String, String> map;
+        private int next;
+
+        @Setup
+        public void setUp() {
+            keys = new String[distinct];
+            for (int i = 0; i < distinct; i++) {
+                keys[i] = new String("key-" + i);
+            }
+            interner = StringInterner.bounded(distinct * 2);
+            map = new ConcurrentHashMap<>();
+        }
+
+        String nextKey() {
+            String key = keys[next];
+            next = next + 1 == distinct ? 0 : next + 1;
+            return key;
+        }
+    }
+
+    @Benchmark
+    public String concatPlus(Parts state) {
+        String s = "";
+        for (int i = 0; i < state.parts; i++) {
+            s += WORDS[i % WORDS.length];
+        }
+        return s;
+    }
+
+    @Benchmark
+    public String stringBuilder(Parts state) {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < state.parts; i++) {
+            s.append(WORDS[i % WORDS.length]);
+        }
+        return s.toString();
+    }
+
+    @Benchmark
+    public String stringBuilderPresized(Parts state) {
+        StringBuilder s = new StringBuilder(state.exactLength);
+        for (int i = 0; i < state.parts; i++) {
+            s.append(WORDS[i % WORDS.length]);
+        }
+        return s.toString();
+    }
+
+    @Benchmark
+    public String stringConcat() {
+        return hello.concat("World");
+    }
+
+    @Benchmark
+    public String arithmeticConcat() {
+        return "u" + number + number;
+    }
+
+    @Benchmark
+    public String stringIntern(Keys state) {
+        return state.nextKey().intern();
+    }
+
+    @Benchmark
+    public String stringInterner(Keys state) {
+        return state.interner.intern(state.nextKey());
+    }
+
+    @Benchmark
+    public String concurrentHashMapInterner(Keys state) {
+        String key = state.nextKey();
+        String interned = state.map.putIfAbsent(key, key);
+        return interned == null ? key : interned;
+    }
+}
@@ -0,0 +1,65 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part2.flowcontrol.DispatchTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SwitchBenchmark {
+
+    /* Switch: o switch em char do exemplo contra o DispatchTable, para um case com break e para o default. */
+
+    @Param({"A", "B", "C"})
+    private char op;
+
+    private final long[] counters = new long[3];
+    private DispatchTable<long[]> table;
+
+    @Setup
+    public void setUp() {
+        table = DispatchTable.<long[]>builder()
+                .defaultCase(c -> c[0]++)
+                .on('A', c -> c[1]++)
+                .on('B', c -> c[2]++)
+                .build();
+    }
+
+    @Benchmark
+    public long switchStatement() {
+        switch (op) {
+            default:
+                counters[0]++;
+                break;
+            case 'A':
+                counters[1]++;
+                break;
+            case 'B':
+                counters[2]++;
+                break;
+        }
+        return counters[0];
+    }
+
+    @Benchmark
+    public long dispatchTable() {
+        table.dispatch(op, counters);
+        return counters[0];
+    }
+}
@@ -0,0 +1,143 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.datetime.BulkIntervals;
+import com.javase.programmingcomplete.part3.decimal.FixedDecimal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WrappersBenchmark {
+
+    /*
+    P2PrimitiveWrappers: boxing contra primitivos, cadeias de BigDecimal e Duration/Period. Os benchmarks em lote
+    (Period.between e BulkIntervals.periods) usam @OperationsPerInvocation, então o tempo é por intervalo.
+     */
+
+    private static final int BATCH = 1_000;
+
+    private final BigDecimal price = BigDecimal.valueOf(2.99);
+    private final BigDecimal tax = new BigDecimal("1.2");
+    private final FixedDecimal fixedPrice = FixedDecimal.of(299, 2);
+    private final FixedDecimal fixedTax = FixedDecimal.of(12, 1);
+    private final FixedDecimal total = new FixedDecimal();
+    private long quantity = 12_345;
+    private long minutes = 15;
+
+    private final long[] starts = new long[BATCH];
+    private final long[] ends = new long[BATCH];
+    private final int[] years = new int[BATCH];
+    private final int[] months = new int[BATCH];
+    private final int[] days = new int[BATCH];
+
+    @State(Scope.Thread)
+    public static class Numbers {
+        @Param({"1000", "100000"})
+        private int size;
+        private List<Integer> boxed;
+        private int[] primitives;
+
+        @Setup
+        public void setUp() {
+            boxed = new ArrayList<>(size);
+            primitives = new int[size];
+            for (int i = 0; i < size; i++) {
+                boxed.add(i);
+                primitives[i] = i;
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        long foolsDay = LocalDate.of(2019, Month.APRIL, 1).toEpochDay();
+        for (int i = 0; i < BATCH; i++) {
+            starts[i] = foolsDay + i % 31;
+            ends[i] = starts[i] + 17L * i;
+        }
+    }
+
+    @Benchmark
+    public long boxedSum(Numbers state) {
+        long sum = 0;
+        for (Integer value : state.boxed) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long primitiveSum(Numbers state) {
+        long sum = 0;
+        for (int value : state.primitives) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Integer autoboxing(Numbers state) {
+        Integer sum = 0;
+        for (int i = 0; i < state.size; i++) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalChain() {
+        return price.multiply(BigDecimal.valueOf(quantity)).multiply(tax).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public long fixedDecimalChain() {
+        return total.set(fixedPrice).multiply(quantity).multiply(fixedTax, 2, RoundingMode.HALF_UP).unscaledValue();
+    }
+
+    @Benchmark
+    public Duration durationMinusMinutes() {
+        return Duration.ofHours(2).minusMinutes(minutes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long periodBetween() {
+        long sum = 0;
+        for (int i = 0; i < BATCH; i++) {
+            sum += Period.between(LocalDate.ofEpochDay(starts[i]), LocalDate.ofEpochDay(ends[i])).getDays();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int bulkIntervalsPeriods() {
+        BulkIntervals.periods(starts, ends, years, months, days, 0, BATCH);
+        return days[BATCH - 1];
+    }
+}
@@ -0,0 +1,79 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.datetime.ZoneConverter;
+import com.javase.programmingcomplete.part3.datetime.ZoneOffsetTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ZoneConverterBenchmark {
+
+    /*
+    A conversão London -> Los Angeles usada em P3ZonedDateTime.zonedDateTime(), com horários espalhados por uns 4 anos
+    (passando por várias mudanças de horário de verão): ZonedDateTime, ZoneConverter de um LocalDateTime, de um long e
+    de um long[] inteiro (@OperationsPerInvocation, o tempo é por horário). Que o ZoneConverter dá o mesmo resultado do
+    ZonedDateTime em volta de todas as transições é conferido no ZoneConverterTest.
+     */
+
+    private static final int INPUTS = 1024;
+    private static final ZoneId LONDON = ZoneId.of("Europe/London");
+    private static final ZoneId LA = ZoneId.of("America/Los_Angeles");
+
+    private final ZoneConverter converter = ZoneConverter.of(LONDON, LA);
+    private final long[] inputs = new long[INPUTS];
+    private final LocalDateTime[] times = new LocalDateTime[INPUTS];
+    private final long[] out = new long[INPUTS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime someTime = LocalDateTime.of(2019, Month.APRIL, 1, 7, 14);
+        for (int i = 0; i < INPUTS; i++) {
+            inputs[i] = ZoneOffsetTable.localMillis(someTime.plusHours(i * 37L));
+            times[i] = ZoneOffsetTable.toLocalDateTime(inputs[i]);
+        }
+    }
+
+    @Benchmark
+    public ZonedDateTime withZoneSameInstant() {
+        return ZonedDateTime.of(times[next++ & (INPUTS - 1)], LONDON).withZoneSameInstant(LA);
+    }
+
+    @Benchmark
+    public long convertLocalDateTime() {
+        return converter.convert(times[next++ & (INPUTS - 1)]);
+    }
+
+    @Benchmark
+    public long convertLong() {
+        return converter.convert(inputs[next++ & (INPUTS - 1)]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public long convertArray() {
+        converter.convert(inputs, out, 0, INPUTS);
+        return out[INPUTS - 1];
+    }
+}
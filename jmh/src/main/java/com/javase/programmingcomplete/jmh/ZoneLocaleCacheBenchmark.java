@@ -0,0 +1,122 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.localization.ZoneLocaleCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.IllformedLocaleException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZoneLocaleCacheBenchmark {
+
+    /*
+    ZoneLocaleCache contra ZoneId.of e Locale.Builder direto (com try/catch para os textos inválidos). O cenário é o de
+    uma API: cada requisição traz uma zone e um locale como texto. A maior parte são poucos valores comuns, escritos de
+    formas diferentes ("America/Los_Angeles", "america/los_angeles", "en_US", "EN-us"), e INVALID_PERCENT% são textos
+    inválidos que se repetem (clientes com configuração errada). Cada operação resolve uma zone e um locale.
+
+    Os caches são compartilhados por todas as threads do benchmark; para ver a contenção, rode também com várias
+    threads (ex: ZoneLocaleCacheBenchmark -t 8 e -t 32).
+    Que o cache dá o mesmo resultado (e as mesmas exceções) do ZoneId.of e do Locale.forLanguageTag é conferido no
+    ZoneLocaleCacheTest.
+     */
+
+    private static final int SIZE = 1_000;
+    private static final int INDEXES = 1 << 16;
+    private static final int INVALID_PERCENT = 10;
+
+    private static final String[] ZONES = {"America/Los_Angeles", "america/los_angeles", " Europe/London", "GMT+2",
+            "gmt+2", "UTC-05:00", "Asia/Tokyo", "America/Sao_Paulo", "Z", "+03:00", "Australia/Lord_Howe", "UTC"};
+    private static final String[] INVALID_ZONES = {"America/Nowhere", "GMT+25", "Mars/Olympus", "UTC+", "PST"};
+    private static final String[] LOCALES = {"en-GB", "en_GB", "ru", "ja-JP", "th-TH-u-ca-buddhist-nu-thai", "EN-us",
+            "pt-BR", "de_DE", "fr", "zh-Hant-TW"};
+    private static final String[] INVALID_LOCALES = {"en_US_POSIX!", "en_US.UTF-8", "x", "12-34", "en--US"};
+
+    @State(Scope.Benchmark)
+    public static class Requests {
+        private final String[] zones = new String[SIZE];
+        private final String[] locales = new String[SIZE];
+        private final ZoneLocaleCache cache = ZoneLocaleCache.bounded(1_000);
+        private final ZoneLocaleCache small = ZoneLocaleCache.bounded(8);
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            for (int i = 0; i < SIZE; i++) {
+                boolean invalid = random.nextInt(100) < INVALID_PERCENT;
+                zones[i] = invalid ? INVALID_ZONES[random.nextInt(INVALID_ZONES.length)]
+                        : ZONES[random.nextInt(ZONES.length)];
+                locales[i] = invalid ? INVALID_LOCALES[random.nextInt(INVALID_LOCALES.length)]
+                        : LOCALES[random.nextInt(LOCALES.length)];
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Indexes {
+        private int[] indexes;
+        private int next;
+
+        @Setup
+        public void setUp(ThreadParams thread) {
+            indexes = new Random(thread.getThreadIndex()).ints(INDEXES, 0, SIZE).toArray();
+        }
+
+        int nextIndex() {
+            return indexes[next++ & (INDEXES - 1)];
+        }
+    }
+
+    @Benchmark
+    public int zoneIdOfLocaleBuilder(Requests requests, Indexes state) {
+        int i = state.nextIndex();
+        ZoneId zone;
+        try {
+            zone = ZoneId.of(requests.zones[i]);
+        } catch (DateTimeException e) {
+            zone = ZoneOffset.UTC;
+        }
+        Locale locale;
+        try {
+            locale = new Locale.Builder().setLanguageTag(requests.locales[i]).build();
+        } catch (IllformedLocaleException e) {
+            locale = Locale.ROOT;
+        }
+        return zone.hashCode() + locale.hashCode();
+    }
+
+    @Benchmark
+    public int zoneLocaleCache(Requests requests, Indexes state) {
+        int i = state.nextIndex();
+        return requests.cache.zoneId(requests.zones[i], ZoneOffset.UTC).hashCode()
+                + requests.cache.locale(requests.locales[i], Locale.ROOT).hashCode();
+    }
+
+    /* Limite menor que a quantidade de textos distintos: mostra o custo com remoções. */
+    @Benchmark
+    public int zoneLocaleCacheBoundedSmall(Requests requests, Indexes state) {
+        int i = state.nextIndex();
+        return requests.small.zoneId(requests.zones[i], ZoneOffset.UTC).hashCode()
+                + requests.small.locale(requests.locales[i], Locale.ROOT).hashCode();
+    }
+}
@@ -0,0 +1,224 @@
+package com.javase.programmingcomplete.jmh;
+
+import com.javase.programmingcomplete.part3.datetime.BatchDateFormatter;
+import com.javase.programmingcomplete.part3.datetime.TextColumn;
+import com.javase.programmingcomplete.part3.datetime.ZoneConverter;
+import com.javase.programmingcomplete.part3.datetime.ZoneOffsetTable;
+import com.javase.programmingcomplete.part3.localization.BundleCache;
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters;
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters.Style;
+import com.javase.programmingcomplete.part3.localization.LocaleNumberParser;
+import com.javase.programmingcomplete.part3.localization.MessageTemplate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZonedDateTimeBenchmark {
+
+    /*
+    P3ZonedDateTime: conversão de zone, números e datas por locale, bundle e mensagem. Os de datas formatam e fazem o
+    parse de BATCH datas por chamada (@OperationsPerInvocation, o tempo é por data).
+
+    O BundleCache lê src/resource, então rode o benchmarks.jar da raiz do projeto.
+     */
+
+    private static final int BATCH = 1_000;
+    private static final LocalDateTime SOME_TIME = LocalDateTime.of(2019, Month.APRIL, 1, 7, 14);
+    private static final BigDecimal PRICE = BigDecimal.valueOf(2.99);
+
+    @State(Scope.Thread)
+    public static class Zones {
+        @Param({"Europe/London->America/Los_Angeles", "America/Sao_Paulo->Asia/Tokyo"})
+        private String zones;
+        private ZoneId source;
+        private ZoneId target;
+        private ZoneConverter converter;
+        private long localMillis;
+        private long minute;
+
+        @Setup
+        public void setUp() {
+            String[] pair = zones.split("->");
+            source = ZoneId.of(pair[0]);
+            target = ZoneId.of(pair[1]);
+            converter = ZoneConverter.of(source, target);
+            localMillis = ZoneOffsetTable.localMillis(SOME_TIME);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Localized {
+        @Param({"en-GB", "ru", "ja-JP"})
+        private String locale;
+        private Locale value;
+        private NumberFormat cached;
+        private LocaleNumberParser parser;
+        private String currencyText;
+        private BundleCache bundles;
+        private String productPattern;
+        private MessageTemplate template;
+        private final StringBuilder out = new StringBuilder();
+
+        @Setup
+        public void setUp() throws IOException {
+            value = Locale.forLanguageTag(locale);
+            cached = NumberFormat.getCurrencyInstance(value);
+            parser = LocaleNumberParser.of(value);
+            currencyText = cached.format(PRICE);
+            bundles = BundleCache.load(Paths.get("src", "resource"), "messages");
+            productPattern = ResourceBundle.getBundle("resource.messages", value).getString("product");
+            template = MessageTemplate.of("resource.messages", value, "product");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Dates {
+        @Param({"en-GB", "ru", "ja-JP"})
+        private String locale;
+        private DateTimeFormatter format;
+        private BatchDateFormatter batchFormat;
+        private final long[] epochDays = new long[BATCH];
+        private final long[] parsed = new long[BATCH];
+        private final TextColumn column = new TextColumn();
+        private String[] texts;
+
+        @Setup
+        public void setUp() {
+            String pattern = "EEEE dd MMM yyyy";
+            Locale value = Locale.forLanguageTag(locale);
+            format = DateTimeFormatter.ofPattern(pattern, value);
+            batchFormat = BatchDateFormatter.ofPattern(pattern, value);
+            long first = LocalDate.of(2019, Month.APRIL, 1).toEpochDay();
+            for (int i = 0; i < BATCH; i++) {
+                epochDays[i] = first + i;
+            }
+            batchFormat.formatTo(epochDays, 0, BATCH, column);
+            texts = column.toStrings();
+        }
+    }
+
+    @Benchmark
+    public ZonedDateTime withZoneSameInstant(Zones state) {
+        return ZonedDateTime.of(SOME_TIME.plusMinutes(state.minute++ & 1023), state.source)
+                .withZoneSameInstant(state.target);
+    }
+
+    @Benchmark
+    public long zoneConverter(Zones state) {
+        return state.converter.convert(state.localMillis + (state.minute++ & 1023) * 60_000L);
+    }
+
+    @Benchmark
+    public String numberFormatPerCall(Localized state) {
+        return NumberFormat.getCurrencyInstance(state.value).format(PRICE);
+    }
+
+    @Benchmark
+    public String numberFormatCached(Localized state) {
+        return state.cached.format(PRICE);
+    }
+
+    @Benchmark
+    public int localeFormatters(Localized state) {
+        state.out.setLength(0);
+        return LocaleFormatters.formatTo(state.value, Style.CURRENCY, PRICE, state.out).length();
+    }
+
+    @Benchmark
+    public Number numberFormatParse(Localized state) throws ParseException {
+        return state.cached.parse(state.currencyText);
+    }
+
+    @Benchmark
+    public long localeNumberParser(Localized state) throws ParseException {
+        return state.parser.parseUnscaled(Style.CURRENCY, state.currencyText, 0, state.currencyText.length(), 2);
+    }
+
+    @Benchmark
+    public String resourceBundleGetString(Localized state) {
+        return ResourceBundle.getBundle("resource.messages", state.value).getString("product");
+    }
+
+    @Benchmark
+    public String bundleCacheGetString(Localized state) {
+        return state.bundles.getString(state.value, "product");
+    }
+
+    @Benchmark
+    public String messageFormat(Localized state) {
+        return new MessageFormat(state.productPattern, state.value)
+                .format(new Object[]{"Cookie", state.currencyText, 5, "1 Apr 2019"});
+    }
+
+    @Benchmark
+    public int messageTemplate(Localized state) {
+        state.out.setLength(0);
+        return state.template.bind().arg(0, "Cookie").arg(1, state.currencyText).arg(2, 5).arg(3, "1 Apr 2019")
+                .renderTo(state.out).length();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long dateTimeFormatterFormat(Dates state) {
+        long length = 0;
+        for (long day : state.epochDays) {
+            length += LocalDate.ofEpochDay(day).format(state.format).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int batchDateFormatterFormatTo(Dates state) {
+        state.batchFormat.formatTo(state.epochDays, 0, BATCH, state.column);
+        return state.column.end(BATCH - 1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long localDateParse(Dates state) {
+        long sum = 0;
+        for (String text : state.texts) {
+            sum += LocalDate.parse(text, state.format).toEpochDay();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long batchDateFormatterParseTo(Dates state) {
+        state.batchFormat.parseTo(state.column, state.parsed);
+        return state.parsed[BATCH - 1];
+    }
+}
@@ -0,0 +1,160 @@
+package com.javase.programmingcomplete.part2.flowcontrol;
+
+import com.javase.programmingcomplete.part3.collections.IntObjectMap;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public final class DispatchTable<T> {
+
+    /*
+    Um switch em char/int montado em tempo de execução, para quando os cases só são conhecidos depois de compilar (um
+    decoder de protocolo com centenas de opcodes registrados por plugins, por exemplo).
+
+    Os cases são registrados na ordem em que estariam escritos no switch, e as regras são as mesmas do Switch:
+    - a posição do default não importa para decidir quando ele roda: só quando nenhum case bate;
+    - on(...) termina com break; onFallThrough(...) e label(...) caem no próximo case registrado, inclusive no default
+      se ele estiver logo depois. Então:
+          switch (op) {                          DispatchTable.<Ctx>builder()
+              default: none(); break;                .defaultCase(ctx -> none())
+              case 'A': case 'B': ab(); break;       .label('A').on('B', ctx -> ab())
+              case 'C': c();                         .onFallThrough('C', ctx -> c())
+              case 'D': d(); break;                  .on('D', ctx -> d())
+          }                                          .build();
+    - chave repetida ou dois defaults lançam IllegalArgumentException (no switch é erro de compilação).
+
+    No build() cada chave vira a sequência de handlers que ela executa (já resolvendo o fall-through), então o dispatch
+    é uma busca e uma chamada. Se as chaves estão em um intervalo pequeno (até 4 posições por chave), a busca é um
+    array indexado por key - menor chave, e as posições vazias já apontam para o default. Senão é um IntObjectMap.
+     */
+
+    private static final int MAX_DENSE_SLOTS_PER_KEY = 4;
+    private static final int MIN_DENSE_SLOTS = 256;
+
+    private final int min;
+    private final Consumer<T>[] dense;
+    /* Quais posições do dense têm case (um case pode executar exatamente o mesmo handler do default). */
+    private final boolean[] present;
+    private final IntObjectMap<Consumer<T>> sparse;
+    private final Consumer<T> defaultCase;
+    private final int size;
+
+    private DispatchTable(int min, Consumer<T>[] dense, boolean[] present, IntObjectMap<Consumer<T>> sparse,
+                          Consumer<T> defaultCase, int size) {
+        this.min = min;
+        this.dense = dense;
+        this.present = present;
+        this.sparse = sparse;
+        this.defaultCase = defaultCase;
+        this.size = size;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /* Executa o case da chave (e os seguintes, se não tiver break), ou o default. */
+    public void dispatch(int key, T context) {
+        if (dense != null) {
+            int index = key - min;
+            // Um índice negativo vira um valor sem sinal enorme, então uma única comparação cobre os dois lados.
+            (Integer.compareUnsigned(index, dense.length) < 0 ? dense[index] : defaultCase).accept(context);
+            return;
+        }
+        Consumer<T> chain = sparse.get(key);
+        (chain != null ? chain : defaultCase).accept(context);
+    }
+
+    public boolean hasCase(int key) {
+        if (dense != null) {
+            int index = key - min;
+            return Integer.compareUnsigned(index, dense.length) < 0 && present[index];
+        }
+        return sparse.containsKey(key);
+    }
+
+    /* Quantidade de chaves (sem contar o default). */
+    public int size() {
+        return size;
+    }
+
+    public boolean isDense() {
+        return dense != null;
+    }
+
+    public static final class Builder<T> {
+        private final SwitchCases<Integer, T> cases = new SwitchCases<>();
+
+        private Builder() {
+        }
+
+        /* case key: handler; break; */
+        public Builder<T> on(int key, Consumer<? super T> handler) {
+            cases.add(key, requireHandler(handler), true);
+            return this;
+        }
+
+        /* case key: handler; (sem break) */
+        public Builder<T> onFallThrough(int key, Consumer<? super T> handler) {
+            cases.add(key, requireHandler(handler), false);
+            return this;
+        }
+
+        /* case key: (vazio, cai no próximo) */
+        public Builder<T> label(int key) {
+            cases.add(key, null, false);
+            return this;
+        }
+
+        /* default: handler; break; */
+        public Builder<T> defaultCase(Consumer<? super T> handler) {
+            cases.addDefault(requireHandler(handler), true);
+            return this;
+        }
+
+        /* default: handler; (sem break) */
+        public Builder<T> defaultFallThrough(Consumer<? super T> handler) {
+            cases.addDefault(requireHandler(handler), false);
+            return this;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public DispatchTable<T> build() {
+            Map<Integer, Consumer<T>> compiled = cases.compile();
+            Consumer<T> defaultCase = cases.compileDefault();
+            int size = compiled.size();
+            if (size == 0) {
+                return new DispatchTable<>(0, new Consumer[0], new boolean[0], null, defaultCase, 0);
+            }
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int key : compiled.keySet()) {
+                min = Math.min(min, key);
+                max = Math.max(max, key);
+            }
+            long range = max - min + 1;
+            if (range <= Math.max(MIN_DENSE_SLOTS, (long) size * MAX_DENSE_SLOTS_PER_KEY)) {
+                Consumer<T>[] dense = new Consumer[(int) range];
+                boolean[] present = new boolean[(int) range];
+                Arrays.fill(dense, defaultCase);
+                for (Map.Entry<Integer, Consumer<T>> entry : compiled.entrySet()) {
+                    int index = (int) (entry.getKey() - min);
+                    dense[index] = entry.getValue();
+                    present[index] = true;
+                }
+                return new DispatchTable<>((int) min, dense, present, null, defaultCase, size);
+            }
+            IntObjectMap<Consumer<T>> sparse = new IntObjectMap<>(size);
+            compiled.forEach(sparse::put);
+            return new DispatchTable<>(0, null, null, sparse, defaultCase, size);
+        }
+    }
+
+    static <C> Consumer<C> requireHandler(Consumer<C> handler) {
+        if (handler == null) {
+            throw new NullPointerException("handler");
+        }
+        return handler;
+    }
+}
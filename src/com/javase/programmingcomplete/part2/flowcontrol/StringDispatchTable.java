@@ -0,0 +1,204 @@
+package com.javase.programmingcomplete.part2.flowcontrol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public final class StringDispatchTable<T> {
+
+    /*
+    O DispatchTable para chaves String, com as mesmas regras de default e fall-through do Switch (veja o DispatchTable).
+
+    A busca usa um hash perfeito montado no build(): cada chave tem a sua própria posição na tabela, então o dispatch é
+    calcular a posição a partir do hashCode() (que a String guarda em cache), ler a chave daquela posição e fazer um
+    único equals. Nada de percorrer lista de colisões como no HashMap.
+
+    O hash perfeito é do tipo "hash and displace": as chaves são separadas em buckets pelo hash, e para cada bucket
+    (começando pelos maiores) procura-se um deslocamento que coloque todas as chaves dele em posições ainda livres. A
+    busca guarda só o deslocamento de cada bucket. Se duas chaves tiverem o mesmo hashCode() (como "Aa" e "BB"), nenhum
+    deslocamento as separa, e a tabela usa um HashMap.
+     */
+
+    private static final int KEYS_PER_BUCKET = 4;
+    private static final int MAX_DISPLACEMENT = 1 << 16;
+
+    private final String[] keys;
+    private final Consumer<T>[] chains;
+    private final int[] displacements;
+    private final int slotMask;
+    private final int bucketMask;
+    private final Map<String, Consumer<T>> fallback;
+    private final Consumer<T> defaultCase;
+    private final int size;
+
+    private StringDispatchTable(String[] keys, Consumer<T>[] chains, int[] displacements,
+                                Map<String, Consumer<T>> fallback, Consumer<T> defaultCase, int size) {
+        this.keys = keys;
+        this.chains = chains;
+        this.displacements = displacements;
+        this.slotMask = keys == null ? 0 : keys.length - 1;
+        this.bucketMask = displacements == null ? 0 : displacements.length - 1;
+        this.fallback = fallback;
+        this.defaultCase = defaultCase;
+        this.size = size;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /* Executa o case da chave (e os seguintes, se não tiver break), ou o default. Chave null lança NPE, como no switch. */
+    public void dispatch(String key, T context) {
+        find(key).accept(context);
+    }
+
+    public boolean hasCase(String key) {
+        if (fallback != null) {
+            return fallback.containsKey(key);
+        }
+        int hash = key.hashCode();
+        return key.equals(keys[slot(hash, displacements[bucket(hash, bucketMask)], slotMask)]);
+    }
+
+    /* Quantidade de chaves (sem contar o default). */
+    public int size() {
+        return size;
+    }
+
+    /* false quando a tabela caiu no HashMap por causa de hashCode() repetido. */
+    public boolean isPerfectHash() {
+        return fallback == null;
+    }
+
+    private Consumer<T> find(String key) {
+        int hash = key.hashCode();
+        if (fallback != null) {
+            Consumer<T> chain = fallback.get(key);
+            return chain != null ? chain : defaultCase;
+        }
+        int slot = slot(hash, displacements[bucket(hash, bucketMask)], slotMask);
+        return key.equals(keys[slot]) ? chains[slot] : defaultCase;
+    }
+
+    private static int bucket(int hash, int bucketMask) {
+        int h = hash * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & bucketMask;
+    }
+
+    private static int slot(int hash, int displacement, int slotMask) {
+        int h = (hash ^ displacement) * 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return (h ^ (h >>> 16)) & slotMask;
+    }
+
+    public static final class Builder<T> {
+        private final SwitchCases<String, T> cases = new SwitchCases<>();
+
+        private Builder() {
+        }
+
+        /* case "key": handler; break; */
+        public Builder<T> on(String key, Consumer<? super T> handler) {
+            cases.add(requireKey(key), DispatchTable.requireHandler(handler), true);
+            return this;
+        }
+
+        /* case "key": handler; (sem break) */
+        public Builder<T> onFallThrough(String key, Consumer<? super T> handler) {
+            cases.add(requireKey(key), DispatchTable.requireHandler(handler), false);
+            return this;
+        }
+
+        /* case "key": (vazio, cai no próximo) */
+        public Builder<T> label(String key) {
+            cases.add(requireKey(key), null, false);
+            return this;
+        }
+
+        public Builder<T> defaultCase(Consumer<? super T> handler) {
+            cases.addDefault(DispatchTable.requireHandler(handler), true);
+            return this;
+        }
+
+        public Builder<T> defaultFallThrough(Consumer<? super T> handler) {
+            cases.addDefault(DispatchTable.requireHandler(handler), false);
+            return this;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public StringDispatchTable<T> build() {
+            Map<String, Consumer<T>> compiled = cases.compile();
+            Consumer<T> defaultCase = cases.compileDefault();
+            int size = compiled.size();
+            // Tabela com pelo menos o dobro de posições, para os deslocamentos serem encontrados rápido.
+            int slots = Integer.highestOneBit(Math.max(2, size * 2 - 1)) << 1;
+            int buckets = Integer.highestOneBit(Math.max(1, (size + KEYS_PER_BUCKET - 1) / KEYS_PER_BUCKET * 2 - 1));
+            List<List<String>> byBucket = new ArrayList<>(buckets);
+            for (int i = 0; i < buckets; i++) {
+                byBucket.add(new ArrayList<>());
+            }
+            for (String key : compiled.keySet()) {
+                byBucket.get(bucket(key.hashCode(), buckets - 1)).add(key);
+            }
+            Integer[] order = new Integer[buckets];
+            for (int i = 0; i < buckets; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> byBucket.get(b).size() - byBucket.get(a).size());
+
+            String[] keys = new String[slots];
+            Consumer<T>[] chains = new Consumer[slots];
+            int[] displacements = new int[buckets];
+            int[] bucketSlots = new int[size];
+            for (int bucket : order) {
+                List<String> bucketKeys = byBucket.get(bucket);
+                if (bucketKeys.isEmpty()) {
+                    break;
+                }
+                int displacement = findDisplacement(bucketKeys, keys, bucketSlots);
+                if (displacement < 0) {
+                    return new StringDispatchTable<>(null, null, null, new HashMap<>(compiled), defaultCase, size);
+                }
+                displacements[bucket] = displacement;
+                for (int i = 0; i < bucketKeys.size(); i++) {
+                    keys[bucketSlots[i]] = bucketKeys.get(i);
+                    chains[bucketSlots[i]] = compiled.get(bucketKeys.get(i));
+                }
+            }
+            return new StringDispatchTable<>(keys, chains, displacements, null, defaultCase, size);
+        }
+
+        /* Primeiro deslocamento que põe todas as chaves do bucket em posições livres e diferentes, ou -1. */
+        private static int findDisplacement(List<String> bucketKeys, String[] keys, int[] bucketSlots) {
+            int mask = keys.length - 1;
+            search:
+            for (int displacement = 0; displacement < MAX_DISPLACEMENT; displacement++) {
+                for (int i = 0; i < bucketKeys.size(); i++) {
+                    int slot = slot(bucketKeys.get(i).hashCode(), displacement, mask);
+                    if (keys[slot] != null) {
+                        continue search;
+                    }
+                    for (int j = 0; j < i; j++) {
+                        if (bucketSlots[j] == slot) {
+                            continue search;
+                        }
+                    }
+                    bucketSlots[i] = slot;
+                }
+                return displacement;
+            }
+            return -1;
+        }
+
+        private static String requireKey(String key) {
+            if (key == null) {
+                throw new NullPointerException("case label");
+            }
+            return key;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.javase.programmingcomplete.part2.flowcontrol;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+final class SwitchCases<K, T> {
+
+    /*
+    Os cases de um DispatchTable ou StringDispatchTable, na ordem em que foram registrados (a ordem em que estariam
+    escritos no switch). Cada case tem um label (uma chave ou o default), um handler (null para um label vazio, como
+    "case 'A':" seguido de outro case) e se termina com break ou cai no próximo.
+
+    Na compilação, cada label vira a sequência de handlers que o switch executaria a partir dele: o próprio handler e,
+    enquanto não houver break, os handlers dos cases seguintes, inclusive o default se ele estiver no meio.
+     */
+
+    private static final Consumer<Object> NOTHING = context -> {
+    };
+
+    private final List<K> keys = new ArrayList<>();
+    private final List<Consumer<? super T>> handlers = new ArrayList<>();
+    private final List<Boolean> breaks = new ArrayList<>();
+    private final Set<K> seen = new HashSet<>();
+    private int defaultPosition = -1;
+
+    void add(K key, Consumer<? super T> handler, boolean breakAfter) {
+        if (!seen.add(key)) {
+            throw new IllegalArgumentException("Duplicate case label: " + key);
+        }
+        keys.add(key);
+        handlers.add(handler);
+        breaks.add(breakAfter);
+    }
+
+    void addDefault(Consumer<? super T> handler, boolean breakAfter) {
+        if (defaultPosition >= 0) {
+            throw new IllegalArgumentException("Duplicate default label");
+        }
+        defaultPosition = keys.size();
+        keys.add(null);
+        handlers.add(handler);
+        breaks.add(breakAfter);
+    }
+
+    /* Sequência de cada chave, na ordem de registro. */
+    Map<K, Consumer<T>> compile() {
+        List<Consumer<T>> chains = chains();
+        Map<K, Consumer<T>> compiled = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (i != defaultPosition) {
+                compiled.put(keys.get(i), chains.get(i));
+            }
+        }
+        return compiled;
+    }
+
+    /* Sequência do default, ou uma que não faz nada quando não existe default (igual ao switch). */
+    @SuppressWarnings("unchecked")
+    Consumer<T> compileDefault() {
+        return defaultPosition < 0 ? (Consumer<T>) NOTHING : chains().get(defaultPosition);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Consumer<T>> chains() {
+        int size = keys.size();
+        List<Consumer<T>> chains = new ArrayList<>(size);
+        for (int start = 0; start < size; start++) {
+            List<Consumer<? super T>> sequence = new ArrayList<>();
+            for (int i = start; i < size; i++) {
+                if (handlers.get(i) != null) {
+                    sequence.add(handlers.get(i));
+                }
+                if (breaks.get(i)) {
+                    break;
+                }
+            }
+            if (sequence.isEmpty()) {
+                chains.add((Consumer<T>) NOTHING);
+            } else if (sequence.size() == 1) {
+                // O caso comum (case com break) chama o handler direto, sem nenhuma camada no meio.
+                chains.add((Consumer<T>) sequence.get(0));
+            } else {
+                Consumer<? super T>[] steps = sequence.toArray(new Consumer[0]);
+                chains.add(context -> {
+                    for (Consumer<? super T> step : steps) {
+                        step.accept(context);
+                    }
+                });
+            }
+        }
+        return chains;
+    }
+}
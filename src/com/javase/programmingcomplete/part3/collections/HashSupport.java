@@ -0,0 +1,32 @@
+package com.javase.programmingcomplete.part3.collections;
+
+final class HashSupport {
+
+    /*
+    Funções de hash e de tamanho compartilhadas pelos maps primitivos. O hash multiplica pela razão áurea (Fibonacci
+    hashing) e mistura os bits altos nos baixos, para que chaves sequenciais (1, 2, 3...) não fiquem todas coladas na
+    tabela, o que deixaria o linear probing lento.
+     */
+
+    private HashSupport() {
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /* Menor potência de 2 em que expectedSize entradas cabem sem passar do load factor. */
+    static int capacityFor(int expectedSize, float loadFactor, int maxCapacity) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 2) / (double) loadFactor) + 1;
+        if (needed > maxCapacity) {
+            return maxCapacity;
+        }
+        return Math.max(4, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+}
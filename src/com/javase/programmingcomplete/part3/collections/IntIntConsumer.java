@@ -0,0 +1,7 @@
+package com.javase.programmingcomplete.part3.collections;
+
+@FunctionalInterface
+public interface IntIntConsumer {
+
+    void accept(int key, int value);
+}
@@ -0,0 +1,217 @@
+package com.javase.programmingcomplete.part3.collections;
+
+public final class IntIntMap {
+
+    /*
+    Map de int para int com endereçamento aberto (linear probing), sem boxing.
+    O P2PrimitiveWrappers.conversionBetweenTypes() mostra o auto-boxing de int para Integer. Em um HashMap<Integer,
+    Integer> isso acontece em todo put e get: cada chave e cada valor fora do cache de Integer (-128 a 127) é um objeto, e
+    cada entrada ainda tem um HashMap.Node. Aqui as chaves e os valores ficam em dois arrays de int.
+
+    - A chave 0 é usada para marcar posição livre, então a entrada com chave 0 é guardada separada.
+    - get devolve noEntryValue (0 por padrão) quando a chave não existe; use containsKey para diferenciar.
+    - remove usa backward shift deletion (as entradas seguintes voltam uma posição), então não existem "tombstones" e
+      as buscas não ficam mais lentas depois de muitas remoções.
+    - Com offHeap = true, os arrays ficam em ByteBuffers diretos, fora do heap.
+    Não é thread-safe.
+     */
+
+    private static final int FREE = 0;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MAX_CAPACITY = 1 << 30;
+    // Maior potência de 2 que cabe em um ByteBuffer
+    private static final int MAX_OFF_HEAP_CAPACITY = Integer.highestOneBit(IntSlots.MAX_DIRECT_LENGTH);
+
+    private final boolean offHeap;
+    private final int maxCapacity;
+    private final int noEntryValue;
+    private IntSlots keys;
+    private IntSlots values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    public IntIntMap(int expectedSize) {
+        this(expectedSize, false, 0);
+    }
+
+    public IntIntMap(int expectedSize, boolean offHeap, int noEntryValue) {
+        this.offHeap = offHeap;
+        this.maxCapacity = offHeap ? MAX_OFF_HEAP_CAPACITY : MAX_CAPACITY;
+        this.noEntryValue = noEntryValue;
+        allocate(HashSupport.capacityFor(expectedSize, LOAD_FACTOR, maxCapacity));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int key) {
+        if (key == FREE) {
+            return hasZeroKey ? zeroValue : noEntryValue;
+        }
+        int slot = HashSupport.mix(key) & mask;
+        int current;
+        while ((current = keys.get(slot)) != FREE) {
+            if (current == key) {
+                return values.get(slot);
+            }
+            slot = (slot + 1) & mask;
+        }
+        return noEntryValue;
+    }
+
+    public boolean containsKey(int key) {
+        return key == FREE ? hasZeroKey : find(key) >= 0;
+    }
+
+    /* Devolve o valor anterior, ou noEntryValue se a chave não existia. */
+    public int put(int key, int value) {
+        if (key == FREE) {
+            int previous = hasZeroKey ? zeroValue : noEntryValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int slot = HashSupport.mix(key) & mask;
+        int current;
+        while ((current = keys.get(slot)) != FREE) {
+            if (current == key) {
+                int previous = values.get(slot);
+                values.set(slot, value);
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys.set(slot, key);
+        values.set(slot, value);
+        if (++size > resizeAt) {
+            rehash(keys.length() * 2);
+        }
+        return noEntryValue;
+    }
+
+    /* Soma delta ao valor da chave (começando de noEntryValue) e devolve o novo valor. Útil para contadores. */
+    public int addTo(int key, int delta) {
+        int slot = key == FREE ? -1 : find(key);
+        if (slot >= 0) {
+            int updated = values.get(slot) + delta;
+            values.set(slot, updated);
+            return updated;
+        }
+        int updated = (key == FREE && hasZeroKey ? zeroValue : noEntryValue) + delta;
+        put(key, updated);
+        return updated;
+    }
+
+    /* Devolve o valor removido, ou noEntryValue se a chave não existia. */
+    public int remove(int key) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                return noEntryValue;
+            }
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return noEntryValue;
+        }
+        int previous = values.get(slot);
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        keys.fill(FREE);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    /* Percorre as entradas sem criar Map.Entry nem Integer. A ordem não é definida. */
+    public void forEach(IntIntConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(FREE, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length(); slot++) {
+            int key = keys.get(slot);
+            if (key != FREE) {
+                consumer.accept(key, values.get(slot));
+            }
+        }
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    private int find(int key) {
+        int slot = HashSupport.mix(key) & mask;
+        int current;
+        while ((current = keys.get(slot)) != FREE) {
+            if (current == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /* Remove a entrada da posição e puxa para trás as entradas seguintes que podem ocupar o espaço. */
+    private void shiftBack(int gap) {
+        int slot = (gap + 1) & mask;
+        int key;
+        while ((key = keys.get(slot)) != FREE) {
+            int ideal = HashSupport.mix(key) & mask;
+            if (((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+                keys.set(gap, key);
+                values.set(gap, values.get(slot));
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys.set(gap, FREE);
+    }
+
+    private void allocate(int capacity) {
+        keys = IntSlots.allocate(capacity, offHeap);
+        values = IntSlots.allocate(capacity, offHeap);
+        mask = capacity - 1;
+        resizeAt = capacity == maxCapacity ? maxCapacity - 1 : (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        if (keys.length() == maxCapacity) {
+            throw new IllegalStateException("IntIntMap is full (" + size + " entries)");
+        }
+        IntSlots oldKeys = keys;
+        IntSlots oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length(); i++) {
+            int key = oldKeys.get(i);
+            if (key != FREE) {
+                int slot = HashSupport.mix(key) & mask;
+                while (keys.get(slot) != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys.set(slot, key);
+                values.set(slot, oldValues.get(i));
+            }
+        }
+    }
+}
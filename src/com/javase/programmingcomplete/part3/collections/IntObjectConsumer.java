@@ -0,0 +1,7 @@
+package com.javase.programmingcomplete.part3.collections;
+
+@FunctionalInterface
+public interface IntObjectConsumer<V> {
+
+    void accept(int key, V value);
+}
@@ -0,0 +1,180 @@
+package com.javase.programmingcomplete.part3.collections;
+
+import java.util.Arrays;
+
+public final class IntObjectMap<V> {
+
+    /*
+    Map de int para objeto, com a mesma estrutura do IntIntMap (linear probing, chave 0 guardada separada, remoção com
+    backward shift). Evita o Integer da chave e o HashMap.Node de cada entrada de um HashMap<Integer, V>.
+    get devolve null quando a chave não existe, então valores null não são permitidos. Como os valores são objetos,
+    não existe versão fora do heap. Não é thread-safe.
+     */
+
+    private static final int FREE = 0;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private V zeroValue;
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        allocate(HashSupport.capacityFor(expectedSize, LOAD_FACTOR, MAX_CAPACITY));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == FREE) {
+            return zeroValue;
+        }
+        int slot = HashSupport.mix(key) & mask;
+        int current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /* Devolve o valor anterior, ou null se a chave não existia. */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("IntObjectMap does not accept null values");
+        }
+        if (key == FREE) {
+            V previous = zeroValue;
+            if (previous == null) {
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int slot = HashSupport.mix(key) & mask;
+        int current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    /* Devolve o valor removido, ou null se a chave não existia. */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == FREE) {
+            V previous = zeroValue;
+            if (previous != null) {
+                zeroValue = null;
+                size--;
+            }
+            return previous;
+        }
+        int slot = HashSupport.mix(key) & mask;
+        int current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                V previous = (V) values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, null);
+        zeroValue = null;
+        size = 0;
+    }
+
+    /* Percorre as entradas sem criar Map.Entry nem Integer. A ordem não é definida. */
+    @SuppressWarnings("unchecked")
+    public void forEach(IntObjectConsumer<? super V> consumer) {
+        if (zeroValue != null) {
+            consumer.accept(FREE, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                consumer.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    private void shiftBack(int gap) {
+        int slot = (gap + 1) & mask;
+        int key;
+        while ((key = keys[slot]) != FREE) {
+            int ideal = HashSupport.mix(key) & mask;
+            if (((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[gap] = FREE;
+        values[gap] = null;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity == MAX_CAPACITY ? MAX_CAPACITY - 1 : (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("IntObjectMap is full (" + size + " entries)");
+        }
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != FREE) {
+                int slot = HashSupport.mix(key) & mask;
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.javase.programmingcomplete.part3.collections;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+abstract class IntSlots {
+
+    /*
+    Armazenamento de ints usado pelas coleções primitivas: um int[] no heap ou um ByteBuffer.allocateDirect fora do
+    heap. Fora do heap os dados não são percorridos pelo GC e não contam no -Xmx (contam no -XX:MaxDirectMemorySize).
+    Um ByteBuffer tem no máximo 2 GB, ou seja, MAX_DIRECT_LENGTH (536 milhões) ints.
+     */
+
+    static final int MAX_DIRECT_LENGTH = Integer.MAX_VALUE / Integer.BYTES;
+
+    static IntSlots allocate(int length, boolean offHeap) {
+        return offHeap ? new Direct(length) : new Heap(length);
+    }
+
+    abstract int get(int index);
+
+    abstract void set(int index, int value);
+
+    abstract int length();
+
+    abstract boolean offHeap();
+
+    abstract void fill(int value);
+
+    private static final class Heap extends IntSlots {
+        private final int[] values;
+
+        Heap(int length) {
+            values = new int[length];
+        }
+
+        @Override
+        int get(int index) {
+            return values[index];
+        }
+
+        @Override
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        @Override
+        int length() {
+            return values.length;
+        }
+
+        @Override
+        boolean offHeap() {
+            return false;
+        }
+
+        @Override
+        void fill(int value) {
+            Arrays.fill(values, value);
+        }
+    }
+
+    private static final class Direct extends IntSlots {
+        private final ByteBuffer buffer;
+        private final int length;
+
+        Direct(int length) {
+            if (length > MAX_DIRECT_LENGTH) {
+                throw new IllegalArgumentException("Off-heap capacity " + length + " exceeds the limit of "
+                        + MAX_DIRECT_LENGTH + " ints (2 GB per ByteBuffer)");
+            }
+            this.buffer = ByteBuffer.allocateDirect(length * Integer.BYTES).order(ByteOrder.nativeOrder());
+            this.length = length;
+        }
+
+        @Override
+        int get(int index) {
+            return buffer.getInt(index << 2);
+        }
+
+        @Override
+        void set(int index, int value) {
+            buffer.putInt(index << 2, value);
+        }
+
+        @Override
+        int length() {
+            return length;
+        }
+
+        @Override
+        boolean offHeap() {
+            return true;
+        }
+
+        @Override
+        void fill(int value) {
+            for (int i = 0; i < length; i++) {
+                buffer.putInt(i << 2, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.javase.programmingcomplete.part3.collections;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+public final class LongList {
+
+    /*
+    Lista de long que cresce conforme precisa, como um ArrayList<Long> mas sem o Long de cada elemento.
+    Cresce 50% a cada vez, igual ao ArrayList. Com offHeap = true os elementos ficam em um ByteBuffer direto e, ao
+    crescer, são copiados para um novo buffer. Não é thread-safe.
+     */
+
+    private final boolean offHeap;
+    private LongSlots elements;
+    private int size;
+
+    public LongList() {
+        this(10);
+    }
+
+    public LongList(int initialCapacity) {
+        this(initialCapacity, false);
+    }
+
+    public LongList(int initialCapacity, boolean offHeap) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+        }
+        this.offHeap = offHeap;
+        this.elements = LongSlots.allocate(Math.max(initialCapacity, 1), offHeap);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void add(long value) {
+        if (size == elements.length()) {
+            grow(size + 1);
+        }
+        elements.set(size++, value);
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return elements.get(index);
+    }
+
+    /* Devolve o valor anterior. */
+    public long set(int index, long value) {
+        checkIndex(index);
+        long previous = elements.get(index);
+        elements.set(index, value);
+        return previous;
+    }
+
+    public long removeLast() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("List is empty");
+        }
+        return elements.get(--size);
+    }
+
+    public int indexOf(long value) {
+        for (int i = 0; i < size; i++) {
+            if (elements.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void forEach(LongConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(elements.get(i));
+        }
+    }
+
+    public long[] toArray() {
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = elements.get(i);
+        }
+        return copy;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = elements.length();
+        int maxCapacity = offHeap ? LongSlots.MAX_DIRECT_LENGTH : Integer.MAX_VALUE - 8;
+        int newCapacity = (int) Math.min(maxCapacity, Math.max(minCapacity, capacity + (capacity >> 1) + 1L));
+        if (newCapacity < minCapacity) {
+            throw new OutOfMemoryError("LongList is too large");
+        }
+        LongSlots grown = LongSlots.allocate(newCapacity, offHeap);
+        for (int i = 0; i < size; i++) {
+            grown.set(i, elements.get(i));
+        }
+        elements = grown;
+    }
+}
@@ -0,0 +1,216 @@
+package com.javase.programmingcomplete.part3.collections;
+
+public final class LongLongMap {
+
+    /*
+    Map de long para long com endereçamento aberto (linear probing), sem boxing.
+    Mesma estrutura do IntIntMap, para chaves e valores long (ids, timestamps, contadores grandes). Em um
+    HashMap<Long, Long> cada chave e valor fora do cache de Long (-128 a 127) é um objeto.
+
+    - A chave 0 é usada para marcar posição livre, então a entrada com chave 0 é guardada separada.
+    - get devolve noEntryValue (0 por padrão) quando a chave não existe; use containsKey para diferenciar.
+    - remove usa backward shift deletion (as entradas seguintes voltam uma posição), então não existem "tombstones" e
+      as buscas não ficam mais lentas depois de muitas remoções.
+    - Com offHeap = true, os arrays ficam em ByteBuffers diretos, fora do heap.
+    Não é thread-safe.
+     */
+
+    private static final long FREE = 0;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MAX_CAPACITY = 1 << 30;
+    // Maior potência de 2 que cabe em um ByteBuffer
+    private static final int MAX_OFF_HEAP_CAPACITY = Integer.highestOneBit(LongSlots.MAX_DIRECT_LENGTH);
+
+    private final boolean offHeap;
+    private final int maxCapacity;
+    private final long noEntryValue;
+    private LongSlots keys;
+    private LongSlots values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongMap() {
+        this(16);
+    }
+
+    public LongLongMap(int expectedSize) {
+        this(expectedSize, false, 0);
+    }
+
+    public LongLongMap(int expectedSize, boolean offHeap, long noEntryValue) {
+        this.offHeap = offHeap;
+        this.maxCapacity = offHeap ? MAX_OFF_HEAP_CAPACITY : MAX_CAPACITY;
+        this.noEntryValue = noEntryValue;
+        allocate(HashSupport.capacityFor(expectedSize, LOAD_FACTOR, maxCapacity));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long get(long key) {
+        if (key == FREE) {
+            return hasZeroKey ? zeroValue : noEntryValue;
+        }
+        int slot = HashSupport.mix(key) & mask;
+        long current;
+        while ((current = keys.get(slot)) != FREE) {
+            if (current == key) {
+                return values.get(slot);
+            }
+            slot = (slot + 1) & mask;
+        }
+        return noEntryValue;
+    }
+
+    public boolean containsKey(long key) {
+        return key == FREE ? hasZeroKey : find(key) >= 0;
+    }
+
+    /* Devolve o valor anterior, ou noEntryValue se a chave não existia. */
+    public long put(long key, long value) {
+        if (key == FREE) {
+            long previous = hasZeroKey ? zeroValue : noEntryValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int slot = HashSupport.mix(key) & mask;
+        long current;
+        while ((current = keys.get(slot)) != FREE) {
+            if (current == key) {
+                long previous = values.get(slot);
+                values.set(slot, value);
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys.set(slot, key);
+        values.set(slot, value);
+        if (++size > resizeAt) {
+            rehash(keys.length() * 2);
+        }
+        return noEntryValue;
+    }
+
+    /* Soma delta ao valor da chave (começando de noEntryValue) e devolve o novo valor. Útil para contadores. */
+    public long addTo(long key, long delta) {
+        int slot = key == FREE ? -1 : find(key);
+        if (slot >= 0) {
+            long updated = values.get(slot) + delta;
+            values.set(slot, updated);
+            return updated;
+        }
+        long updated = (key == FREE && hasZeroKey ? zeroValue : noEntryValue) + delta;
+        put(key, updated);
+        return updated;
+    }
+
+    /* Devolve o valor removido, ou noEntryValue se a chave não existia. */
+    public long remove(long key) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                return noEntryValue;
+            }
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return noEntryValue;
+        }
+        long previous = values.get(slot);
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        keys.fill(FREE);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    /* Percorre as entradas sem criar Map.Entry nem Integer. A ordem não é definida. */
+    public void forEach(LongLongConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(FREE, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length(); slot++) {
+            long key = keys.get(slot);
+            if (key != FREE) {
+                consumer.accept(key, values.get(slot));
+            }
+        }
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    private int find(long key) {
+        int slot = HashSupport.mix(key) & mask;
+        long current;
+        while ((current = keys.get(slot)) != FREE) {
+            if (current == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /* Remove a entrada da posição e puxa para trás as entradas seguintes que podem ocupar o espaço. */
+    private void shiftBack(int gap) {
+        int slot = (gap + 1) & mask;
+        long key;
+        while ((key = keys.get(slot)) != FREE) {
+            int ideal = HashSupport.mix(key) & mask;
+            if (((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+                keys.set(gap, key);
+                values.set(gap, values.get(slot));
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys.set(gap, FREE);
+    }
+
+    private void allocate(int capacity) {
+        keys = LongSlots.allocate(capacity, offHeap);
+        values = LongSlots.allocate(capacity, offHeap);
+        mask = capacity - 1;
+        resizeAt = capacity == maxCapacity ? maxCapacity - 1 : (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        if (keys.length() == maxCapacity) {
+            throw new IllegalStateException("LongLongMap is full (" + size + " entries)");
+        }
+        LongSlots oldKeys = keys;
+        LongSlots oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length(); i++) {
+            long key = oldKeys.get(i);
+            if (key != FREE) {
+                int slot = HashSupport.mix(key) & mask;
+                while (keys.get(slot) != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys.set(slot, key);
+                values.set(slot, oldValues.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.javase.programmingcomplete.part3.collections;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+abstract class LongSlots {
+
+    /*
+    Armazenamento de longs usado pelas coleções primitivas: um long[] no heap ou um ByteBuffer.allocateDirect fora do
+    heap. Fora do heap os dados não são percorridos pelo GC e não contam no -Xmx (contam no -XX:MaxDirectMemorySize).
+    Um ByteBuffer tem no máximo 2 GB, ou seja, MAX_DIRECT_LENGTH (268 milhões) longs.
+     */
+
+    static final int MAX_DIRECT_LENGTH = Integer.MAX_VALUE / Long.BYTES;
+
+    static LongSlots allocate(int length, boolean offHeap) {
+        return offHeap ? new Direct(length) : new Heap(length);
+    }
+
+    abstract long get(int index);
+
+    abstract void set(int index, long value);
+
+    abstract int length();
+
+    abstract boolean offHeap();
+
+    abstract void fill(long value);
+
+    private static final class Heap extends LongSlots {
+        private final long[] values;
+
+        Heap(int length) {
+            values = new long[length];
+        }
+
+        @Override
+        long get(int index) {
+            return values[index];
+        }
+
+        @Override
+        void set(int index, long value) {
+            values[index] = value;
+        }
+
+        @Override
+        int length() {
+            return values.length;
+        }
+
+        @Override
+        boolean offHeap() {
+            return false;
+        }
+
+        @Override
+        void fill(long value) {
+            Arrays.fill(values, value);
+        }
+    }
+
+    private static final class Direct extends LongSlots {
+        private final ByteBuffer buffer;
+        private final int length;
+
+        Direct(int length) {
+            if (length > MAX_DIRECT_LENGTH) {
+                throw new IllegalArgumentException("Off-heap capacity " + length + " exceeds the limit of "
+                        + MAX_DIRECT_LENGTH + " longs (2 GB per ByteBuffer)");
+            }
+            this.buffer = ByteBuffer.allocateDirect(length * Long.BYTES).order(ByteOrder.nativeOrder());
+            this.length = length;
+        }
+
+        @Override
+        long get(int index) {
+            return buffer.getLong(index << 3);
+        }
+
+        @Override
+        void set(int index, long value) {
+            buffer.putLong(index << 3, value);
+        }
+
+        @Override
+        int length() {
+            return length;
+        }
+
+        @Override
+        boolean offHeap() {
+            return true;
+        }
+
+        @Override
+        void fill(long value) {
+            for (int i = 0; i < length; i++) {
+                buffer.putLong(i << 3, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.javase.programmingcomplete.part3.datetime;
+
+import com.javase.programmingcomplete.part3.instrumentation.Instrumentation;
+import com.javase.programmingcomplete.part3.instrumentation.Operation;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+public final class BatchDateFormatter {
+
+    /*
+    Formatação e parse de colunas de datas, em cima das mesmas regras do DateTimeFormatter.ofPattern(pattern, locale).
+    O P3ZonedDateTime.usingLocaleDateAndTime() formata um LocalDate por vez e cria uma String por valor. Aqui a entrada é
+    um long[] de epoch days (ou LocalDate[]) e a saída é uma TextColumn, com todos os textos em um único char[].
+
+    O padrão é compilado uma vez em segmentos. Os nomes dos dias da semana e dos meses são pegos do próprio
+    DateTimeFormatter (um por locale), então o texto é o mesmo que o JDK produziria ("Tuesday", "Sept" em en_GB, etc).
+    Letras suportadas no caminho rápido: E/EE/EEE/EEEE, d/dd, M/MM/MMM/MMMM e y/yy/yyy/yyyy, além de literais e texto
+    entre aspas. Qualquer outra letra, e anos fora de 1 a 9999, usam o DateTimeFormatter linha a linha.
+
+    O parse faz o caminho inverso sem criar LocalDate. Ele só aceita exatamente o formato que o caminho rápido produz e
+    confere o dia do mês e o dia da semana. Se algo não bater, a linha é repassada ao LocalDate.parse, que decide (e lança
+    DateTimeParseException se o texto for inválido), assim o resultado é sempre o mesmo do JDK.
+
+    Colunas com mais de PARALLEL_THRESHOLD linhas são processadas em paralelo no ForkJoinPool comum, em blocos de
+    CHUNK linhas: primeiro calcula o tamanho de cada texto, depois os offsets, depois cada bloco escreve a sua parte do
+    mesmo char[].
+     */
+
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int CHUNK = 1 << 14;
+    private static final long NOT_PARSED = Long.MIN_VALUE;
+    /* Anos 0001 a 9999. Conferido no epoch day antes do toPacked, que só guarda o ano em 23 bits. */
+    private static final long MIN_FAST_EPOCH_DAY = EpochDays.toEpochDay(1, 1, 1);
+    private static final long MAX_FAST_EPOCH_DAY = EpochDays.toEpochDay(9999, 12, 31);
+
+    private static final int LITERAL = 0;
+    private static final int DAY_OF_WEEK_TEXT = 1;
+    private static final int MONTH_TEXT = 2;
+    private static final int DAY = 3;
+    private static final int MONTH = 4;
+    private static final int YEAR = 5;
+    private static final int REDUCED_YEAR = 6;
+
+    private static final ConcurrentMap<Locale, ConcurrentMap<String, BatchDateFormatter>> CACHE =
+            new ConcurrentHashMap<>();
+
+    private final DateTimeFormatter formatter;
+    private final boolean fallbackOnly;
+    private final int[] kinds;
+    /* Para campos numéricos: quantidade mínima e máxima de dígitos. */
+    private final int[] minDigits;
+    private final int[] maxDigits;
+    /* Para literais: o texto. Para nomes: os nomes indexados por dia da semana (0 = segunda) ou mês (0 = janeiro). */
+    private final String[][] texts;
+
+    private BatchDateFormatter(String pattern, Locale locale) {
+        this.formatter = DateTimeFormatter.ofPattern(pattern, locale);
+        int[] kinds = new int[pattern.length()];
+        int[] minDigits = new int[pattern.length()];
+        int[] maxDigits = new int[pattern.length()];
+        String[][] texts = new String[pattern.length()][];
+        int count = 0;
+        boolean fallback = false;
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        while (i < pattern.length() && !fallback) {
+            char ch = pattern.charAt(i);
+            if ((ch >= 'A' && ch <= 'Z') || (ch >= 'a' && ch <= 'z')) {
+                int letters = 1;
+                while (i + letters < pattern.length() && pattern.charAt(i + letters) == ch) {
+                    letters++;
+                }
+                i += letters;
+                if (literal.length() > 0) {
+                    kinds[count] = LITERAL;
+                    texts[count++] = new String[]{literal.toString()};
+                    literal.setLength(0);
+                }
+                if (ch == 'E' && letters <= 4) {
+                    kinds[count] = DAY_OF_WEEK_TEXT;
+                    texts[count++] = names(letters == 4 ? "EEEE" : "EEE", locale, 7, true);
+                } else if (ch == 'M' && letters >= 3 && letters <= 4) {
+                    kinds[count] = MONTH_TEXT;
+                    texts[count++] = names(letters == 4 ? "MMMM" : "MMM", locale, 12, false);
+                } else if ((ch == 'd' || ch == 'M') && letters <= 2) {
+                    kinds[count] = ch == 'd' ? DAY : MONTH;
+                    minDigits[count] = letters;
+                    maxDigits[count++] = 2;
+                } else if (ch == 'y' && letters == 2) {
+                    kinds[count] = REDUCED_YEAR;
+                    minDigits[count] = 2;
+                    maxDigits[count++] = 2;
+                } else if (ch == 'y') {
+                    kinds[count] = YEAR;
+                    minDigits[count] = letters;
+                    maxDigits[count++] = Math.max(letters, 4);
+                } else {
+                    fallback = true;
+                }
+            } else if (ch == '\'') {
+                // Texto entre aspas é literal, e '' é uma aspa simples (dentro ou fora das aspas).
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                    literal.append('\'');
+                    i += 2;
+                } else {
+                    i++;
+                    while (i < pattern.length()) {
+                        char quoted = pattern.charAt(i);
+                        if (quoted != '\'') {
+                            literal.append(quoted);
+                            i++;
+                        } else if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                            literal.append('\'');
+                            i += 2;
+                        } else {
+                            i++;
+                            break;
+                        }
+                    }
+                }
+            } else if (ch == '[' || ch == ']' || ch == '{' || ch == '}' || ch == '#') {
+                fallback = true;
+            } else {
+                literal.append(ch);
+                i++;
+            }
+        }
+        if (literal.length() > 0) {
+            kinds[count] = LITERAL;
+            texts[count++] = new String[]{literal.toString()};
+        }
+        this.fallbackOnly = fallback;
+        this.kinds = Arrays.copyOf(kinds, count);
+        this.minDigits = Arrays.copyOf(minDigits, count);
+        this.maxDigits = Arrays.copyOf(maxDigits, count);
+        this.texts = Arrays.copyOf(texts, count);
+    }
+
+    /* Os formatters (e os nomes de dias e meses de cada um) ficam em cache por locale e padrão. */
+    public static BatchDateFormatter ofPattern(String pattern, Locale locale) {
+        return CACHE.computeIfAbsent(locale, l -> new ConcurrentHashMap<>())
+                .computeIfAbsent(pattern, p -> new BatchDateFormatter(p, locale));
+    }
+
+    /* Nomes do próprio JDK para o locale. 2024-01-01 foi uma segunda-feira. */
+    private static String[] names(String pattern, Locale locale, int count, boolean days) {
+        DateTimeFormatter single = DateTimeFormatter.ofPattern(pattern, locale);
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            LocalDate date = days ? LocalDate.of(2024, 1, 1 + i) : LocalDate.of(2024, 1 + i, 1);
+            names[i] = single.format(date);
+        }
+        return names;
+    }
+
+    public DateTimeFormatter formatter() {
+        return formatter;
+    }
+
+    public TextColumn format(long[] epochDays) {
+        TextColumn column = new TextColumn(epochDays.length, 0);
+        formatTo(epochDays, 0, epochDays.length, column);
+        return column;
+    }
+
+    public TextColumn format(LocalDate[] dates) {
+        long[] epochDays = new long[dates.length];
+        for (int i = 0; i < dates.length; i++) {
+            epochDays[i] = dates[i].toEpochDay();
+        }
+        return format(epochDays);
+    }
+
+    /* Formata epochDays[from, to) para a coluna, que é limpa e reaproveitada (linha 0 da coluna = epochDays[from]). */
+    public void formatTo(long[] epochDays, int from, int to, TextColumn column) {
+        long started = Instrumentation.begin();
+        try {
+            formatRows(epochDays, from, to, column);
+        } finally {
+            Instrumentation.end(Operation.DATE_FORMAT, formatter.getLocale(), started);
+        }
+    }
+
+    private void formatRows(long[] epochDays, int from, int to, TextColumn column) {
+        int rows = to - from;
+        int chunks = (rows + CHUNK - 1) / CHUNK;
+        long[] chunkChars = new long[chunks];
+        column.reset(rows, 0);
+        int[] offsets = column.offsets();
+
+        // 1. tamanho de cada texto, guardado em offsets[linha + 1]
+        forEachChunk(chunks, rows, chunk -> {
+            int start = chunk * CHUNK;
+            int end = Math.min(rows, start + CHUNK);
+            long total = 0;
+            for (int row = start; row < end; row++) {
+                int length = length(epochDays[from + row]);
+                offsets[row + 1] = length;
+                total += length;
+            }
+            chunkChars[chunk] = total;
+        });
+
+        // 2. onde cada bloco começa no char[]
+        long totalChars = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            long chars = chunkChars[chunk];
+            chunkChars[chunk] = totalChars;
+            totalChars += chars;
+        }
+        if (totalChars > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Column of " + totalChars + " chars is too large, format it in blocks");
+        }
+        column.reset(rows, (int) totalChars);
+        char[] chars = column.chars();
+
+        // 3. cada bloco transforma tamanhos em offsets e escreve os textos
+        forEachChunk(chunks, rows, chunk -> {
+            int start = chunk * CHUNK;
+            int end = Math.min(rows, start + CHUNK);
+            int position = (int) chunkChars[chunk];
+            for (int row = start; row < end; row++) {
+                offsets[row] = position;
+                position = write(epochDays[from + row], chars, position);
+            }
+        });
+        offsets[0] = 0;
+        offsets[rows] = (int) totalChars;
+    }
+
+    public long[] parse(TextColumn column) {
+        long[] out = new long[column.size()];
+        parseTo(column, out);
+        return out;
+    }
+
+    public long[] parse(CharSequence... texts) {
+        return parse(TextColumn.of(texts));
+    }
+
+    public void parseTo(TextColumn column, long[] out) {
+        long started = Instrumentation.begin();
+        try {
+            parseRows(column, out);
+        } finally {
+            Instrumentation.end(Operation.DATE_PARSE, formatter.getLocale(), started);
+        }
+    }
+
+    private void parseRows(TextColumn column, long[] out) {
+        int rows = column.size();
+        int chunks = (rows + CHUNK - 1) / CHUNK;
+        char[] chars = column.chars();
+        forEachChunk(chunks, rows, chunk -> {
+            int start = chunk * CHUNK;
+            int end = Math.min(rows, start + CHUNK);
+            for (int row = start; row < end; row++) {
+                long value = fallbackOnly ? NOT_PARSED : parse(chars, column.start(row), column.end(row));
+                if (value == NOT_PARSED) {
+                    value = LocalDate.parse(column.buffer(row), formatter).toEpochDay();
+                }
+                out[row] = value;
+            }
+        });
+    }
+
+    private interface ChunkTask {
+        void run(int chunk);
+    }
+
+    private static void forEachChunk(int chunks, int rows, ChunkTask task) {
+        if (rows > PARALLEL_THRESHOLD) {
+            IntStream.range(0, chunks).parallel().forEach(task::run);
+        } else {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                task.run(chunk);
+            }
+        }
+    }
+
+    private boolean fastPath(long epochDay) {
+        return !fallbackOnly && epochDay >= MIN_FAST_EPOCH_DAY && epochDay <= MAX_FAST_EPOCH_DAY;
+    }
+
+    private int length(long epochDay) {
+        if (!fastPath(epochDay)) {
+            return formatter.format(LocalDate.ofEpochDay(epochDay)).length();
+        }
+        int packed = EpochDays.toPacked(epochDay);
+        int year = EpochDays.year(packed);
+        int length = 0;
+        for (int i = 0; i < kinds.length; i++) {
+            switch (kinds[i]) {
+                case LITERAL:
+                    length += texts[i][0].length();
+                    break;
+                case DAY_OF_WEEK_TEXT:
+                    length += texts[i][EpochDays.dayOfWeek(epochDay) - 1].length();
+                    break;
+                case MONTH_TEXT:
+                    length += texts[i][EpochDays.month(packed) - 1].length();
+                    break;
+                case DAY:
+                    length += Math.max(minDigits[i], digits(EpochDays.day(packed)));
+                    break;
+                case MONTH:
+                    length += Math.max(minDigits[i], digits(EpochDays.month(packed)));
+                    break;
+                case REDUCED_YEAR:
+                    length += 2;
+                    break;
+                default:
+                    length += Math.max(minDigits[i], digits(year));
+            }
+        }
+        return length;
+    }
+
+    private int write(long epochDay, char[] out, int position) {
+        if (!fastPath(epochDay)) {
+            String text = formatter.format(LocalDate.ofEpochDay(epochDay));
+            text.getChars(0, text.length(), out, position);
+            return position + text.length();
+        }
+        int packed = EpochDays.toPacked(epochDay);
+        int year = EpochDays.year(packed);
+        for (int i = 0; i < kinds.length; i++) {
+            switch (kinds[i]) {
+                case LITERAL:
+                    position = append(texts[i][0], out, position);
+                    break;
+                case DAY_OF_WEEK_TEXT:
+                    position = append(texts[i][EpochDays.dayOfWeek(epochDay) - 1], out, position);
+                    break;
+                case MONTH_TEXT:
+                    position = append(texts[i][EpochDays.month(packed) - 1], out, position);
+                    break;
+                case DAY:
+                    position = appendNumber(EpochDays.day(packed), minDigits[i], out, position);
+                    break;
+                case MONTH:
+                    position = appendNumber(EpochDays.month(packed), minDigits[i], out, position);
+                    break;
+                case REDUCED_YEAR:
+                    position = appendNumber(year % 100, 2, out, position);
+                    break;
+                default:
+                    position = appendNumber(year, minDigits[i], out, position);
+            }
+        }
+        return position;
+    }
+
+    private static int append(String text, char[] out, int position) {
+        text.getChars(0, text.length(), out, position);
+        return position + text.length();
+    }
+
+    private static int digits(int value) {
+        return value < 10 ? 1 : value < 100 ? 2 : value < 1000 ? 3 : 4;
+    }
+
+    /* Escreve um valor de 0 a 9999 com pelo menos minDigits dígitos (zeros à esquerda). */
+    private static int appendNumber(int value, int minDigits, char[] out, int position) {
+        int width = Math.max(minDigits, digits(value));
+        for (int i = position + width - 1; i >= position; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + width;
+    }
+
+    private long parse(char[] chars, int position, int end) {
+        int year = -1;
+        int month = -1;
+        int day = -1;
+        int dayOfWeek = -1;
+        for (int i = 0; i < kinds.length; i++) {
+            int kind = kinds[i];
+            if (kind == LITERAL) {
+                String literal = texts[i][0];
+                if (!matches(literal, chars, position, end)) {
+                    return NOT_PARSED;
+                }
+                position += literal.length();
+            } else if (kind == DAY_OF_WEEK_TEXT || kind == MONTH_TEXT) {
+                int match = longestMatch(texts[i], chars, position, end);
+                if (match < 0) {
+                    return NOT_PARSED;
+                }
+                position += texts[i][match].length();
+                if (kind == DAY_OF_WEEK_TEXT) {
+                    dayOfWeek = match + 1;
+                } else {
+                    month = match + 1;
+                }
+            } else {
+                int value = 0;
+                int digits = 0;
+                while (digits < maxDigits[i] && position < end && chars[position] >= '0' && chars[position] <= '9') {
+                    value = value * 10 + chars[position++] - '0';
+                    digits++;
+                }
+                if (digits < minDigits[i]) {
+                    return NOT_PARSED;
+                }
+                if (kind == DAY) {
+                    day = value;
+                } else if (kind == MONTH) {
+                    month = value;
+                } else {
+                    year = kind == REDUCED_YEAR ? 2000 + value : value;
+                }
+            }
+        }
+        if (position != end || year < 1 || month < 1 || month > 12 || day < 1
+                || day > EpochDays.lengthOfMonth(year, month)) {
+            return NOT_PARSED;
+        }
+        long epochDay = EpochDays.toEpochDay(year, month, day);
+        if (dayOfWeek > 0 && dayOfWeek != EpochDays.dayOfWeek(epochDay)) {
+            return NOT_PARSED;
+        }
+        return epochDay;
+    }
+
+    private static boolean matches(String text, char[] chars, int position, int end) {
+        if (end - position < text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (chars[position + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int longestMatch(String[] names, char[] chars, int position, int end) {
+        int best = -1;
+        for (int i = 0; i < names.length; i++) {
+            if (matches(names[i], chars, position, end) && (best < 0 || names[i].length() > names[best].length())) {
+                best = i;
+            }
+        }
+        return best;
+    }
+}
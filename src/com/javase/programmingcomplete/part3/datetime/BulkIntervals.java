@@ -0,0 +1,221 @@
+package com.javase.programmingcomplete.part3.datetime;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.stream.IntStream;
+
+public final class BulkIntervals {
+
+    /*
+    Duration e Period em lote, sobre colunas de long em vez de objetos.
+    O P2PrimitiveWrappers.instantDurationPeriods() calcula Period.between(foolsDay, today) e Duration.ofHours(2)
+    .minusMinutes(15): cada passo cria um objeto imutável novo. Para bilhões de pares (início, fim) de eventos isso é
+    bilhões de Instants, LocalDates, Durations e Periods. Aqui a entrada são colunas de epoch nanos (nanos desde
+    1970-01-01T00:00Z, o que cabe em um long até o ano 2262) ou de epoch days (LocalDate.toEpochDay()), e o resultado é
+    escrito em arrays de primitivos.
+
+    Os resultados são os mesmos do JDK:
+    - durations: Duration.between(início, fim).toNanos(), com ArithmeticException se não couber em um long;
+    - durations em segundos + nanos: Duration.between(início, fim).getSeconds() e getNano() (o nano sempre de 0 a
+      999_999_999, então -1,5s vira -2s + 500_000_000ns);
+    - periods: Period.between(início, fim), com as mesmas regras de calendário: conta os meses inteiros e o resto em
+      dias, e se o dia do mês do fim é menor que o do início, o último mês não está completo (31/01 até 28/02 é 28 dias,
+      não 1 mês). Datas fora de +-2,7 milhões de anos vão para o LocalDate, que valida o intervalo.
+
+    E as operações que dependem do fuso, porque um dia no calendário não é sempre 24 horas:
+    - dayLengths: quantos nanos tem cada data no zone, Duration.between(d.atStartOfDay(zone),
+      d.plusDays(1).atStartOfDay(zone)). Em São Paulo, 2018-11-04 começou o horário de verão e o dia teve 23 horas;
+    - localEpochDays: a data local de cada instante no zone, para calcular Period entre instantes no calendário
+      de quem vai receber a fatura (Period.between(início.atZone(zone).toLocalDate(), ...)).
+    As duas usam o ZoneOffsetTable, então não criam ZonedDateTime.
+
+    Colunas com mais de PARALLEL_THRESHOLD linhas são divididas em blocos de CHUNK linhas e processadas em paralelo no
+    ForkJoinPool comum, como no BatchDateFormatter. Cada bloco escreve só o seu trecho dos arrays de saída.
+     */
+
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int CHUNK = 1 << 14;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    /* Até onde o EpochDays é exato (ele cobre +-4 milhões de anos), com folga. */
+    private static final long MAX_FAST_EPOCH_DAY = 1_000_000_000L;
+
+    private BulkIntervals() {
+    }
+
+    /* out[i] = Duration.between(start[i], end[i]).toNanos(), para i em [from, to). */
+    public static void durations(long[] startNanos, long[] endNanos, long[] outNanos, int from, int to) {
+        checkRange(from, to, startNanos.length, endNanos.length, outNanos.length);
+        forEachRange(from, to, (start, end) -> {
+            // Sem branch dentro do laço: o overflow é acumulado e, se aconteceu, o bloco é refeito para achar a linha.
+            long overflow = 0;
+            for (int i = start; i < end; i++) {
+                long a = startNanos[i];
+                long b = endNanos[i];
+                long difference = b - a;
+                overflow |= (b ^ a) & (b ^ difference);
+                outNanos[i] = difference;
+            }
+            if (overflow < 0) {
+                for (int i = start; i < end; i++) {
+                    outNanos[i] = Math.subtractExact(endNanos[i], startNanos[i]);
+                }
+            }
+        });
+    }
+
+    /*
+    outSeconds[i] e outNanos[i] = getSeconds() e getNano() de Duration.between(start[i], end[i]). Não tem overflow, então
+    serve para intervalos maiores que 292 anos.
+     */
+    public static void durations(long[] startNanos, long[] endNanos, long[] outSeconds, int[] outNanos,
+                                 int from, int to) {
+        checkRange(from, to, startNanos.length, endNanos.length, outSeconds.length, outNanos.length);
+        forEachRange(from, to, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                long a = startNanos[i];
+                long b = endNanos[i];
+                long seconds = Math.floorDiv(b, NANOS_PER_SECOND) - Math.floorDiv(a, NANOS_PER_SECOND);
+                long nanos = Math.floorMod(b, NANOS_PER_SECOND) - Math.floorMod(a, NANOS_PER_SECOND);
+                if (nanos < 0) {
+                    nanos += NANOS_PER_SECOND;
+                    seconds--;
+                }
+                outSeconds[i] = seconds;
+                outNanos[i] = (int) nanos;
+            }
+        });
+    }
+
+    /* Period.between(LocalDate.ofEpochDay(start[i]), LocalDate.ofEpochDay(end[i])) em anos, meses e dias. */
+    public static void periods(long[] startDays, long[] endDays, int[] outYears, int[] outMonths, int[] outDays,
+                               int from, int to) {
+        checkRange(from, to, startDays.length, endDays.length, outYears.length, outMonths.length, outDays.length);
+        forEachRange(from, to, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                long startDay = startDays[i];
+                long endDay = endDays[i];
+                if (Math.abs(startDay) > MAX_FAST_EPOCH_DAY || Math.abs(endDay) > MAX_FAST_EPOCH_DAY) {
+                    Period period = Period.between(LocalDate.ofEpochDay(startDay), LocalDate.ofEpochDay(endDay));
+                    outYears[i] = period.getYears();
+                    outMonths[i] = period.getMonths();
+                    outDays[i] = period.getDays();
+                    continue;
+                }
+                int startDate = packed(startDay);
+                int endDate = packed(endDay);
+                int startYear = EpochDays.year(startDate);
+                int startMonth = EpochDays.month(startDate);
+                int startDayOfMonth = EpochDays.day(startDate);
+                int endYear = EpochDays.year(endDate);
+                int endMonth = EpochDays.month(endDate);
+
+                // Mesmo algoritmo do LocalDate.until(ChronoLocalDate).
+                long totalMonths = (endYear * 12L + endMonth) - (startYear * 12L + startMonth);
+                int days = EpochDays.day(endDate) - startDayOfMonth;
+                if (totalMonths > 0 && days < 0) {
+                    totalMonths--;
+                    // O LocalDate faz start.plusMonths(totalMonths), que cai no mês anterior ao do fim, com o dia
+                    // limitado ao tamanho desse mês. Os dias são o que falta desse dia até o fim.
+                    int previousLength = endMonth == 1 ? 31 : EpochDays.lengthOfMonth(endYear, endMonth - 1);
+                    days = EpochDays.day(endDate) + previousLength - Math.min(startDayOfMonth, previousLength);
+                } else if (totalMonths < 0 && days > 0) {
+                    totalMonths++;
+                    days -= EpochDays.lengthOfMonth(endYear, endMonth);
+                }
+                outYears[i] = (int) (totalMonths / 12);
+                outMonths[i] = (int) (totalMonths % 12);
+                outDays[i] = days;
+            }
+        });
+    }
+
+    /* Ano, mês e dia empacotados (EpochDays.pack), pela tabela quando a data está entre 1900 e 2199. */
+    private static int packed(long epochDay) {
+        long index = epochDay - PackedDates.FIRST_EPOCH_DAY;
+        return index >= 0 && index < PackedDates.TABLE.length
+                ? PackedDates.TABLE[(int) index]
+                : EpochDays.toPacked(epochDay);
+    }
+
+    /*
+    Os dias de 1900 a 2199 já convertidos: 110 mil ints (430 KB), que ficam no cache em lotes de datas próximas. O
+    EpochDays.toPacked faz várias divisões por data, e o Period precisa converter duas.
+     */
+    private static final class PackedDates {
+        static final long FIRST_EPOCH_DAY = EpochDays.toEpochDay(1900, 1, 1);
+        static final int[] TABLE = new int[(int) (EpochDays.toEpochDay(2200, 1, 1) - FIRST_EPOCH_DAY)];
+
+        static {
+            for (int i = 0; i < TABLE.length; i++) {
+                TABLE[i] = EpochDays.toPacked(FIRST_EPOCH_DAY + i);
+            }
+        }
+    }
+
+    /* Nanos que cada data tem no zone: 24h, ou 23h/25h (ou outro valor) em dias de transição. */
+    public static void dayLengths(long[] epochDays, ZoneOffsetTable zone, long[] outNanos, int from, int to) {
+        checkRange(from, to, epochDays.length, outNanos.length);
+        forEachRange(from, to, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                long midnight = epochDays[i] * MILLIS_PER_DAY;
+                long length = zone.toEpochMillis(midnight + MILLIS_PER_DAY) - zone.toEpochMillis(midnight);
+                outNanos[i] = length * NANOS_PER_MILLI;
+            }
+        });
+    }
+
+    /* Epoch day da data local de cada instante no zone (instant.atZone(zone).toLocalDate().toEpochDay()). */
+    public static void localEpochDays(long[] epochNanos, ZoneOffsetTable zone, long[] outEpochDays, int from, int to) {
+        checkRange(from, to, epochNanos.length, outEpochDays.length);
+        forEachRange(from, to, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                // As transições caem em segundos inteiros, então os millis bastam para achar o offset.
+                long millis = Math.floorDiv(epochNanos[i], NANOS_PER_MILLI);
+                outEpochDays[i] = Math.floorDiv(zone.toLocalMillis(millis), MILLIS_PER_DAY);
+            }
+        });
+    }
+
+    /* Epoch nanos de um Instant, com ArithmeticException fora de 1677..2262. */
+    public static long toEpochNanos(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+    }
+
+    public static Instant toInstant(long epochNanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                Math.floorMod(epochNanos, NANOS_PER_SECOND));
+    }
+
+    private static void checkRange(int from, int to, int... lengths) {
+        if (from < 0 || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ")");
+        }
+        for (int length : lengths) {
+            if (to > length) {
+                throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length "
+                        + length);
+            }
+        }
+    }
+
+    private interface RangeTask {
+        void run(int start, int end);
+    }
+
+    private static void forEachRange(int from, int to, RangeTask task) {
+        int rows = to - from;
+        if (rows <= PARALLEL_THRESHOLD) {
+            task.run(from, to);
+            return;
+        }
+        int chunks = (rows + CHUNK - 1) / CHUNK;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int start = from + chunk * CHUNK;
+            task.run(start, Math.min(to, start + CHUNK));
+        });
+    }
+}
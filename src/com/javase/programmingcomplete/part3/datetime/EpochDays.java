@@ -0,0 +1,83 @@
+package com.javase.programmingcomplete.part3.datetime;
+
+public final class EpochDays {
+
+    /*
+    Conversão entre epoch day (dias desde 1970-01-01, o mesmo valor de LocalDate.toEpochDay()) e ano/mês/dia no
+    calendário ISO, sem criar um LocalDate.
+
+    Ano, mês e dia são devolvidos juntos em um único int: (ano << 9) | (mês << 5) | dia. O ano usa o deslocamento
+    aritmético, então anos negativos também funcionam. Cobre anos de -4_000_000 até 4_000_000, bem mais que o
+    necessário para datas de negócio.
+
+    Algoritmo de Howard Hinnant (days_from_civil / civil_from_days), que trabalha com eras de 400 anos começando em março
+    para que o dia 29 de fevereiro fique no fim do "ano".
+     */
+
+    private static final long DAYS_0000_TO_1970 = 719_468L;
+    private static final long DAYS_PER_ERA = 146_097L;
+
+    private EpochDays() {
+    }
+
+    public static int toPacked(long epochDay) {
+        long z = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(z, DAYS_PER_ERA);
+        long dayOfEra = z - era * DAYS_PER_ERA;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long marchMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * marchMonth + 2) / 5 + 1);
+        int month = (int) (marchMonth < 10 ? marchMonth + 3 : marchMonth - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        return pack(year, month, day);
+    }
+
+    public static long toEpochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    public static int pack(int year, int month, int day) {
+        return (year << 9) | (month << 5) | day;
+    }
+
+    public static int year(int packed) {
+        return packed >> 9;
+    }
+
+    public static int month(int packed) {
+        return (packed >> 5) & 0xF;
+    }
+
+    public static int day(int packed) {
+        return packed & 0x1F;
+    }
+
+    /* 1 = segunda ... 7 = domingo, igual ao DayOfWeek.getValue(). 1970-01-01 foi uma quinta-feira. */
+    public static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L) + 1;
+    }
+
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    public static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
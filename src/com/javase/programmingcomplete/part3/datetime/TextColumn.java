@@ -0,0 +1,103 @@
+package com.javase.programmingcomplete.part3.datetime;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+public final class TextColumn {
+
+    /*
+    Uma coluna de textos guardada em um único char[]: o texto da linha i fica entre offsets[i] e offsets[i + 1].
+    Evita criar uma String por linha. A coluna é mutável e pode ser reusada entre lotes (os arrays só crescem), então
+    para colunas maiores que Integer.MAX_VALUE caracteres formate em blocos reusando a mesma instância.
+     */
+
+    private char[] chars;
+    private int[] offsets;
+    private int size;
+
+    public TextColumn() {
+        this(16, 256);
+    }
+
+    public TextColumn(int rows, int chars) {
+        this.chars = new char[chars];
+        this.offsets = new int[rows + 1];
+    }
+
+    public static TextColumn of(CharSequence... texts) {
+        int total = 0;
+        for (CharSequence text : texts) {
+            total += text.length();
+        }
+        TextColumn column = new TextColumn(texts.length, total);
+        column.reset(texts.length, total);
+        int position = 0;
+        for (int i = 0; i < texts.length; i++) {
+            CharSequence text = texts[i];
+            column.offsets[i] = position;
+            for (int j = 0; j < text.length(); j++) {
+                column.chars[position++] = text.charAt(j);
+            }
+        }
+        column.offsets[texts.length] = position;
+        return column;
+    }
+
+    /* Prepara a coluna para "rows" linhas com "totalChars" caracteres no total, reaproveitando os arrays se couber. */
+    void reset(int rows, int totalChars) {
+        if (offsets.length < rows + 1) {
+            offsets = new int[rows + 1];
+        }
+        if (chars.length < totalChars) {
+            chars = new char[totalChars];
+        }
+        size = rows;
+    }
+
+    int[] offsets() {
+        return offsets;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /* O array compartilhado. Os textos ficam entre start(i) e end(i). */
+    public char[] chars() {
+        return chars;
+    }
+
+    public int start(int row) {
+        return offsets[row];
+    }
+
+    public int end(int row) {
+        return offsets[row + 1];
+    }
+
+    public int length(int row) {
+        return offsets[row + 1] - offsets[row];
+    }
+
+    /* Visão da linha sem copiar os caracteres. */
+    public CharBuffer buffer(int row) {
+        return CharBuffer.wrap(chars, offsets[row], length(row));
+    }
+
+    public String get(int row) {
+        return new String(chars, offsets[row], length(row));
+    }
+
+    public String[] toStrings() {
+        String[] texts = new String[size];
+        for (int i = 0; i < size; i++) {
+            texts[i] = get(i);
+        }
+        return texts;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toStrings());
+    }
+}
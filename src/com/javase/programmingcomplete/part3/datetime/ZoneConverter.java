@@ -0,0 +1,70 @@
+package com.javase.programmingcomplete.part3.datetime;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+public final class ZoneConverter {
+
+    /*
+    Conversão de horários entre dois ZoneIds, equivalente a
+        ZonedDateTime.of(someTime, london).withZoneSameInstant(la)
+    do P3ZonedDateTime.zonedDateTime(), mas sem criar objetos: recebe e devolve long (local millis ou epoch millis, ver
+    ZoneOffsetTable) usando as tabelas de transição pré-calculadas dos dois zones.
+
+    Pensado para pipelines que convertem muitos horários entre um conjunto pequeno e fixo de zones: crie um converter
+    por par e reuse. Ele é imutável e pode ser compartilhado entre threads.
+     */
+
+    public static final int DEFAULT_FROM_YEAR = 1970;
+    public static final int DEFAULT_TO_YEAR = 2100;
+
+    private final ZoneOffsetTable source;
+    private final ZoneOffsetTable target;
+
+    private ZoneConverter(ZoneOffsetTable source, ZoneOffsetTable target) {
+        this.source = source;
+        this.target = target;
+    }
+
+    public static ZoneConverter of(ZoneId source, ZoneId target) {
+        return of(source, target, DEFAULT_FROM_YEAR, DEFAULT_TO_YEAR);
+    }
+
+    public static ZoneConverter of(ZoneId source, ZoneId target, int fromYear, int toYear) {
+        return new ZoneConverter(ZoneOffsetTable.of(source, fromYear, toYear), ZoneOffsetTable.of(target, fromYear, toYear));
+    }
+
+    public ZoneId source() {
+        return source.zone();
+    }
+
+    public ZoneId target() {
+        return target.zone();
+    }
+
+    /* Horário local do zone de origem -> instante (epoch millis). */
+    public long toEpochMillis(long sourceLocalMillis) {
+        return source.toEpochMillis(sourceLocalMillis);
+    }
+
+    /* Instante (epoch millis) -> horário local do zone de destino. */
+    public long toTargetLocalMillis(long epochMillis) {
+        return target.toLocalMillis(epochMillis);
+    }
+
+    /* Horário local na origem -> horário local no destino, no mesmo instante. */
+    public long convert(long sourceLocalMillis) {
+        return target.toLocalMillis(source.toEpochMillis(sourceLocalMillis));
+    }
+
+    public long convert(LocalDateTime sourceTime) {
+        return convert(ZoneOffsetTable.localMillis(sourceTime));
+    }
+
+    /* Versão em lote: converte values[from, to) para out[from, to). out pode ser o próprio values. */
+    public void convert(long[] values, long[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = convert(values[i]);
+        }
+    }
+}
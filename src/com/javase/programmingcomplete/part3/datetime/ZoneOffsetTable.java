@@ -0,0 +1,141 @@
+package com.javase.programmingcomplete.part3.datetime;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+public final class ZoneOffsetTable {
+
+    /*
+    Tabela de transições de offset de um ZoneId, pré-calculada para um intervalo de anos.
+    O ZoneRules procura a transição certa a cada chamada e o ZonedDateTime cria vários objetos no caminho. Aqui as
+    transições do intervalo viram arrays de long/int e a busca é uma busca binária sobre millis.
+
+    Tudo trabalha com "local millis": os millis de um LocalDateTime contados a partir de 1970-01-01T00:00 como se fosse
+    UTC (ou seja, ldt.toEpochSecond(ZoneOffset.UTC) * 1000 + millis). Frações menores que milissegundo são descartadas.
+
+    Para converter um horário local em instante, as regras são as mesmas do ZonedDateTime.of(ldt, zone):
+    - gap (horário de verão começando, o relógio pula de 01:00 para 02:00): o horário que não existe é empurrado para
+      frente pelo tamanho do gap, ou seja, o instante é calculado com o offset de antes da transição;
+    - overlap (horário de verão terminando, 01:00 até 02:00 acontece duas vezes): usa o offset mais cedo, que também é o
+      de antes da transição.
+    Fora do intervalo de anos da tabela, delega para o ZoneRules.
+     */
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private final long minMillis;
+    private final long maxMillis;
+    /* Instante (epoch millis) de cada transição. */
+    private final long[] transitions;
+    /*
+    Horário local a partir do qual vale o offset depois da transição: instante + o maior dos dois offsets. Antes disso,
+    gap e overlap usam o offset anterior.
+     */
+    private final long[] localBoundaries;
+    /* offsets[0] é o offset antes da primeira transição, offsets[i + 1] é o offset depois da transição i (em millis). */
+    private final long[] offsets;
+
+    private ZoneOffsetTable(ZoneId zone, int fromYear, int toYear) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        this.minMillis = LocalDateTime.of(fromYear, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC) * 1000;
+        this.maxMillis = LocalDateTime.of(toYear + 1, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC) * 1000;
+
+        // A tabela cobre um dia a mais em cada ponta, assim horários locais perto do limite (até +-18h) ainda são exatos.
+        Instant start = Instant.ofEpochMilli(minMillis - MILLIS_PER_DAY);
+        Instant end = Instant.ofEpochMilli(maxMillis + MILLIS_PER_DAY);
+        long[] instants = new long[16];
+        long[] boundaries = new long[16];
+        long[] offsetMillis = new long[17];
+        offsetMillis[0] = rules.getOffset(start).getTotalSeconds() * 1000L;
+        int count = 0;
+        ZoneOffsetTransition transition = rules.nextTransition(start);
+        while (transition != null && transition.getInstant().isBefore(end)) {
+            if (count == instants.length) {
+                instants = Arrays.copyOf(instants, count * 2);
+                boundaries = Arrays.copyOf(boundaries, count * 2);
+                offsetMillis = Arrays.copyOf(offsetMillis, count * 2 + 1);
+            }
+            long instant = transition.getInstant().toEpochMilli();
+            long before = transition.getOffsetBefore().getTotalSeconds() * 1000L;
+            long after = transition.getOffsetAfter().getTotalSeconds() * 1000L;
+            instants[count] = instant;
+            boundaries[count] = instant + Math.max(before, after);
+            offsetMillis[count + 1] = after;
+            count++;
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        this.transitions = Arrays.copyOf(instants, count);
+        this.localBoundaries = Arrays.copyOf(boundaries, count);
+        this.offsets = Arrays.copyOf(offsetMillis, count + 1);
+    }
+
+    public static ZoneOffsetTable of(ZoneId zone, int fromYear, int toYear) {
+        if (fromYear > toYear) {
+            throw new IllegalArgumentException("fromYear " + fromYear + " is after toYear " + toYear);
+        }
+        return new ZoneOffsetTable(zone, fromYear, toYear);
+    }
+
+    public ZoneId zone() {
+        return zone;
+    }
+
+    public int transitionCount() {
+        return transitions.length;
+    }
+
+    /* Offset (em millis) válido no instante informado. */
+    public long offsetAtInstant(long epochMillis) {
+        if (epochMillis < minMillis || epochMillis >= maxMillis) {
+            return rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds() * 1000L;
+        }
+        return offsets[upperBound(transitions, epochMillis)];
+    }
+
+    /* Instante para o horário local informado, com as regras de gap e overlap do ZonedDateTime.of. */
+    public long toEpochMillis(long localMillis) {
+        if (localMillis < minMillis || localMillis >= maxMillis) {
+            return ZonedDateTime.of(toLocalDateTime(localMillis), zone).toInstant().toEpochMilli();
+        }
+        return localMillis - offsets[upperBound(localBoundaries, localMillis)];
+    }
+
+    /* Horário local (local millis) no instante informado. */
+    public long toLocalMillis(long epochMillis) {
+        return epochMillis + offsetAtInstant(epochMillis);
+    }
+
+    /* Quantidade de elementos <= key. Como offsets[0] é o offset antes da primeira transição, isso já é o índice. */
+    private static int upperBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public static long localMillis(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1000 + dateTime.getNano() / 1_000_000;
+    }
+
+    public static LocalDateTime toLocalDateTime(long localMillis) {
+        long seconds = Math.floorDiv(localMillis, 1000L);
+        int nanos = (int) Math.floorMod(localMillis, 1000L) * 1_000_000;
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,307 @@
+package com.javase.programmingcomplete.part3.decimal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+public final class FixedDecimal implements Comparable<FixedDecimal> {
+
+    /*
+    Decimal de ponto fixo mutável, guardado em um long (unscaled) e um scale, como o BigDecimal: o valor é
+    unscaled * 10^-scale. Então 2.99 é (299, 2).
+
+    O P2PrimitiveWrappers explica que o BigDecimal é imutável e que cada add/multiply/setScale cria uma nova instância.
+    Em uma cadeia como price.multiply(quantity).multiply(tax).setScale(2, HALF_UP) isso são vários objetos (e os
+    BigIntegers de dentro) por linha. Aqui as operações alteram a própria instância e devolvem this, então dá para usar o
+    mesmo method chaining sem criar nada.
+
+    As regras seguem o BigDecimal:
+    - add/subtract: o scale do resultado é o maior dos dois scales;
+    - multiply: o scale do resultado é a soma dos scales;
+    - setScale(scale, RoundingMode): mesmos arredondamentos do BigDecimal.setScale, inclusive UNNECESSARY lançando
+      ArithmeticException("Rounding necessary").
+    O scale vai de 0 a 18. Se o resultado não couber em um long (ou o scale passar de 18), lança ArithmeticException ao
+    invés de dar um valor errado, igual ao Math.addExact/multiplyExact.
+     */
+
+    public static final int MAX_SCALE = 18;
+
+    static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private long unscaled;
+    private int scale;
+
+    public FixedDecimal() {
+    }
+
+    public FixedDecimal(long unscaled, int scale) {
+        set(unscaled, scale);
+    }
+
+    public static FixedDecimal of(long unscaled, int scale) {
+        return new FixedDecimal(unscaled, scale);
+    }
+
+    /* Mesmo valor e scale do BigDecimal. Lança ArithmeticException se não couber. */
+    public static FixedDecimal valueOf(BigDecimal value) {
+        return new FixedDecimal().set(value);
+    }
+
+    public FixedDecimal set(long unscaled, int scale) {
+        this.unscaled = unscaled;
+        this.scale = checkScale(scale);
+        return this;
+    }
+
+    public FixedDecimal set(FixedDecimal other) {
+        this.unscaled = other.unscaled;
+        this.scale = other.scale;
+        return this;
+    }
+
+    public FixedDecimal set(BigDecimal value) {
+        if (value.scale() < 0) {
+            value = value.setScale(0, RoundingMode.UNNECESSARY);
+        }
+        return set(value.unscaledValue().longValueExact(), value.scale());
+    }
+
+    public long unscaledValue() {
+        return unscaled;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    public int signum() {
+        return Long.signum(unscaled);
+    }
+
+    public FixedDecimal add(FixedDecimal other) {
+        return add(other.unscaled, other.scale);
+    }
+
+    public FixedDecimal add(long otherUnscaled, int otherScale) {
+        checkScale(otherScale);
+        int resultScale = Math.max(scale, otherScale);
+        try {
+            unscaled = Math.addExact(upscale(unscaled, resultScale - scale), upscale(otherUnscaled, resultScale - otherScale));
+        } catch (ArithmeticException overflow) {
+            // Um dos lados pode estourar ao ajustar o scale mesmo que o resultado caiba; o BigDecimal decide.
+            return set(toBigDecimal().add(BigDecimal.valueOf(otherUnscaled, otherScale)));
+        }
+        scale = resultScale;
+        return this;
+    }
+
+    public FixedDecimal subtract(FixedDecimal other) {
+        return subtract(other.unscaled, other.scale);
+    }
+
+    public FixedDecimal subtract(long otherUnscaled, int otherScale) {
+        checkScale(otherScale);
+        int resultScale = Math.max(scale, otherScale);
+        try {
+            unscaled = Math.subtractExact(upscale(unscaled, resultScale - scale), upscale(otherUnscaled, resultScale - otherScale));
+        } catch (ArithmeticException overflow) {
+            // Um dos lados pode estourar ao ajustar o scale mesmo que o resultado caiba; o BigDecimal decide.
+            return set(toBigDecimal().subtract(BigDecimal.valueOf(otherUnscaled, otherScale)));
+        }
+        scale = resultScale;
+        return this;
+    }
+
+    public FixedDecimal multiply(FixedDecimal other) {
+        return multiply(other.unscaled, other.scale);
+    }
+
+    public FixedDecimal multiply(long otherUnscaled, int otherScale) {
+        int resultScale = checkScale(scale + checkScale(otherScale));
+        unscaled = Math.multiplyExact(unscaled, otherUnscaled);
+        scale = resultScale;
+        return this;
+    }
+
+    /* Multiplicação por um inteiro (quantidade), o scale não muda. */
+    public FixedDecimal multiply(long factor) {
+        unscaled = Math.multiplyExact(unscaled, factor);
+        return this;
+    }
+
+    /*
+    Multiplica e arredonda para o scale informado em um passo, igual a a.multiply(b).setScale(scale, roundingMode).
+    O produto intermediário pode não caber em um long mesmo que o resultado arredondado caiba; nesse caso (raro) a conta
+    é feita com BigDecimal.
+     */
+    public FixedDecimal multiply(FixedDecimal other, int resultScale, RoundingMode roundingMode) {
+        checkScale(resultScale);
+        if (fitsProduct(unscaled, other.unscaled)) {
+            unscaled = rescale(unscaled * other.unscaled, scale + other.scale, resultScale, roundingMode);
+        } else {
+            set(toBigDecimal().multiply(other.toBigDecimal()).setScale(resultScale, roundingMode));
+        }
+        scale = resultScale;
+        return this;
+    }
+
+    /* Divide e arredonda para o scale informado, igual ao BigDecimal.divide(divisor, scale, roundingMode). */
+    public FixedDecimal divide(FixedDecimal divisor, int resultScale, RoundingMode roundingMode) {
+        checkScale(resultScale);
+        if (divisor.unscaled == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        // this / divisor com o resultado no scale pedido: (a * 10^(resultScale - sa + sb)) / b
+        int shift = resultScale - scale + divisor.scale;
+        long numerator = unscaled;
+        long denominator = divisor.unscaled;
+        boolean fits;
+        if (shift >= 0) {
+            fits = shift <= MAX_SCALE && fitsProduct(numerator, POWERS_OF_TEN[shift]);
+            numerator *= fits ? POWERS_OF_TEN[shift] : 1;
+        } else {
+            fits = -shift <= MAX_SCALE && fitsProduct(denominator, POWERS_OF_TEN[-shift]);
+            denominator *= fits ? POWERS_OF_TEN[-shift] : 1;
+        }
+        if (fits && !(numerator == Long.MIN_VALUE && denominator == -1)) {
+            unscaled = divideRounded(numerator, denominator, roundingMode);
+        } else {
+            set(toBigDecimal().divide(divisor.toBigDecimal(), resultScale, roundingMode));
+        }
+        scale = resultScale;
+        return this;
+    }
+
+    public FixedDecimal negate() {
+        unscaled = Math.negateExact(unscaled);
+        return this;
+    }
+
+    public FixedDecimal setScale(int newScale, RoundingMode roundingMode) {
+        unscaled = rescale(unscaled, scale, checkScale(newScale), roundingMode);
+        scale = newScale;
+        return this;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    public double doubleValue() {
+        return (double) unscaled / POWERS_OF_TEN[scale];
+    }
+
+    /* Compara o valor numérico, como o BigDecimal.compareTo (2.0 e 2.00 são iguais). */
+    @Override
+    public int compareTo(FixedDecimal other) {
+        if (scale == other.scale) {
+            return Long.compare(unscaled, other.unscaled);
+        }
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    /* Como no BigDecimal.equals, o scale também precisa ser igual (2.0 não é igual a 2.00). */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FixedDecimal)) {
+            return false;
+        }
+        FixedDecimal other = (FixedDecimal) o;
+        return unscaled == other.unscaled && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(unscaled) + scale;
+    }
+
+    /* Mesmo texto do BigDecimal.toPlainString(). */
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    static int checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new ArithmeticException("Scale " + scale + " out of range 0.." + MAX_SCALE);
+        }
+        return scale;
+    }
+
+    /* true se a * b cabe em um long (a parte alta do produto de 128 bits é só o sinal). */
+    static boolean fitsProduct(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        return (high == 0 && low >= 0) || (high == -1 && low < 0);
+    }
+
+    static long upscale(long unscaled, int digits) {
+        return digits == 0 ? unscaled : Math.multiplyExact(unscaled, POWERS_OF_TEN[digits]);
+    }
+
+    /* Muda o scale de um valor unscaled, arredondando como o BigDecimal.setScale quando o scale diminui. */
+    static long rescale(long unscaled, int fromScale, int toScale, RoundingMode roundingMode) {
+        if (toScale >= fromScale) {
+            return upscale(unscaled, toScale - fromScale);
+        }
+        int digits = fromScale - toScale;
+        if (digits > MAX_SCALE) {
+            // Dividir por mais de 10^18 sempre dá zero mais o arredondamento, que o BigInteger resolve.
+            return new BigDecimal(BigInteger.valueOf(unscaled), fromScale).setScale(toScale, roundingMode)
+                    .unscaledValue().longValueExact();
+        }
+        return divideRounded(unscaled, POWERS_OF_TEN[digits], roundingMode);
+    }
+
+    /* dividend / divisor arredondado com as regras do RoundingMode. */
+    static long divideRounded(long dividend, long divisor, RoundingMode roundingMode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        // compara |resto| com |divisor| - |resto|: < 0 abaixo da metade, 0 exatamente na metade. A comparação sem sinal
+        // trata |Long.MIN_VALUE| como 2^63.
+        long absRemainder = Math.abs(remainder);
+        long absDivisor = Math.abs(divisor);
+        int half = Long.compareUnsigned(absRemainder, absDivisor - absRemainder);
+        boolean increment;
+        switch (roundingMode) {
+            case UP:
+                increment = true;
+                break;
+            case DOWN:
+                increment = false;
+                break;
+            case CEILING:
+                increment = sign > 0;
+                break;
+            case FLOOR:
+                increment = sign < 0;
+                break;
+            case HALF_UP:
+                increment = half >= 0;
+                break;
+            case HALF_DOWN:
+                increment = half > 0;
+                break;
+            case HALF_EVEN:
+                increment = half > 0 || (half == 0 && (quotient & 1) != 0);
+                break;
+            default:
+                throw new ArithmeticException("Rounding necessary");
+        }
+        return increment ? quotient + sign : quotient;
+    }
+}
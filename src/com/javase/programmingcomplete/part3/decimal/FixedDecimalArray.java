@@ -0,0 +1,128 @@
+package com.javase.programmingcomplete.part3.decimal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+public final class FixedDecimalArray {
+
+    /*
+    Array de decimais de ponto fixo com o mesmo scale, guardado em um único long[] de valores unscaled. Um milhão de
+    preços são 8 MB contíguos, ao invés de um milhão de BigDecimals (cada um com o seu BigInteger ou long compacto,
+    cabeçalho de objeto e referência no array).
+
+    O cálculo em lote mais comum, preço x quantidade x fator de imposto, é feito em um único passo por linha e
+    arredondado uma vez no fim, com o mesmo resultado de
+        price.multiply(BigDecimal.valueOf(quantity)).multiply(tax).setScale(scale, roundingMode)
+    Se o produto intermediário de alguma linha não couber em um long, só essa linha é calculada com BigDecimal.
+     */
+
+    private final long[] values;
+    private final int scale;
+
+    public FixedDecimalArray(int size, int scale) {
+        this.values = new long[size];
+        this.scale = FixedDecimal.checkScale(scale);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    /* O long[] de valores unscaled, para leitura ou escrita direta. */
+    public long[] unscaledValues() {
+        return values;
+    }
+
+    public long getUnscaled(int index) {
+        return values[index];
+    }
+
+    public void setUnscaled(int index, long unscaled) {
+        values[index] = unscaled;
+    }
+
+    /* Copia o valor da posição para "target" e devolve o próprio target (sem criar objeto). */
+    public FixedDecimal get(int index, FixedDecimal target) {
+        return target.set(values[index], scale);
+    }
+
+    /* Guarda o valor no scale do array. Lança ArithmeticException se precisar arredondar. */
+    public void set(int index, FixedDecimal value) {
+        values[index] = FixedDecimal.rescale(value.unscaledValue(), value.scale(), scale, RoundingMode.UNNECESSARY);
+    }
+
+    public void set(int index, BigDecimal value) {
+        values[index] = value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public void fill(FixedDecimal value) {
+        Arrays.fill(values, FixedDecimal.rescale(value.unscaledValue(), value.scale(), scale, RoundingMode.UNNECESSARY));
+    }
+
+    public BigDecimal toBigDecimal(int index) {
+        return BigDecimal.valueOf(values[index], scale);
+    }
+
+    /* out[i] = prices[i] * quantities[i] * taxes[i], arredondado para o scale de out. */
+    public static void multiply(FixedDecimalArray prices, long[] quantities, FixedDecimalArray taxes,
+                                FixedDecimalArray out, RoundingMode roundingMode) {
+        int size = checkSizes(prices, quantities.length, out);
+        if (taxes.size() != size) {
+            throw new IllegalArgumentException("Expected " + size + " taxes but got " + taxes.size());
+        }
+        int productScale = prices.scale + taxes.scale;
+        for (int i = 0; i < size; i++) {
+            out.values[i] = lineTotal(prices.values[i], quantities[i], taxes.values[i], productScale, out.scale,
+                    roundingMode, prices.scale, taxes.scale);
+        }
+    }
+
+    /* out[i] = prices[i] * quantities[i] * tax, com o mesmo fator de imposto para todas as linhas. */
+    public static void multiply(FixedDecimalArray prices, long[] quantities, FixedDecimal tax,
+                                FixedDecimalArray out, RoundingMode roundingMode) {
+        int size = checkSizes(prices, quantities.length, out);
+        int productScale = prices.scale + tax.scale();
+        long taxUnscaled = tax.unscaledValue();
+        for (int i = 0; i < size; i++) {
+            out.values[i] = lineTotal(prices.values[i], quantities[i], taxUnscaled, productScale, out.scale,
+                    roundingMode, prices.scale, tax.scale());
+        }
+    }
+
+    /* Soma de todos os valores, no scale do array. */
+    public long sumUnscaled() {
+        long sum = 0;
+        for (long value : values) {
+            sum = Math.addExact(sum, value);
+        }
+        return sum;
+    }
+
+    private static int checkSizes(FixedDecimalArray prices, int quantities, FixedDecimalArray out) {
+        int size = prices.size();
+        if (quantities != size || out.size() != size) {
+            throw new IllegalArgumentException("Expected " + size + " quantities and results but got "
+                    + quantities + " and " + out.size());
+        }
+        return size;
+    }
+
+    private static long lineTotal(long price, long quantity, long tax, int productScale, int outScale,
+                                  RoundingMode roundingMode, int priceScale, int taxScale) {
+        long priceTimesQuantity = price * quantity;
+        if (FixedDecimal.fitsProduct(price, quantity) && FixedDecimal.fitsProduct(priceTimesQuantity, tax)) {
+            return FixedDecimal.rescale(priceTimesQuantity * tax, productScale, outScale, roundingMode);
+        }
+        return BigDecimal.valueOf(price, priceScale)
+                .multiply(BigDecimal.valueOf(quantity))
+                .multiply(BigDecimal.valueOf(tax, taxScale))
+                .setScale(outScale, roundingMode)
+                .unscaledValue()
+                .longValueExact();
+    }
+}
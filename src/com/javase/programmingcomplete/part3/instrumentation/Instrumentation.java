@@ -0,0 +1,350 @@
+package com.javase.programmingcomplete.part3.instrumentation;
+
+import jdk.jfr.FlightRecorder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.invoke.VarHandle;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public final class Instrumentation {
+
+    /*
+    Medição das operações de localização (formatar e fazer parse de números e datas, montar mensagens, buscar no
+    bundle) por tipo de operação e por locale: quantidade, histograma de latência (LatencyHistogram, no estilo do
+    HdrHistogram) e bytes alocados pela thread durante a operação (com.sun.management.ThreadMXBean, o mesmo contador do
+    profiler de GC do JMH).
+
+    Uso, em volta da operação:
+        long started = Instrumentation.begin();
+        try {
+            ... format ...
+        } finally {
+            Instrumentation.end(Operation.NUMBER_FORMAT, locale, started);
+        }
+    O LocaleFormatters, o LocaleNumberParser, o BatchDateFormatter, o MessageTemplate e o BundleCache já fazem isso.
+    Para ver os números de um exemplo, por exemplo o P3ZonedDateTime.localizedResources():
+        Instrumentation.setEnabled(true);
+        P3ZonedDateTime.localizedResources();
+        Instrumentation.snapshot().forEach(System.out::println);
+
+    Desligado (o padrão), begin() é a leitura de um boolean volatile (um load comum em x86) e devolve 0, e end() com 0
+    retorna na hora: nem o System.nanoTime() é chamado. setEnabled() liga e desliga em tempo de execução, inclusive pelo
+    MBean.
+
+    Ligado, os contadores são separados por thread (um Recorder por thread, em um ThreadLocal): cada thread só escreve
+    nos próprios longs, sem CAS nem lock, e o snapshot() soma todas. O custo é o de dois System.nanoTime() e, se o
+    registro de alocação estiver ligado, duas leituras do contador de alocação da thread. O snapshot lê sem
+    sincronização e pode não ver as últimas operações das outras threads.
+
+    Os dados podem ser lidos por snapshot(), pelo InstrumentationMXBean (registerMBean(), aparece no JConsole em
+    com.javase.programmingcomplete) e pelo JFR, como o evento periódico OperationStatsEvent (registerJfrEvents()).
+     */
+
+    public static final String MBEAN_NAME = "com.javase.programmingcomplete:type=Instrumentation";
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile boolean enabled;
+    private static volatile boolean allocationTracking = true;
+    /* Muda a cada reset(). Um Recorder de outra geração é zerado pela própria thread na próxima operação. */
+    private static volatile int generation;
+
+    private static final ConcurrentMap<Locale, Integer> LOCALE_INDEX = new ConcurrentHashMap<>();
+    private static final List<Locale> LOCALES = new CopyOnWriteArrayList<>();
+    private static final Queue<Recorder> RECORDERS = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<Recorder> RECORDER = ThreadLocal.withInitial(() -> {
+        // Cada thread nova limpa as que já terminaram, então com um pool trocando threads (e sem ninguém chamando o
+        // snapshot()) a fila não cresce sem limite.
+        retireDeadThreads();
+        Recorder recorder = new Recorder();
+        RECORDERS.add(recorder);
+        return recorder;
+    });
+
+    /*
+    Números das threads que já terminaram, somados pelo retireDeadThreads() que percebeu. Protegido pelo lock da classe.
+     */
+    private static Stats[] retired = new Stats[0];
+    private static ObjectName registeredMBean;
+    private static boolean jfrRegistered;
+
+    private Instrumentation() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Instrumentation.enabled = enabled;
+    }
+
+    public static boolean isAllocationTracking() {
+        return allocationTracking;
+    }
+
+    public static void setAllocationTracking(boolean allocationTracking) {
+        Instrumentation.allocationTracking = allocationTracking;
+    }
+
+    /* Início de uma operação: o valor a passar para end(), ou 0 se a instrumentação está desligada. */
+    public static long begin() {
+        if (!enabled) {
+            return 0;
+        }
+        return RECORDER.get().begin();
+    }
+
+    /* Fim da operação começada pelo begin() que devolveu "started". Locale null conta como Locale.ROOT. */
+    public static void end(Operation operation, Locale locale, long started) {
+        if (started == 0) {
+            return;
+        }
+        RECORDER.get().end(operation, locale == null ? Locale.ROOT : locale, started);
+    }
+
+    /* Zera os números de todas as threads. */
+    public static synchronized void reset() {
+        generation++;
+        retired = new Stats[0];
+    }
+
+    /* Os números de cada (operação, locale) que teve alguma operação, ordenados por operação e locale. */
+    public static synchronized List<OperationStats> snapshot() {
+        retireDeadThreads();
+        int current = generation;
+        Stats[] merged = Arrays.copyOf(retired, retired.length);
+        for (Recorder recorder : RECORDERS) {
+            if (recorder.generation == current) {
+                merged = Stats.merge(merged, recorder.stats);
+            }
+        }
+        List<OperationStats> result = new ArrayList<>();
+        for (int index = 0; index < merged.length; index++) {
+            Stats stats = merged[index];
+            if (stats != null && stats.count > 0) {
+                result.add(stats.toOperationStats(OPERATIONS[index % OPERATIONS.length],
+                        LOCALES.get(index / OPERATIONS.length)));
+            }
+        }
+        result.sort(Comparator.comparing(OperationStats::operation)
+                .thenComparing(OperationStats::getLocale));
+        return result;
+    }
+
+    /* Registra o InstrumentationMXBean no MBeanServer da plataforma (só na primeira chamada). */
+    public static synchronized ObjectName registerMBean() {
+        if (registeredMBean == null) {
+            try {
+                ObjectName name = new ObjectName(MBEAN_NAME);
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MBean(), name);
+                registeredMBean = name;
+            } catch (JMException e) {
+                throw new IllegalStateException("Could not register " + MBEAN_NAME, e);
+            }
+        }
+        return registeredMBean;
+    }
+
+    /* Registra o OperationStatsEvent, emitido pelo JFR a cada segundo enquanto houver uma gravação (só na primeira chamada). */
+    public static synchronized void registerJfrEvents() {
+        if (!jfrRegistered) {
+            FlightRecorder.addPeriodicEvent(OperationStatsEvent.class, () -> {
+                for (OperationStats stats : snapshot()) {
+                    OperationStatsEvent.emit(stats);
+                }
+            });
+            jfrRegistered = true;
+        }
+    }
+
+    /*
+    Tira da fila os Recorders das threads que terminaram (e não escrevem mais). Os números da geração atual passam para o
+    retired; os de uma geração anterior ao último reset() são descartados.
+     */
+    private static synchronized void retireDeadThreads() {
+        VarHandle.acquireFence();
+        int current = generation;
+        for (Iterator<Recorder> iterator = RECORDERS.iterator(); iterator.hasNext(); ) {
+            Recorder recorder = iterator.next();
+            if (!recorder.thread.isAlive()) {
+                iterator.remove();
+                if (recorder.generation == current) {
+                    retired = Stats.merge(Arrays.copyOf(retired, retired.length), recorder.stats);
+                }
+            }
+        }
+    }
+
+    private static int localeIndex(Locale locale) {
+        Integer index = LOCALE_INDEX.get(locale);
+        if (index == null) {
+            synchronized (LOCALES) {
+                index = LOCALE_INDEX.get(locale);
+                if (index == null) {
+                    LOCALES.add(locale);
+                    index = LOCALES.size() - 1;
+                    LOCALE_INDEX.put(locale, index);
+                }
+            }
+        }
+        return index;
+    }
+
+    /* Os contadores de uma thread. Só a própria thread escreve, o snapshot() só lê. */
+    private static final class Recorder {
+        private final Thread thread = Thread.currentThread();
+        /* Índice localeIndex * OPERATIONS.length + ordinal. Trocado (nunca alterado no lugar) ao crescer ou zerar. */
+        private volatile Stats[] stats = new Stats[OPERATIONS.length * 4];
+        private volatile int generation = Instrumentation.generation;
+        /* Bytes alocados no begin() de cada operação em andamento (operações podem ser aninhadas), -1 sem registro. */
+        private long[] allocations = new long[8];
+        private int depth;
+        private Locale lastLocale;
+        private int lastLocaleIndex;
+
+        long begin() {
+            if (depth == allocations.length) {
+                allocations = Arrays.copyOf(allocations, depth * 2);
+            }
+            allocations[depth++] = allocationTracking ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+            long now = System.nanoTime();
+            return now == 0 ? 1 : now;
+        }
+
+        void end(Operation operation, Locale locale, long started) {
+            long elapsed = System.nanoTime() - started;
+            long allocatedBefore = depth > 0 ? allocations[--depth] : -1;
+            long allocated = allocatedBefore < 0 ? 0 : THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+            int current = Instrumentation.generation;
+            if (current != generation) {
+                stats = new Stats[stats.length];
+                generation = current;
+            }
+            if (locale != lastLocale) {
+                lastLocaleIndex = localeIndex(locale);
+                lastLocale = locale;
+            }
+            int index = lastLocaleIndex * OPERATIONS.length + operation.ordinal();
+            Stats[] table = stats;
+            if (index >= table.length) {
+                table = Arrays.copyOf(table, Math.max(table.length * 2, index + OPERATIONS.length));
+                stats = table;
+            }
+            Stats target = table[index];
+            if (target == null) {
+                target = new Stats();
+                table[index] = target;
+            }
+            target.record(elapsed, allocated);
+            // Publica as escritas para o snapshot() (em x86 é só uma barreira para o compilador).
+            VarHandle.releaseFence();
+        }
+    }
+
+    private static final class Stats {
+        private final long[] buckets = new long[LatencyHistogram.BUCKETS];
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private long allocatedBytes;
+
+        void record(long nanos, long allocated) {
+            buckets[LatencyHistogram.bucket(nanos)]++;
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            allocatedBytes += allocated;
+        }
+
+        /* Soma "from" em "into" (crescendo e criando posições se precisar) e devolve into. */
+        static Stats[] merge(Stats[] into, Stats[] from) {
+            if (into.length < from.length) {
+                into = Arrays.copyOf(into, from.length);
+            }
+            for (int i = 0; i < from.length; i++) {
+                Stats source = from[i];
+                if (source == null) {
+                    continue;
+                }
+                Stats target = into[i] == null ? new Stats() : into[i].copy();
+                target.count += source.count;
+                target.totalNanos += source.totalNanos;
+                target.maxNanos = Math.max(target.maxNanos, source.maxNanos);
+                target.allocatedBytes += source.allocatedBytes;
+                for (int bucket = 0; bucket < target.buckets.length; bucket++) {
+                    target.buckets[bucket] += source.buckets[bucket];
+                }
+                into[i] = target;
+            }
+            return into;
+        }
+
+        Stats copy() {
+            Stats copy = new Stats();
+            copy.count = count;
+            copy.totalNanos = totalNanos;
+            copy.maxNanos = maxNanos;
+            copy.allocatedBytes = allocatedBytes;
+            System.arraycopy(buckets, 0, copy.buckets, 0, buckets.length);
+            return copy;
+        }
+
+        OperationStats toOperationStats(Operation operation, Locale locale) {
+            // O count é a soma dos buckets, assim os percentis batem mesmo se a leitura pegou uma escrita pela metade.
+            long total = 0;
+            for (long bucket : buckets) {
+                total += bucket;
+            }
+            return new OperationStats(operation, locale, total, totalNanos, maxNanos, allocatedBytes,
+                    buckets.clone());
+        }
+    }
+
+    private static final class MBean implements InstrumentationMXBean {
+        @Override
+        public boolean isEnabled() {
+            return Instrumentation.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            Instrumentation.setEnabled(enabled);
+        }
+
+        @Override
+        public boolean isAllocationTracking() {
+            return Instrumentation.isAllocationTracking();
+        }
+
+        @Override
+        public void setAllocationTracking(boolean allocationTracking) {
+            Instrumentation.setAllocationTracking(allocationTracking);
+        }
+
+        @Override
+        public List<OperationStats> getSnapshot() {
+            return Instrumentation.snapshot();
+        }
+
+        @Override
+        public void reset() {
+            Instrumentation.reset();
+        }
+    }
+}
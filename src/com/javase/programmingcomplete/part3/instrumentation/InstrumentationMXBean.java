@@ -0,0 +1,19 @@
+package com.javase.programmingcomplete.part3.instrumentation;
+
+import java.util.List;
+
+/* O que o Instrumentation.registerMBean() publica no MBeanServer da plataforma (veja o Instrumentation). */
+public interface InstrumentationMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    boolean isAllocationTracking();
+
+    void setAllocationTracking(boolean allocationTracking);
+
+    List<OperationStats> getSnapshot();
+
+    void reset();
+}
@@ -0,0 +1,54 @@
+package com.javase.programmingcomplete.part3.instrumentation;
+
+final class LatencyHistogram {
+
+    /*
+    Buckets no estilo do HdrHistogram: para cada potência de 2 há SUB_BUCKETS buckets lineares, então o erro relativo
+    de qualquer valor é no máximo 1/SUB_BUCKETS (6%), de 1 ns até MAX_VALUE, com 592 buckets. Valores até 31 ns caem em
+    buckets exatos. O índice é calculado com numberOfLeadingZeros e dois shifts, sem laço nem divisão.
+     */
+
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /* ~18 minutos. Valores maiores caem no último bucket. */
+    static final long MAX_VALUE = (1L << 40) - 1;
+    static final int BUCKETS = bucket(MAX_VALUE) + 1;
+
+    private LatencyHistogram() {
+    }
+
+    static int bucket(long value) {
+        long v = Math.min(Math.max(value, 0), MAX_VALUE);
+        int shift = 63 - Long.numberOfLeadingZeros(v | (2 * SUB_BUCKETS - 1)) - SUB_BUCKET_BITS;
+        // shift 0: os 2 x SUB_BUCKETS primeiros valores são o próprio índice.
+        return (shift << SUB_BUCKET_BITS) + (int) (v >>> shift);
+    }
+
+    /* Menor valor que cai no bucket. */
+    static long lowestValue(int bucket) {
+        int shift = Math.max(0, (bucket >>> SUB_BUCKET_BITS) - 1);
+        long subBucket = bucket - ((long) shift << SUB_BUCKET_BITS);
+        return subBucket << shift;
+    }
+
+    /* Maior valor que cai no bucket. */
+    static long highestValue(int bucket) {
+        return bucket + 1 < BUCKETS ? lowestValue(bucket + 1) - 1 : MAX_VALUE;
+    }
+
+    /* Valor do percentil (0 a 100): o maior valor do bucket onde ele cai, como o HdrHistogram. */
+    static long percentile(long[] counts, long total, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return highestValue(bucket);
+            }
+        }
+        return MAX_VALUE;
+    }
+}
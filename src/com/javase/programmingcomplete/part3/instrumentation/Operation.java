@@ -0,0 +1,16 @@
+package com.javase.programmingcomplete.part3.instrumentation;
+
+public enum Operation {
+    /* NumberFormat / LocaleFormatters.formatTo */
+    NUMBER_FORMAT,
+    /* NumberFormat.parse / LocaleNumberParser */
+    NUMBER_PARSE,
+    /* DateTimeFormatter.format / BatchDateFormatter.formatTo (um lote conta como uma operação) */
+    DATE_FORMAT,
+    /* DateTimeFormatter.parse / BatchDateFormatter.parseTo */
+    DATE_PARSE,
+    /* MessageFormat.format / MessageTemplate */
+    MESSAGE_FORMAT,
+    /* ResourceBundle.getBundle, getString / BundleCache */
+    BUNDLE_LOOKUP
+}
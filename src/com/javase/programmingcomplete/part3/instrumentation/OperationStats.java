@@ -0,0 +1,101 @@
+package com.javase.programmingcomplete.part3.instrumentation;
+
+import java.util.Locale;
+
+public final class OperationStats {
+
+    /*
+    Números de uma operação em um locale desde que a instrumentação começou (ou desde o último reset), somando todas
+    as threads. É imutável, e os getters são o que o InstrumentationMXBean mostra no JConsole/VisualVM.
+    Os tempos incluem as operações aninhadas: um MESSAGE_FORMAT que formata um número também conta o NUMBER_FORMAT.
+     */
+
+    private final Operation operation;
+    private final Locale locale;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long allocatedBytes;
+    private final long[] buckets;
+
+    OperationStats(Operation operation, Locale locale, long count, long totalNanos, long maxNanos,
+                   long allocatedBytes, long[] buckets) {
+        this.operation = operation;
+        this.locale = locale;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.buckets = buckets;
+    }
+
+    public String getOperation() {
+        return operation.name();
+    }
+
+    /* Language tag do locale ("en-GB"), ou "und" para o Locale.ROOT. */
+    public String getLocale() {
+        return locale.toLanguageTag();
+    }
+
+    public Operation operation() {
+        return operation;
+    }
+
+    public Locale locale() {
+        return locale;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public double getMeanNanos() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    /* 0 quando o registro de alocação está desligado. */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public double getAllocatedBytesPerOperation() {
+        return count == 0 ? 0 : (double) allocatedBytes / count;
+    }
+
+    public long getP50Nanos() {
+        return percentile(50);
+    }
+
+    public long getP90Nanos() {
+        return percentile(90);
+    }
+
+    public long getP99Nanos() {
+        return percentile(99);
+    }
+
+    public long getP999Nanos() {
+        return percentile(99.9);
+    }
+
+    /* Valor do percentil (0 a 100), com a precisão dos buckets (até 6% acima do valor real). */
+    public long percentile(double percentile) {
+        return Math.min(maxNanos, LatencyHistogram.percentile(buckets, count, percentile));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%-14s %-6s %,12d ops %10.1f ns mean %8d p50 %8d p99 %10d max %10.1f B/op",
+                operation, getLocale(), count, getMeanNanos(), getP50Nanos(), getP99Nanos(), maxNanos,
+                getAllocatedBytesPerOperation());
+    }
+}
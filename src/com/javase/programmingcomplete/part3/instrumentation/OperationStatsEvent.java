@@ -0,0 +1,66 @@
+package com.javase.programmingcomplete.part3.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/*
+Evento periódico do JFR com o OperationStats de cada (operação, locale), emitido a cada segundo durante uma gravação
+(java -XX:StartFlightRecording ou jcmd JFR.start) depois do Instrumentation.registerJfrEvents(). Os valores são
+acumulados desde o início (ou o último reset), como no MBean.
+ */
+@Name("com.javase.programmingcomplete.OperationStats")
+@Label("Localization Operation Statistics")
+@Category({"Programming Complete", "Localization"})
+@Description("Counts, latency percentiles and allocation of formatting, parsing and bundle lookups")
+@Period("1 s")
+@StackTrace(false)
+public final class OperationStatsEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Locale")
+    String locale;
+
+    @Label("Count")
+    long count;
+
+    @Label("Total Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long totalTime;
+
+    @Label("Median")
+    @Timespan(Timespan.NANOSECONDS)
+    long p50;
+
+    @Label("99th Percentile")
+    @Timespan(Timespan.NANOSECONDS)
+    long p99;
+
+    @Label("Maximum")
+    @Timespan(Timespan.NANOSECONDS)
+    long max;
+
+    @Label("Allocated")
+    @DataAmount(DataAmount.BYTES)
+    long allocated;
+
+    static void emit(OperationStats stats) {
+        OperationStatsEvent event = new OperationStatsEvent();
+        event.operation = stats.getOperation();
+        event.locale = stats.getLocale();
+        event.count = stats.getCount();
+        event.totalTime = stats.getTotalNanos();
+        event.p50 = stats.getP50Nanos();
+        event.p99 = stats.getP99Nanos();
+        event.max = stats.getMaxNanos();
+        event.allocated = stats.getAllocatedBytes();
+        event.commit();
+    }
+}
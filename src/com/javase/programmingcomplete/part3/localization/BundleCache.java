@@ -0,0 +1,170 @@
+package com.javase.programmingcomplete.part3.localization;
+
+import com.javase.programmingcomplete.part3.instrumentation.Instrumentation;
+import com.javase.programmingcomplete.part3.instrumentation.Operation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.PropertyResourceBundle;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class BundleCache {
+
+    /*
+    Cache de resource bundles carregado uma vez na inicialização.
+    Cada ResourceBundle.getBundle("resource.messages", locale) percorre a lista de locales candidatos (en_GB, en, root)
+    e passa pelo cache sincronizado do JDK. E cada getString que não existe no locale (como "other" em en_GB) sobe
+    pela cadeia de parents até achar no bundle default (japonês).
+
+    Aqui todos os arquivos messages*.properties do diretório são lidos de uma vez e, para cada locale, a cadeia de
+    fallback é achatada em um único Map imutável (primeiro o root, depois en, depois en_GB por cima). Depois disso, a
+    busca é um get em um ConcurrentHashMap (leitura sem lock) e um get no Map do locale.
+
+    A resolução segue as mesmas regras do ResourceBundle.getBundle: locales candidatos do ResourceBundle.Control e, se só
+    o bundle root for encontrado, tenta o locale default da JVM antes de ficar com o root (o que não vale quando o
+    locale pedido é o próprio Locale.ROOT). Locales que não têm arquivo próprio são resolvidos na primeira vez que forem
+    pedidos e ficam no cache, então mudar o Locale.setDefault() depois disso não afeta o que já foi resolvido.
+     */
+
+    static final String SUFFIX = ".properties";
+    static final ResourceBundle.Control CONTROL =
+            ResourceBundle.Control.getControl(ResourceBundle.Control.FORMAT_PROPERTIES);
+
+    private final String baseName;
+    private final Map<Locale, Map<String, String>> files;
+    private final ConcurrentMap<Locale, Map<String, String>> resolved = new ConcurrentHashMap<>();
+
+    private BundleCache(String baseName, Map<Locale, Map<String, String>> files) {
+        this.baseName = baseName;
+        this.files = files;
+        for (Locale locale : files.keySet()) {
+            resolved.put(locale, resolve(locale));
+        }
+    }
+
+    /*
+    Lê todos os arquivos baseName*.properties do diretório. Por exemplo load(Paths.get("src", "resource"), "messages")
+    lê messages.properties, messages_en_GB.properties e messages_ru.properties.
+     */
+    public static BundleCache load(Path directory, String baseName) throws IOException {
+        Map<Locale, Map<String, String>> files = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, baseName + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                Locale locale = localeOf(baseName, file.getFileName().toString());
+                if (locale != null) {
+                    files.put(locale, read(file));
+                }
+            }
+        }
+        if (files.isEmpty()) {
+            throw new MissingResourceException("No " + baseName + SUFFIX + " files in " + directory, baseName, "");
+        }
+        return new BundleCache(baseName, Collections.unmodifiableMap(files));
+    }
+
+    /* messages.properties -> root, messages_en_GB.properties -> en_GB. Outros arquivos (messagesX.properties) são ignorados. */
+    static Locale localeOf(String baseName, String fileName) {
+        String suffix = fileName.substring(baseName.length(), fileName.length() - SUFFIX.length());
+        if (suffix.isEmpty()) {
+            return Locale.ROOT;
+        }
+        if (suffix.charAt(0) != '_') {
+            return null;
+        }
+        String[] parts = suffix.substring(1).split("_", 3);
+        return new Locale(parts[0], parts.length > 1 ? parts[1] : "", parts.length > 2 ? parts[2] : "");
+    }
+
+    /* Usa o PropertyResourceBundle para ler o arquivo com a mesma codificação do JDK (UTF-8, ou ISO-8859-1 se falhar). */
+    static Map<String, String> read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            PropertyResourceBundle bundle = new PropertyResourceBundle(in);
+            Map<String, String> values = new HashMap<>();
+            for (String key : bundle.keySet()) {
+                values.put(key, bundle.getString(key));
+            }
+            return values;
+        }
+    }
+
+    private Map<String, String> resolve(Locale locale) {
+        List<Locale> candidates = CONTROL.getCandidateLocales(baseName, locale);
+        // Como no getBundle: só se o que foi achado é o bundle root (ou nada), e nunca quando o pedido é o próprio root.
+        if (isBaseBundle(firstFile(candidates)) && !locale.equals(Locale.ROOT)) {
+            Locale fallback = CONTROL.getFallbackLocale(baseName, locale);
+            if (fallback != null) {
+                List<Locale> fallbackCandidates = CONTROL.getCandidateLocales(baseName, fallback);
+                if (!isBaseBundle(firstFile(fallbackCandidates))) {
+                    candidates = fallbackCandidates;
+                }
+            }
+        }
+        Map<String, String> merged = new HashMap<>();
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            Map<String, String> values = files.get(candidates.get(i));
+            if (values != null) {
+                merged.putAll(values);
+            }
+        }
+        return Map.copyOf(merged);
+    }
+
+    /* O primeiro candidato que tem arquivo, ou null. */
+    private Locale firstFile(List<Locale> candidates) {
+        for (Locale candidate : candidates) {
+            if (files.containsKey(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBaseBundle(Locale found) {
+        return found == null || found.equals(Locale.ROOT);
+    }
+
+    /* Todas as chaves visíveis para o locale, já com o fallback aplicado. O Map é imutável. */
+    public Map<String, String> bundle(Locale locale) {
+        Map<String, String> values = resolved.get(locale);
+        if (values == null) {
+            values = resolved.computeIfAbsent(locale, this::resolve);
+        }
+        return values;
+    }
+
+    /* Mesmo contrato do ResourceBundle.getString: MissingResourceException se a chave não existir. */
+    public String getString(Locale locale, String key) {
+        long started = Instrumentation.begin();
+        try {
+            String value = bundle(locale).get(key);
+            if (value == null) {
+                throw new MissingResourceException("Can't find resource for bundle " + baseName + ", key " + key,
+                        baseName + "_" + locale, key);
+            }
+            return value;
+        } finally {
+            Instrumentation.end(Operation.BUNDLE_LOOKUP, locale, started);
+        }
+    }
+
+    /* Locales que têm um arquivo próprio (o root aparece como Locale.ROOT). */
+    public Set<Locale> locales() {
+        return files.keySet();
+    }
+
+    public String baseName() {
+        return baseName;
+    }
+}
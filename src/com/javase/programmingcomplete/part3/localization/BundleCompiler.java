@@ -0,0 +1,214 @@
+package com.javase.programmingcomplete.part3.localization;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.TreeSet;
+
+public final class BundleCompiler {
+
+    /*
+    Compila os arquivos baseName*.properties de um diretório em um único arquivo binário, lido pelo CompiledBundle com
+    FileChannel.map sem fazer parse de nada (veja o CompiledBundle).
+
+    Uso: java com.javase.programmingcomplete.part3.localization.BundleCompiler src/resource messages messages.bundle
+
+    Formato (todos os ints em big endian, offsets absolutos a partir do início do arquivo):
+        cabeçalho      magic "PCB1", versão, quantidade de chaves, quantidade de locales, tamanho da tabela hash,
+                       offset da tabela hash, das chaves, dos locales e o offset do baseName
+        tabela hash    slots int (número da chave + 1, 0 = vazio), endereçamento aberto pelo String.hashCode() da chave
+        chaves         por chave: hashCode e offset do texto. Cada chave aparece uma vez só, para todos os locales
+        locales        por locale: offset do texto (language_country_variant) e offset da tabela de valores
+        valores        por locale, um int por chave: offset do valor, ou -1 se a chave não existe no locale
+        textos         int com o tamanho em bytes seguido do texto em UTF-8. Textos iguais são gravados uma vez só
+
+    A tabela de valores de cada locale já vem com o fallback aplicado (os valores do root, depois do en, depois do en_GB
+    por cima, na ordem do ResourceBundle.Control), então a busca não precisa percorrer a cadeia de parents: o valor que
+    vem do parent aponta para o mesmo texto do parent.
+     */
+
+    static final int MAGIC = 0x50434231;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 9 * Integer.BYTES;
+    static final int ABSENT = -1;
+
+    private BundleCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: BundleCompiler <directory> <baseName> <output>");
+            System.exit(2);
+        }
+        Path output = Paths.get(args[2]);
+        compile(Paths.get(args[0]), args[1], output);
+        System.out.println("Compiled " + args[1] + " into " + output + " (" + Files.size(output) + " bytes)");
+    }
+
+    /*
+    Lê todos os arquivos baseName*.properties do diretório (como o BundleCache.load) e grava o arquivo compilado. O
+    arquivo é escrito ao lado e movido por cima do antigo no final, então quem já mapeou o antigo continua lendo ele.
+     */
+    public static void compile(Path directory, String baseName, Path output) throws IOException {
+        Map<Locale, Map<String, String>> files = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, baseName + "*" + BundleCache.SUFFIX)) {
+            for (Path file : stream) {
+                Locale locale = BundleCache.localeOf(baseName, file.getFileName().toString());
+                if (locale != null) {
+                    files.put(locale, BundleCache.read(file));
+                }
+            }
+        }
+        if (files.isEmpty()) {
+            throw new MissingResourceException("No " + baseName + BundleCache.SUFFIX + " files in " + directory,
+                    baseName, "");
+        }
+
+        TreeSet<String> keySet = new TreeSet<>();
+        for (Map<String, String> values : files.values()) {
+            keySet.addAll(values.keySet());
+        }
+        List<String> keys = new ArrayList<>(keySet);
+        List<Locale> locales = new ArrayList<>(files.keySet());
+        locales.sort(Comparator.comparing(Locale::toString));
+
+        int slots = Integer.highestOneBit(Math.max(keys.size(), 1) * 2 - 1) << 1;
+        long keysOffset = HEADER_SIZE + (long) slots * Integer.BYTES;
+        long localesOffset = keysOffset + (long) keys.size() * 2 * Integer.BYTES;
+        long valuesOffset = localesOffset + (long) locales.size() * 2 * Integer.BYTES;
+        long textsOffset = valuesOffset + (long) locales.size() * keys.size() * Integer.BYTES;
+        Texts texts = new Texts(textsOffset);
+
+        int[] table = new int[slots];
+        int[] keyHashes = new int[keys.size()];
+        int[] keyTexts = new int[keys.size()];
+        for (int id = 0; id < keys.size(); id++) {
+            String key = keys.get(id);
+            keyHashes[id] = key.hashCode();
+            keyTexts[id] = texts.add(key);
+            int slot = keyHashes[id] & (slots - 1);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            table[slot] = id + 1;
+        }
+        int baseNameText = texts.add(baseName);
+
+        int[] localeTexts = new int[locales.size()];
+        int[][] values = new int[locales.size()][];
+        for (int l = 0; l < locales.size(); l++) {
+            Locale locale = locales.get(l);
+            localeTexts[l] = texts.add(locale.getLanguage() + "_" + locale.getCountry() + "_" + locale.getVariant());
+            Map<String, String> merged = flatten(baseName, locale, files);
+            int[] row = new int[keys.size()];
+            for (int id = 0; id < row.length; id++) {
+                String value = merged.get(keys.get(id));
+                row[id] = value == null ? ABSENT : texts.add(value);
+            }
+            values[l] = row;
+        }
+        if (texts.end() > Integer.MAX_VALUE) {
+            throw new IOException("Compiled bundle would be larger than 2 GB: " + texts.end() + " bytes");
+        }
+
+        Path temporary = output.resolveSibling(output.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(keys.size());
+            out.writeInt(locales.size());
+            out.writeInt(slots);
+            out.writeInt((int) keysOffset);
+            out.writeInt((int) localesOffset);
+            out.writeInt((int) valuesOffset);
+            out.writeInt(baseNameText);
+            for (int slot : table) {
+                out.writeInt(slot);
+            }
+            for (int id = 0; id < keys.size(); id++) {
+                out.writeInt(keyHashes[id]);
+                out.writeInt(keyTexts[id]);
+            }
+            for (int l = 0; l < locales.size(); l++) {
+                out.writeInt(localeTexts[l]);
+                out.writeInt((int) (valuesOffset + (long) l * keys.size() * Integer.BYTES));
+            }
+            for (int[] row : values) {
+                for (int offset : row) {
+                    out.writeInt(offset);
+                }
+            }
+            texts.writeTo(out);
+        }
+        Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /* Os valores visíveis no locale: a cadeia de candidatos do ResourceBundle.Control, do root até o próprio locale. */
+    private static Map<String, String> flatten(String baseName, Locale locale, Map<Locale, Map<String, String>> files) {
+        List<Locale> candidates = locale.equals(Locale.ROOT)
+                ? List.of(Locale.ROOT) : BundleCache.CONTROL.getCandidateLocales(baseName, locale);
+        Map<String, String> merged = new HashMap<>();
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            Map<String, String> values = files.get(candidates.get(i));
+            if (values != null) {
+                merged.putAll(values);
+            }
+        }
+        return merged;
+    }
+
+    /* A área de textos, com cada texto gravado uma vez só. */
+    private static final class Texts {
+        private final long start;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> offsets = new HashMap<>();
+
+        Texts(long start) {
+            this.start = start;
+        }
+
+        int add(String text) {
+            Integer offset = offsets.get(text);
+            if (offset == null) {
+                byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+                // Um surrogate sem par vira '?' no UTF-8 e a chave (ou o valor) não seria mais a mesma.
+                if (!new String(utf8, StandardCharsets.UTF_8).equals(text)) {
+                    throw new IllegalArgumentException("Not valid UTF-16 text: " + text);
+                }
+                offset = (int) (start + bytes.size());
+                try {
+                    out.writeInt(utf8.length);
+                    out.write(utf8);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                offsets.put(text, offset);
+            }
+            return offset;
+        }
+
+        long end() {
+            return start + bytes.size();
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            bytes.writeTo(target);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.javase.programmingcomplete.part3.localization;
+
+import com.javase.programmingcomplete.part3.instrumentation.Instrumentation;
+import com.javase.programmingcomplete.part3.instrumentation.Operation;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class CompiledBundle {
+
+    /*
+    Resource bundle lido do arquivo gerado pelo BundleCompiler, para quando há centenas de locales e dezenas de milhares
+    de chaves. O ResourceBundle.getBundle (e o BundleCache) fazem o parse de cada .properties como texto e guardam todos
+    os valores no heap; com muitos locales isso domina o tempo de inicialização e a memória.
+
+    Aqui o arquivo é mapeado com FileChannel.map e nada é copiado para o heap na abertura, além da lista de locales: o
+    open() só confere o cabeçalho. Na busca, a chave é achada pela tabela hash do arquivo (o String.hashCode() da chave,
+    que a String já guarda, e a comparação direto com os bytes UTF-8 mapeados, sem criar outra String), o offset do
+    valor é lido da tabela do locale e só então esse valor é decodificado. Quem nunca é lido nunca sai do arquivo, e as
+    páginas do arquivo ficam no page cache do sistema (compartilhadas entre processos), fora do heap.
+
+    O locale pedido é resolvido como no ResourceBundle.getBundle: o primeiro candidato do ResourceBundle.Control que tem
+    arquivo e, se só o root for encontrado, o locale default da JVM antes de ficar com o root. Cada locale é resolvido
+    uma vez e fica em um ConcurrentHashMap. Depois de aberto, o CompiledBundle é imutável e pode ser usado por várias
+    threads (só leituras absolutas no buffer, que não mexem na posição).
+
+    As últimas chaves achadas e os últimos valores lidos ficam em dois caches pequenos de tamanho fixo (CACHE posições,
+    indexados pelo hash da chave e pelo offset do valor), então as chaves mais usadas não passam de novo pela tabela
+    hash do arquivo nem são decodificadas de novo a cada busca. Uma posição é trocada inteira (um
+    objeto imutável), então threads diferentes podem ler e escrever no cache sem lock.
+
+    O mapeamento é liberado quando o CompiledBundle for coletado pelo GC (não existe unmap na API pública).
+     */
+
+    private static final int CACHE = 1024;
+    private static final int CACHE_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(CACHE);
+
+    private final MappedByteBuffer buffer;
+    private final String baseName;
+    private final int keyCount;
+    private final int slotMask;
+    private final int keysOffset;
+    private final Map<Locale, Integer> files;
+    private final int[] valueTables;
+    /* Locale pedido -> índice em valueTables, ou -1 se não existe nenhum arquivo para ele. */
+    private final ConcurrentMap<Locale, Integer> resolved = new ConcurrentHashMap<>();
+    private final Cached[] keys = new Cached[CACHE];
+    private final Cached[] values = new Cached[CACHE];
+
+    private CompiledBundle(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < BundleCompiler.HEADER_SIZE || buffer.getInt(0) != BundleCompiler.MAGIC) {
+            throw new IOException("Not a compiled bundle");
+        }
+        if (buffer.getInt(4) != BundleCompiler.VERSION) {
+            throw new IOException("Unsupported compiled bundle version " + buffer.getInt(4));
+        }
+        keyCount = buffer.getInt(8);
+        int localeCount = buffer.getInt(12);
+        int slots = buffer.getInt(16);
+        keysOffset = buffer.getInt(20);
+        int localesOffset = buffer.getInt(24);
+        int valuesOffset = buffer.getInt(28);
+        if (Integer.bitCount(slots) != 1 || keysOffset != BundleCompiler.HEADER_SIZE + slots * Integer.BYTES
+                || valuesOffset + (long) localeCount * keyCount * Integer.BYTES > buffer.capacity()) {
+            throw new IOException("Corrupted compiled bundle header");
+        }
+        slotMask = slots - 1;
+        baseName = text(buffer.getInt(32));
+
+        Map<Locale, Integer> locales = new HashMap<>();
+        valueTables = new int[localeCount];
+        for (int l = 0; l < localeCount; l++) {
+            String[] parts = text(buffer.getInt(localesOffset + l * 2 * Integer.BYTES)).split("_", 3);
+            locales.put(new Locale(parts[0], parts[1], parts[2]), l);
+            valueTables[l] = buffer.getInt(localesOffset + l * 2 * Integer.BYTES + Integer.BYTES);
+        }
+        files = Collections.unmodifiableMap(locales);
+    }
+
+    /* Mapeia o arquivo gerado pelo BundleCompiler.compile. O canal é fechado logo, o mapeamento continua valendo. */
+    public static CompiledBundle open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Compiled bundle larger than 2 GB: " + file);
+            }
+            return new CompiledBundle(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /* Mesmo contrato do ResourceBundle.getString: MissingResourceException se a chave não existir. */
+    public String getString(Locale locale, String key) {
+        long started = Instrumentation.begin();
+        try {
+            int offset = valueOffset(locale, key);
+            if (offset == BundleCompiler.ABSENT) {
+                throw new MissingResourceException("Can't find resource for bundle " + baseName + ", key " + key,
+                        baseName + "_" + locale, key);
+            }
+            return value(offset);
+        } finally {
+            Instrumentation.end(Operation.BUNDLE_LOOKUP, locale, started);
+        }
+    }
+
+    /* Se a chave existe para o locale (com o fallback), sem decodificar o valor. */
+    public boolean containsKey(Locale locale, String key) {
+        return valueOffset(locale, key) != BundleCompiler.ABSENT;
+    }
+
+    /* Locales que têm um arquivo próprio (o root aparece como Locale.ROOT). */
+    public Set<Locale> locales() {
+        return files.keySet();
+    }
+
+    public String baseName() {
+        return baseName;
+    }
+
+    /* Quantidade de chaves distintas em todos os locales. */
+    public int keyCount() {
+        return keyCount;
+    }
+
+    /* Tamanho do arquivo mapeado, em bytes. */
+    public int mappedBytes() {
+        return buffer.capacity();
+    }
+
+    private int valueOffset(Locale locale, String key) {
+        int table = table(locale);
+        if (table < 0) {
+            return BundleCompiler.ABSENT;
+        }
+        int id = keyId(key);
+        if (id < 0) {
+            return BundleCompiler.ABSENT;
+        }
+        return buffer.getInt(valueTables[table] + id * Integer.BYTES);
+    }
+
+    private int table(Locale locale) {
+        Integer table = resolved.get(locale);
+        if (table == null) {
+            table = resolved.computeIfAbsent(locale, this::resolve);
+        }
+        return table;
+    }
+
+    private int resolve(Locale locale) {
+        Integer found = firstFile(locale);
+        if ((found == null || found.equals(files.get(Locale.ROOT))) && !locale.equals(Locale.ROOT)) {
+            Locale fallback = BundleCache.CONTROL.getFallbackLocale(baseName, locale);
+            Integer fallbackFound = fallback == null ? null : firstFile(fallback);
+            if (fallbackFound != null && !fallbackFound.equals(files.get(Locale.ROOT))) {
+                found = fallbackFound;
+            }
+        }
+        return found == null ? -1 : found;
+    }
+
+    private Integer firstFile(Locale locale) {
+        List<Locale> candidates = BundleCache.CONTROL.getCandidateLocales(baseName, locale);
+        for (Locale candidate : candidates) {
+            Integer table = files.get(candidate);
+            if (table != null) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    /* Número da chave pelo cache ou pela tabela hash do arquivo, ou -1. */
+    private int keyId(String key) {
+        int hash = key.hashCode();
+        int cacheSlot = (hash * 0x9E3779B9) >>> CACHE_SHIFT;
+        Cached cached = keys[cacheSlot];
+        if (cached != null && (cached.text == key || cached.text.equals(key))) {
+            return cached.number;
+        }
+        int id = findKey(key, hash);
+        if (id >= 0) {
+            keys[cacheSlot] = new Cached(key, id);
+        }
+        return id;
+    }
+
+    private int findKey(String key, int hash) {
+        for (int slot = hash & slotMask; ; slot = (slot + 1) & slotMask) {
+            int entry = buffer.getInt(BundleCompiler.HEADER_SIZE + slot * Integer.BYTES);
+            if (entry == 0) {
+                return -1;
+            }
+            int id = entry - 1;
+            int keyEntry = keysOffset + id * 2 * Integer.BYTES;
+            if (buffer.getInt(keyEntry) == hash && textEquals(buffer.getInt(keyEntry + Integer.BYTES), key)) {
+                return id;
+            }
+        }
+    }
+
+    /* Compara o texto UTF-8 do arquivo com a String, decodificando um caractere por vez. */
+    private boolean textEquals(int offset, String text) {
+        int position = offset + Integer.BYTES;
+        int end = position + buffer.getInt(offset);
+        int length = text.length();
+        int i = 0;
+        while (position < end) {
+            int b = buffer.get(position);
+            int codePoint;
+            if (b >= 0) {
+                codePoint = b;
+                position++;
+            } else if ((b & 0xE0) == 0xC0) {
+                codePoint = (b & 0x1F) << 6 | buffer.get(position + 1) & 0x3F;
+                position += 2;
+            } else if ((b & 0xF0) == 0xE0) {
+                codePoint = (b & 0x0F) << 12 | (buffer.get(position + 1) & 0x3F) << 6 | buffer.get(position + 2) & 0x3F;
+                position += 3;
+            } else {
+                codePoint = (b & 0x07) << 18 | (buffer.get(position + 1) & 0x3F) << 12
+                        | (buffer.get(position + 2) & 0x3F) << 6 | buffer.get(position + 3) & 0x3F;
+                position += 4;
+            }
+            if (Character.isBmpCodePoint(codePoint)) {
+                if (i >= length || text.charAt(i) != codePoint) {
+                    return false;
+                }
+                i++;
+            } else {
+                if (i + 1 >= length || text.charAt(i) != Character.highSurrogate(codePoint)
+                        || text.charAt(i + 1) != Character.lowSurrogate(codePoint)) {
+                    return false;
+                }
+                i += 2;
+            }
+        }
+        return i == length;
+    }
+
+    private String value(int offset) {
+        int slot = (offset * 0x9E3779B9) >>> CACHE_SHIFT;
+        Cached cached = values[slot];
+        if (cached != null && cached.number == offset) {
+            return cached.text;
+        }
+        String value = text(offset);
+        values[slot] = new Cached(value, offset);
+        return value;
+    }
+
+    private String text(int offset) {
+        byte[] utf8 = new byte[buffer.getInt(offset)];
+        buffer.get(offset + Integer.BYTES, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /* Uma posição dos caches: a chave e o número dela, ou o valor e o offset dele. */
+    private static final class Cached {
+        private final String text;
+        private final int number;
+
+        Cached(String text, int number) {
+            this.text = text;
+            this.number = number;
+        }
+    }
+}
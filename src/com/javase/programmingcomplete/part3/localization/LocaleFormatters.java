@@ -0,0 +1,167 @@
+package com.javase.programmingcomplete.part3.localization;
+
+import com.javase.programmingcomplete.part3.instrumentation.Instrumentation;
+import com.javase.programmingcomplete.part3.instrumentation.Operation;
+
+import java.math.BigDecimal;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class LocaleFormatters {
+
+    /*
+    Registro de NumberFormat por (Locale, estilo).
+    NumberFormat.getCurrencyInstance(locale) e seus irmãos são caros de construir (carregam os DecimalFormatSymbols do
+    locale, fazem o parse do padrão, etc) e não são thread-safe. Então ou você cria um novo a cada chamada (lento) ou
+    compartilha com um lock (contenção).
+
+    Aqui o formatter é construído uma única vez por (Locale, estilo) como protótipo, e cada thread recebe o seu próprio
+    clone através de um ThreadLocal. Depois de aquecido, pegar um formatter não cria nenhum objeto novo.
+
+    Os métodos formatTo escrevem direto em um StringBuilder do chamador. O NumberFormat só sabe escrever em StringBuffer,
+    então cada thread tem um StringBuffer e um FieldPosition de rascunho que são reusados em toda chamada.
+
+    O clone da thread nunca sai desta classe (e do pacote): get() devolve uma cópia, que o chamador pode alterar sem
+    mudar o que os formatTo (e o MessageTemplate) escrevem depois. O registro guarda até MAX_LOCALES locales; passado
+    disso (locales vindos de fora, por exemplo), o formatter é construído a cada chamada, sem cache.
+     */
+
+    public enum Style {
+        CURRENCY,
+        PERCENT,
+        NUMBER
+    }
+
+    static final int MAX_LOCALES = 256;
+
+    private static final Style[] STYLES = Style.values();
+
+    /* Um array por locale, indexado pelo ordinal do estilo, assim a busca não precisa alocar uma chave composta. */
+    private static final ConcurrentMap<Locale, ThreadLocal<NumberFormat>[]> FORMATS = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private LocaleFormatters() {
+    }
+
+    /*
+    Uma cópia do formatter desse locale e estilo, que pode ser alterada e guardada. Sai de um clone do protótipo, então
+    é bem mais barata que o NumberFormat.getCurrencyInstance(locale), mas ainda cria um objeto por chamada.
+     */
+    public static NumberFormat get(Locale locale, Style style) {
+        return (NumberFormat) formatter(locale, style).clone();
+    }
+
+    /*
+    O formatter da thread atual, sem cópia. Não pode ser alterado nem passado para outra thread, por isso só é visível no
+    pacote.
+     */
+    static NumberFormat formatter(Locale locale, Style style) {
+        ThreadLocal<NumberFormat>[] formats = FORMATS.get(locale);
+        if (formats == null) {
+            if (FORMATS.size() >= MAX_LOCALES) {
+                return create(locale, style);
+            }
+            formats = FORMATS.computeIfAbsent(locale, LocaleFormatters::perThread);
+        }
+        return formats[style.ordinal()].get();
+    }
+
+    /* Quantos locales estão no registro. Pode passar um pouco de MAX_LOCALES se várias threads chegarem juntas. */
+    static int cachedLocaleCount() {
+        return FORMATS.size();
+    }
+
+    public static String format(Locale locale, Style style, long value) {
+        return formatTo(locale, style, value, new StringBuilder()).toString();
+    }
+
+    public static String format(Locale locale, Style style, double value) {
+        return formatTo(locale, style, value, new StringBuilder()).toString();
+    }
+
+    public static String format(Locale locale, Style style, BigDecimal value) {
+        return formatTo(locale, style, value, new StringBuilder()).toString();
+    }
+
+    public static StringBuilder formatTo(Locale locale, Style style, long value, StringBuilder out) {
+        long started = Instrumentation.begin();
+        try {
+            Scratch scratch = SCRATCH.get();
+            formatter(locale, style).format(value, scratch.reset(), scratch.position);
+            return out.append(scratch.buffer);
+        } finally {
+            Instrumentation.end(Operation.NUMBER_FORMAT, locale, started);
+        }
+    }
+
+    public static StringBuilder formatTo(Locale locale, Style style, double value, StringBuilder out) {
+        long started = Instrumentation.begin();
+        try {
+            Scratch scratch = SCRATCH.get();
+            formatter(locale, style).format(value, scratch.reset(), scratch.position);
+            return out.append(scratch.buffer);
+        } finally {
+            Instrumentation.end(Operation.NUMBER_FORMAT, locale, started);
+        }
+    }
+
+    public static StringBuilder formatTo(Locale locale, Style style, BigDecimal value, StringBuilder out) {
+        long started = Instrumentation.begin();
+        try {
+            Scratch scratch = SCRATCH.get();
+            formatter(locale, style).format(value, scratch.reset(), scratch.position);
+            return out.append(scratch.buffer);
+        } finally {
+            Instrumentation.end(Operation.NUMBER_FORMAT, locale, started);
+        }
+    }
+
+    /* Qualquer outro Number (Integer, BigInteger, AtomicLong...), do mesmo jeito que o NumberFormat.format(Object). */
+    public static StringBuilder formatTo(Locale locale, Style style, Number value, StringBuilder out) {
+        long started = Instrumentation.begin();
+        try {
+            Scratch scratch = SCRATCH.get();
+            formatter(locale, style).format(value, scratch.reset(), scratch.position);
+            return out.append(scratch.buffer);
+        } finally {
+            Instrumentation.end(Operation.NUMBER_FORMAT, locale, started);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ThreadLocal<NumberFormat>[] perThread(Locale locale) {
+        ThreadLocal<NumberFormat>[] formats = new ThreadLocal[STYLES.length];
+        for (Style style : STYLES) {
+            NumberFormat prototype = create(locale, style);
+            formats[style.ordinal()] = ThreadLocal.withInitial(() -> (NumberFormat) prototype.clone());
+        }
+        return formats;
+    }
+
+    private static NumberFormat create(Locale locale, Style style) {
+        switch (style) {
+            case CURRENCY:
+                return NumberFormat.getCurrencyInstance(locale);
+            case PERCENT:
+                return NumberFormat.getPercentInstance(locale);
+            default:
+                return NumberFormat.getNumberInstance(locale);
+        }
+    }
+
+    private static final class Scratch {
+        private final StringBuffer buffer = new StringBuffer(32);
+        private final FieldPosition position = new FieldPosition(0);
+
+        StringBuffer reset() {
+            buffer.setLength(0);
+            position.setBeginIndex(0);
+            position.setEndIndex(0);
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.javase.programmingcomplete.part3.localization;
+
+import com.javase.programmingcomplete.part3.instrumentation.Instrumentation;
+import com.javase.programmingcomplete.part3.instrumentation.Operation;
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters.Style;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class LocaleNumberParser {
+
+    /*
+    Parser de números por locale, sem boxing.
+    O NumberFormat.parse devolve um Number (às vezes Long, às vezes Double), e o P3ZonedDateTime.usingLocaleNumbers()
+    precisa fazer cast: (Double) currencyFormat.parse("£1.7") funciona, mas (Double) currencyFormat.parse("£2") lança
+    ClassCastException, porque o resultado é um Long. Além disso cada chamada cria um ParsePosition e um Number.
+
+    Aqui os símbolos do locale (separador de agrupamento, separador decimal, dígito zero, sinal de menos) e os prefixos e
+    sufixos de moeda e porcentagem ("£", " ₽", "%") são lidos do DecimalFormat uma única vez por locale. O parse lê
+    direto de um trecho de CharSequence e devolve long, double ou um valor "unscaled" (o número multiplicado por
+    10^scale, por exemplo £1.70 com scale 2 vira 170).
+
+    Diferente do NumberFormat.parse, o parse é estrito: o trecho inteiro precisa ser o número (texto sobrando no fim é
+    erro), o separador de agrupamento só pode aparecer entre dígitos da parte inteira e porcentagem exige o "%". A única
+    tolerância: quando o agrupamento do locale é um espaço (NBSP em ru, por exemplo), o espaço comum também é aceito,
+    porque é o que aparece na maioria dos arquivos CSV.
+
+    Erros são reportados com ParseException e a posição do problema, como no NumberFormat.parse. As instâncias não são
+    thread-safe (guardam o estado do último parse), então of() devolve uma instância por thread.
+     */
+
+    private static final ConcurrentMap<Locale, ThreadLocal<LocaleNumberParser>> PARSERS = new ConcurrentHashMap<>();
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+    private static final double[] EXACT_POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+        EXACT_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < EXACT_POWERS_OF_TEN.length; i++) {
+            EXACT_POWERS_OF_TEN[i] = EXACT_POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final Symbols symbols;
+
+    // Resultado do último scan: valor = (negative ? -1 : 1) * mantissa * 10^exponent
+    private boolean negative;
+    private long mantissa;
+    private int exponent;
+    private boolean truncated;
+
+    private LocaleNumberParser(Symbols symbols) {
+        this.symbols = symbols;
+    }
+
+    /* Parser da thread atual para o locale. Não passe a instância para outra thread. */
+    public static LocaleNumberParser of(Locale locale) {
+        ThreadLocal<LocaleNumberParser> parser = PARSERS.get(locale);
+        if (parser == null) {
+            parser = PARSERS.computeIfAbsent(locale, l -> {
+                Symbols symbols = new Symbols(l);
+                return ThreadLocal.withInitial(() -> new LocaleNumberParser(symbols));
+            });
+        }
+        return parser.get();
+    }
+
+    public long parseLong(CharSequence text) throws ParseException {
+        return parseLong(Style.NUMBER, text, 0, text.length());
+    }
+
+    public double parseDouble(CharSequence text) throws ParseException {
+        return parseDouble(Style.NUMBER, text, 0, text.length());
+    }
+
+    /* "£1.7" -> 1.7 */
+    public double parseCurrency(CharSequence text) throws ParseException {
+        return parseDouble(Style.CURRENCY, text, 0, text.length());
+    }
+
+    /* "12%" -> 0.12, igual ao NumberFormat.getPercentInstance */
+    public double parsePercent(CharSequence text) throws ParseException {
+        return parseDouble(Style.PERCENT, text, 0, text.length());
+    }
+
+    /* Inteiro. Casas decimais só são aceitas se forem zero ("54,321.00"). */
+    public long parseLong(Style style, CharSequence text, int start, int end) throws ParseException {
+        long started = Instrumentation.begin();
+        try {
+            scan(style, text, start, end);
+            long unscaled = toUnscaled(0, start);
+            return negative ? -unscaled : unscaled;
+        } finally {
+            Instrumentation.end(Operation.NUMBER_PARSE, symbols.locale, started);
+        }
+    }
+
+    public double parseDouble(Style style, CharSequence text, int start, int end) throws ParseException {
+        long started = Instrumentation.begin();
+        try {
+            scan(style, text, start, end);
+            double value;
+            if (truncated) {
+                value = Double.parseDouble(digits(text, start, end) + "E" + (style == Style.PERCENT ? -2 : 0));
+            } else if (mantissa < (1L << 53) && Math.abs(exponent) < EXACT_POWERS_OF_TEN.length) {
+                // mantissa e 10^|exponent| são exatos em double, então uma única operação dá o valor corretamente
+                // arredondado
+                value = exponent < 0
+                        ? mantissa / EXACT_POWERS_OF_TEN[-exponent]
+                        : mantissa * EXACT_POWERS_OF_TEN[exponent];
+            } else {
+                value = Double.parseDouble(mantissa + "E" + exponent);
+            }
+            return negative ? -value : value;
+        } finally {
+            Instrumentation.end(Operation.NUMBER_PARSE, symbols.locale, started);
+        }
+    }
+
+    /*
+    Valor multiplicado por 10^scale, como o unscaledValue() de um BigDecimal com esse scale: "£1.7" com scale 2 é 170.
+    Lança ParseException se o texto tiver mais casas decimais que o scale ou se o resultado não couber em um long.
+     */
+    public long parseUnscaled(Style style, CharSequence text, int start, int end, int scale) throws ParseException {
+        long started = Instrumentation.begin();
+        try {
+            scan(style, text, start, end);
+            long unscaled = toUnscaled(scale, start);
+            return negative ? -unscaled : unscaled;
+        } finally {
+            Instrumentation.end(Operation.NUMBER_PARSE, symbols.locale, started);
+        }
+    }
+
+    private long toUnscaled(int scale, int errorOffset) throws ParseException {
+        if (truncated) {
+            throw new ParseException("Number out of range", errorOffset);
+        }
+        int shift = exponent + scale;
+        if (shift >= 0) {
+            if (mantissa == 0) {
+                return 0;
+            }
+            if (shift >= POWERS_OF_TEN.length) {
+                throw new ParseException("Number out of range", errorOffset);
+            }
+            long power = POWERS_OF_TEN[shift];
+            if (mantissa > Long.MAX_VALUE / power) {
+                throw new ParseException("Number out of range", errorOffset);
+            }
+            return mantissa * power;
+        }
+        if (-shift >= POWERS_OF_TEN.length || mantissa % POWERS_OF_TEN[-shift] != 0) {
+            throw new ParseException("Too many fraction digits for scale " + scale, errorOffset);
+        }
+        return mantissa / POWERS_OF_TEN[-shift];
+    }
+
+    private void scan(Style style, CharSequence text, int start, int end) throws ParseException {
+        Affixes affixes = symbols.affixes[style.ordinal()];
+        boolean positive = matches(affixes.positivePrefix, text, start, end)
+                && endsWith(affixes.positiveSuffix, text, start + affixes.positivePrefix.length(), end);
+        boolean negativeMatch = matches(affixes.negativePrefix, text, start, end)
+                && endsWith(affixes.negativeSuffix, text, start + affixes.negativePrefix.length(), end);
+        // Como no DecimalFormat, se os dois baterem fica o prefixo mais longo ("-£" ganha de "£").
+        if (negativeMatch && (!positive || affixes.negativePrefix.length() + affixes.negativeSuffix.length()
+                > affixes.positivePrefix.length() + affixes.positiveSuffix.length())) {
+            negative = true;
+            start += affixes.negativePrefix.length();
+            end -= affixes.negativeSuffix.length();
+        } else if (positive) {
+            negative = false;
+            start += affixes.positivePrefix.length();
+            end -= affixes.positiveSuffix.length();
+        } else {
+            throw new ParseException("Unparseable number: prefix or suffix does not match", start);
+        }
+
+        long value = 0;
+        int exp = 0;
+        boolean lost = false;
+        boolean fraction = false;
+        boolean anyDigit = false;
+        char zero = symbols.zeroDigit;
+        for (int i = start; i < end; i++) {
+            char ch = text.charAt(i);
+            int digit = ch >= '0' && ch <= '9' ? ch - '0' : ch >= zero && ch <= zero + 9 ? ch - zero : -1;
+            if (digit >= 0) {
+                anyDigit = true;
+                if (value <= (Long.MAX_VALUE - digit) / 10) {
+                    value = value * 10 + digit;
+                    if (fraction) {
+                        exp--;
+                    }
+                } else {
+                    // Dígito que não cabe no long: na parte inteira aumenta o expoente, na fração é descartado.
+                    lost |= digit != 0;
+                    if (!fraction) {
+                        exp++;
+                    }
+                }
+            } else if (ch == symbols.decimal && !fraction) {
+                fraction = true;
+            } else if (!fraction && anyDigit && symbols.isGrouping(ch) && i + 1 < end && isDigit(text.charAt(i + 1))) {
+                // separador de agrupamento entre dígitos da parte inteira
+            } else {
+                throw new ParseException("Unparseable number: unexpected '" + ch + "'", i);
+            }
+        }
+        if (!anyDigit) {
+            throw new ParseException("Unparseable number: no digits", start);
+        }
+        mantissa = value;
+        // Porcentagem: "12%" é 0.12
+        exponent = style == Style.PERCENT ? exp - 2 : exp;
+        truncated = lost;
+    }
+
+    private boolean isDigit(char ch) {
+        return (ch >= '0' && ch <= '9') || (ch >= symbols.zeroDigit && ch <= symbols.zeroDigit + 9);
+    }
+
+    /* Só os dígitos e o ponto decimal, para o caminho lento do Double.parseDouble (números com mais de 18 dígitos). */
+    private String digits(CharSequence text, int start, int end) {
+        StringBuilder digits = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char ch = text.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                digits.append(ch);
+            } else if (ch >= symbols.zeroDigit && ch <= symbols.zeroDigit + 9) {
+                digits.append((char) ('0' + ch - symbols.zeroDigit));
+            } else if (ch == symbols.decimal) {
+                digits.append('.');
+            }
+        }
+        return digits.toString();
+    }
+
+    private static boolean matches(String affix, CharSequence text, int start, int end) {
+        if (end - start < affix.length()) {
+            return false;
+        }
+        for (int i = 0; i < affix.length(); i++) {
+            if (text.charAt(start + i) != affix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean endsWith(String affix, CharSequence text, int start, int end) {
+        return end - start >= affix.length() && matches(affix, text, end - affix.length(), end);
+    }
+
+    /* Símbolos do locale, lidos uma vez e compartilhados entre as instâncias de todas as threads. */
+    private static final class Symbols {
+        private final Locale locale;
+        private final char grouping;
+        private final char decimal;
+        private final char zeroDigit;
+        private final boolean spaceGrouping;
+        private final Affixes[] affixes = new Affixes[Style.values().length];
+
+        Symbols(Locale locale) {
+            this.locale = locale;
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+            this.grouping = symbols.getGroupingSeparator();
+            this.decimal = symbols.getDecimalSeparator();
+            this.zeroDigit = symbols.getZeroDigit();
+            this.spaceGrouping = Character.isSpaceChar(grouping);
+            for (Style style : Style.values()) {
+                affixes[style.ordinal()] = new Affixes(LocaleFormatters.formatter(locale, style));
+            }
+        }
+
+        boolean isGrouping(char ch) {
+            return ch == grouping || (spaceGrouping && Character.isSpaceChar(ch));
+        }
+    }
+
+    private static final class Affixes {
+        private final String positivePrefix;
+        private final String positiveSuffix;
+        private final String negativePrefix;
+        private final String negativeSuffix;
+
+        Affixes(NumberFormat format) {
+            if (format instanceof DecimalFormat) {
+                DecimalFormat decimal = (DecimalFormat) format;
+                positivePrefix = decimal.getPositivePrefix();
+                positiveSuffix = decimal.getPositiveSuffix();
+                negativePrefix = decimal.getNegativePrefix();
+                negativeSuffix = decimal.getNegativeSuffix();
+            } else {
+                positivePrefix = "";
+                positiveSuffix = "";
+                negativePrefix = "-";
+                negativeSuffix = "";
+            }
+        }
+    }
+}
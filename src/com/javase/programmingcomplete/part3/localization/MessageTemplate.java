@@ -0,0 +1,377 @@
+package com.javase.programmingcomplete.part3.localization;
+
+import com.javase.programmingcomplete.part3.instrumentation.Instrumentation;
+import com.javase.programmingcomplete.part3.instrumentation.Operation;
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters.Style;
+import com.javase.programmingcomplete.part3.strings.StringBuilderPool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.text.DateFormat;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class MessageTemplate {
+
+    /*
+    Template pré-compilado para os padrões dos resource bundles.
+    MessageFormat.format(pattern, args...) faz o parse do padrão ("{0}, price {1}, quantity {2}, best before {3}") toda
+    vez que é chamado, e ainda obriga a colocar os argumentos em um Object[] (o int quantity vira Integer).
+
+    Aqui o padrão é lido uma única vez e vira uma lista de segmentos: texto literal ou o índice de um argumento. Para
+    renderizar, os argumentos são colocados em um Binder (um por thread, reusado) que guarda números primitivos em um
+    long[]/double[] sem boxing, e o resultado é escrito direto no StringBuilder ou Appendable de quem chamou.
+
+    As regras de formatação são as mesmas do MessageFormat:
+    - '' vira uma aspa simples e o texto entre aspas simples é literal ('{0}' não é argumento);
+    - Number é formatado com o NumberFormat do locale (12345 vira 12,345 em en_GB), Date com o formato SHORT do locale,
+      null vira "null" e qualquer outro objeto usa toString();
+    - argumento não informado é escrito como o próprio placeholder ({3}), inclusive quando um do meio fica sem valor
+      (onde o MessageFormat.format(Object[]) escreveria "null").
+    Se o padrão usar tipos de formato ({1,number,#.##}, {0,choice,...}), o template delega para um MessageFormat.
+
+    O Binder guarda os argumentos em arrays do tamanho do maior índice do padrão, então índices a partir de
+    MAX_ARGUMENTS nunca recebem valor: são escritos como o placeholder, como o MessageFormat faz com um índice além dos
+    argumentos passados, e um {99999999} em um bundle não faz cada bind() alocar arrays enormes.
+     */
+
+    public static final int MAX_ARGUMENTS = 1024;
+
+    private static final ConcurrentMap<String, ConcurrentMap<Locale, ConcurrentMap<String, MessageTemplate>>> BUNDLES =
+            new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Binder> BINDER = ThreadLocal.withInitial(Binder::new);
+
+    private final Locale locale;
+    /* Para cada segmento: o texto literal, ou null quando o segmento é um argumento. */
+    private final String[] literals;
+    /* Para cada segmento: o índice do argumento, ou -1 quando o segmento é literal. */
+    private final int[] arguments;
+    private final int argumentCount;
+    private final int estimatedLength;
+    private final MessageFormat fallback;
+    private final StringBuilderPool.Site site;
+
+    private MessageTemplate(Locale locale, String[] literals, int[] arguments, MessageFormat fallback) {
+        this.locale = locale;
+        this.literals = literals;
+        this.arguments = arguments;
+        this.fallback = fallback;
+        int count = 0;
+        int length = 0;
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] < 0) {
+                length += literals[i].length();
+            } else {
+                count = Math.max(count, arguments[i] + 1);
+                length += 8;
+            }
+        }
+        this.argumentCount = count;
+        this.estimatedLength = length;
+        this.site = StringBuilderPool.shared().newSite(length);
+    }
+
+    /*
+    Template de uma chave de um resource bundle. O bundle é lido e o padrão é compilado só na primeira vez para cada
+    (baseName, locale, key).
+     */
+    public static MessageTemplate of(String baseName, Locale locale, String key) {
+        return BUNDLES.computeIfAbsent(baseName, b -> new ConcurrentHashMap<>())
+                .computeIfAbsent(locale, l -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key, k -> compile(ResourceBundle.getBundle(baseName, locale).getString(k), locale));
+    }
+
+    public static MessageTemplate compile(String pattern, Locale locale) {
+        int length = pattern.length();
+        String[] literals = new String[8];
+        int[] arguments = new int[8];
+        int segments = 0;
+        boolean needsFallback = false;
+        StringBuilder literal = new StringBuilder();
+        boolean inQuote = false;
+
+        for (int i = 0; i < length; i++) {
+            char ch = pattern.charAt(i);
+            if (ch == '\'') {
+                if (i + 1 < length && pattern.charAt(i + 1) == '\'') {
+                    literal.append('\'');
+                    i++;
+                } else {
+                    inQuote = !inQuote;
+                }
+            } else if (ch == '{' && !inQuote) {
+                int end = argumentEnd(pattern, i + 1);
+                String argument = pattern.substring(i + 1, end);
+                int comma = argument.indexOf(',');
+                String index = comma < 0 ? argument : argument.substring(0, comma);
+                if (comma >= 0 && !argument.substring(comma + 1).trim().isEmpty()) {
+                    needsFallback = true;
+                }
+                if (segments + 2 > literals.length) {
+                    literals = Arrays.copyOf(literals, segments * 2);
+                    arguments = Arrays.copyOf(arguments, segments * 2);
+                }
+                int value = parseIndex(index);
+                i = end;
+                if (value >= MAX_ARGUMENTS) {
+                    literal.append('{').append(value).append('}');
+                    continue;
+                }
+                if (literal.length() > 0) {
+                    literals[segments] = literal.toString();
+                    arguments[segments++] = -1;
+                    literal.setLength(0);
+                }
+                arguments[segments++] = value;
+            } else {
+                literal.append(ch);
+            }
+        }
+        if (segments + 1 > literals.length) {
+            literals = Arrays.copyOf(literals, segments + 1);
+            arguments = Arrays.copyOf(arguments, segments + 1);
+        }
+        if (literal.length() > 0 || segments == 0) {
+            literals[segments] = literal.toString();
+            arguments[segments++] = -1;
+        }
+        return new MessageTemplate(locale,
+                Arrays.copyOf(literals, segments),
+                Arrays.copyOf(arguments, segments),
+                needsFallback ? new MessageFormat(pattern, locale) : null);
+    }
+
+    private static int argumentEnd(String pattern, int from) {
+        int depth = 0;
+        boolean inQuote = false;
+        for (int i = from; i < pattern.length(); i++) {
+            char ch = pattern.charAt(i);
+            if (ch == '\'') {
+                inQuote = !inQuote;
+            } else if (!inQuote && ch == '{') {
+                depth++;
+            } else if (!inQuote && ch == '}') {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            }
+        }
+        throw new IllegalArgumentException("Unmatched braces in the pattern.");
+    }
+
+    private static int parseIndex(String index) {
+        try {
+            int value = Integer.parseInt(index);
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // cai no erro abaixo, igual ao MessageFormat
+        }
+        throw new IllegalArgumentException("can't parse argument number: " + index);
+    }
+
+    public Locale locale() {
+        return locale;
+    }
+
+    public int argumentCount() {
+        return argumentCount;
+    }
+
+    /* Tamanho aproximado do resultado, útil para dimensionar o StringBuilder. */
+    public int estimatedLength() {
+        return estimatedLength;
+    }
+
+    /*
+    Retorna o Binder da thread atual, limpo e ligado a esse template. Preencha os argumentos e chame renderTo().
+    O Binder é reusado, então não guarde a referência e não comece outra renderização na mesma thread no meio de uma
+    (por exemplo dentro de um toString() de argumento).
+     */
+    public Binder bind() {
+        return BINDER.get().reset(this);
+    }
+
+    /*
+    Atalho para bind(), arg() de cada argumento e render(). Dá o mesmo que new MessageFormat(pattern, locale())
+    .format(args), não o MessageFormat.format(pattern, args...) estático, que formata com o locale default.
+     */
+    public String format(Object... args) {
+        Binder binder = bind();
+        for (int i = 0; i < args.length; i++) {
+            binder.arg(i, args[i]);
+        }
+        return binder.render();
+    }
+
+    public static final class Binder {
+        private static final byte UNSET = 0;
+        private static final byte LONG = 1;
+        private static final byte DOUBLE = 2;
+        private static final byte OBJECT = 3;
+
+        private MessageTemplate template;
+        private byte[] kinds = new byte[8];
+        private long[] longs = new long[8];
+        private double[] doubles = new double[8];
+        private Object[] objects = new Object[8];
+        private final StringBuilder scratch = new StringBuilder(64);
+
+        private Binder() {
+        }
+
+        private Binder reset(MessageTemplate template) {
+            this.template = template;
+            int count = template.argumentCount;
+            if (count > kinds.length) {
+                kinds = new byte[count];
+                longs = new long[count];
+                doubles = new double[count];
+                objects = new Object[count];
+            } else {
+                Arrays.fill(kinds, 0, count, UNSET);
+                Arrays.fill(objects, 0, count, null);
+            }
+            return this;
+        }
+
+        public Binder arg(int index, long value) {
+            if (index < template.argumentCount) {
+                kinds[index] = LONG;
+                longs[index] = value;
+            }
+            return this;
+        }
+
+        public Binder arg(int index, double value) {
+            if (index < template.argumentCount) {
+                kinds[index] = DOUBLE;
+                doubles[index] = value;
+            }
+            return this;
+        }
+
+        public Binder arg(int index, Object value) {
+            if (index < template.argumentCount) {
+                kinds[index] = OBJECT;
+                objects[index] = value;
+            }
+            return this;
+        }
+
+        /* O StringBuilder vem do StringBuilderPool, já com o tamanho das últimas mensagens desse template. */
+        public String render() {
+            try (StringBuilderPool.Lease lease = template.site.acquire()) {
+                return renderTo(lease.builder()).toString();
+            }
+        }
+
+        public StringBuilder renderTo(StringBuilder out) {
+            MessageTemplate t = template;
+            long started = Instrumentation.begin();
+            try {
+                if (t.fallback != null) {
+                    return renderFallback(out);
+                }
+                String[] literals = t.literals;
+                int[] arguments = t.arguments;
+                for (int i = 0; i < arguments.length; i++) {
+                    int index = arguments[i];
+                    if (index < 0) {
+                        out.append(literals[i]);
+                    } else {
+                        appendArgument(index, out);
+                    }
+                }
+                template = null;
+                return out;
+            } finally {
+                Instrumentation.end(Operation.MESSAGE_FORMAT, t.locale, started);
+            }
+        }
+
+        public <A extends Appendable> A renderTo(A out) {
+            if (out instanceof StringBuilder) {
+                renderTo((StringBuilder) out);
+                return out;
+            }
+            scratch.setLength(0);
+            renderTo(scratch);
+            try {
+                out.append(scratch);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out;
+        }
+
+        private void appendArgument(int index, StringBuilder out) {
+            Locale locale = template.locale;
+            switch (kinds[index]) {
+                case LONG:
+                    LocaleFormatters.formatTo(locale, Style.NUMBER, longs[index], out);
+                    break;
+                case DOUBLE:
+                    LocaleFormatters.formatTo(locale, Style.NUMBER, doubles[index], out);
+                    break;
+                case OBJECT:
+                    appendObject(objects[index], out);
+                    break;
+                default:
+                    out.append('{').append(index).append('}');
+            }
+        }
+
+        private void appendObject(Object value, StringBuilder out) {
+            Locale locale = template.locale;
+            if (value instanceof String) {
+                out.append((String) value);
+            } else if (value instanceof CharSequence) {
+                // Um StringBuilder de rascunho (valor já formatado) é copiado sem virar String.
+                out.append((CharSequence) value);
+            } else if (value instanceof BigDecimal) {
+                LocaleFormatters.formatTo(locale, Style.NUMBER, (BigDecimal) value, out);
+            } else if (value instanceof Number) {
+                LocaleFormatters.formatTo(locale, Style.NUMBER, (Number) value, out);
+            } else if (value instanceof Date) {
+                out.append(DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, locale).format(value));
+            } else {
+                out.append(value);
+            }
+        }
+
+        private StringBuilder renderFallback(StringBuilder out) {
+            int count = template.argumentCount;
+            Object[] args = new Object[count];
+            MessageFormat format = (MessageFormat) template.fallback.clone();
+            for (int i = 0; i < count; i++) {
+                switch (kinds[i]) {
+                    case LONG:
+                        args[i] = longs[i];
+                        break;
+                    case DOUBLE:
+                        args[i] = doubles[i];
+                        break;
+                    case OBJECT:
+                        args[i] = objects[i];
+                        break;
+                    default:
+                        // Sem valor: sem formato, o MessageFormat escreve o texto como está, igual ao caminho rápido.
+                        format.setFormatByArgumentIndex(i, null);
+                        args[i] = "{" + i + "}";
+                }
+            }
+            template = null;
+            return out.append(format.format(args));
+        }
+    }
+}
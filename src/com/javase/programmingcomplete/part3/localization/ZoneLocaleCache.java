@@ -0,0 +1,375 @@
+package com.javase.programmingcomplete.part3.localization;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.time.zone.ZoneRulesException;
+import java.util.HashMap;
+import java.util.IllformedLocaleException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+public final class ZoneLocaleCache {
+
+    /*
+    Cache de ZoneId e Locale para textos que chegam de fora (um campo "zone" ou "locale" em cada requisição de uma API).
+    O P3ZonedDateTime mostra ZoneId.of("America/Los_Angeles"), ZoneId.of("GMT+2"), ZoneId.of("UTC-05:00") e
+    Locale.forLanguageTag("th-TH-u-ca-buddhist-nu-thai"): cada chamada faz o parse do texto de novo, e um texto inválido
+    lança uma exceção (com stack trace) toda vez que aparece.
+
+    Aqui cada texto é resolvido uma vez:
+    - o texto é canonicalizado antes do parse (espaços nas pontas, maiúsculas e minúsculas do nome da região e do
+      prefixo UTC/GMT/UT, "-" no lugar de "_" e maiúsculas e minúsculas na tag BCP 47), então " america/los_angeles " e
+      "America/Los_Angeles", ou "EN_us" e "en-US", dão a mesma instância de ZoneId ou Locale;
+    - textos inválidos também ficam no cache (entrada negativa), com a mensagem do erro. zoneId(text) e locale(text)
+      lançam uma exceção nova com essa mensagem, sem repetir o parse; zoneId(text, default) e locale(text, default)
+      devolvem o default e não lançam nada;
+    - as ZoneRules da zone são carregadas na primeira resolução (não na primeira conversão de data) e ficam na entrada,
+      disponíveis por rules(text);
+    - textos maiores que MAX_INPUT_LENGTH são recusados sem entrar no cache, para que textos enormes não ocupem memória.
+
+    A Locale é montada com o Locale.Builder, que recusa tags mal formadas (IllformedLocaleException), diferente do
+    Locale.forLanguageTag, que ignora o que não entende e devolve outro locale sem avisar.
+
+    O cache tem tamanho máximo por tipo (zones e locales separados), pois o texto vem de fora e pode ser qualquer coisa.
+    A busca é um get em um ConcurrentHashMap, sem lock. As inserções são divididas em segmentos pelo hash, cada um com
+    seu lock e sua parte do tamanho máximo, e quando um segmento enche sai uma entrada pouco usada, escolhida pelo
+    algoritmo CLOCK, como no StringInterner. As métricas (hits, hits negativos, misses, remoções e textos recusados)
+    são LongAdders.
+     */
+
+    public static final int MAX_INPUT_LENGTH = 128;
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_PER_SEGMENT = 16;
+    private static final String[] OFFSET_PREFIXES = {"UTC", "GMT", "UT"};
+
+    /* Nome da região em minúsculas -> nome oficial. Montado na primeira zone por nome. */
+    private static volatile Map<String, String> regionIds;
+
+    private final Table zones;
+    private final Table locales;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private ZoneLocaleCache(int maxSize) {
+        zones = new Table(maxSize);
+        locales = new Table(maxSize);
+    }
+
+    /* Guarda no máximo maxSize textos de zone e maxSize textos de locale (contando as entradas negativas). */
+    public static ZoneLocaleCache bounded(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        return new ZoneLocaleCache(maxSize);
+    }
+
+    /* Mesmo contrato do ZoneId.of: DateTimeException (ou ZoneRulesException para regiões desconhecidas). */
+    public ZoneId zoneId(String text) {
+        Entry entry = zoneEntry(text);
+        if (entry.value == null) {
+            throw entry.zoneException();
+        }
+        return (ZoneId) entry.value;
+    }
+
+    /* A zone do texto, ou defaultZone se o texto não for uma zone válida. Não lança exceção. */
+    public ZoneId zoneId(String text, ZoneId defaultZone) {
+        Entry entry = zoneEntry(text);
+        return entry.value == null ? defaultZone : (ZoneId) entry.value;
+    }
+
+    /* As ZoneRules da zone do texto, já carregadas. */
+    public ZoneRules rules(String text) {
+        Entry entry = zoneEntry(text);
+        if (entry.value == null) {
+            throw entry.zoneException();
+        }
+        return entry.rules;
+    }
+
+    /* O Locale da tag BCP 47 (ou no formato en_US), ou IllformedLocaleException se a tag for mal formada. */
+    public Locale locale(String text) {
+        Entry entry = localeEntry(text);
+        if (entry.value == null) {
+            throw new IllformedLocaleException(entry.error);
+        }
+        return (Locale) entry.value;
+    }
+
+    /* O Locale do texto, ou defaultLocale se a tag for mal formada. Não lança exceção. */
+    public Locale locale(String text, Locale defaultLocale) {
+        Entry entry = localeEntry(text);
+        return entry.value == null ? defaultLocale : (Locale) entry.value;
+    }
+
+    /* Quantidade de textos guardados, de zones e de locales, incluindo as entradas negativas. */
+    public int size() {
+        return zones.map.size() + locales.map.size();
+    }
+
+    /* Buscas achadas no cache com um valor válido. */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /* Buscas achadas no cache com uma entrada negativa (texto inválido já visto). */
+    public long negativeHitCount() {
+        return negativeHits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /* Entradas removidas pelo limite de tamanho. */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /* Textos maiores que MAX_INPUT_LENGTH, recusados sem passar pelo cache. */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public double hitRate() {
+        long hitCount = hits.sum() + negativeHits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public void clear() {
+        zones.clear();
+        locales.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ZoneLocaleCache[size=%d, hits=%d, negativeHits=%d, misses=%d, evictions=%d, "
+                        + "rejected=%d, hitRate=%.3f]", size(), hitCount(), negativeHitCount(), missCount(),
+                evictionCount(), rejectedCount(), hitRate());
+    }
+
+    private Entry zoneEntry(String text) {
+        Entry entry = lookup(zones, text);
+        if (entry == null) {
+            entry = text.length() > MAX_INPUT_LENGTH
+                    ? Entry.invalid(text, "Zone ID longer than " + MAX_INPUT_LENGTH + " characters")
+                    : zones.resolve(text, canonicalZone(text), ZoneLocaleCache::resolveZone);
+        }
+        return entry;
+    }
+
+    private Entry localeEntry(String text) {
+        Entry entry = lookup(locales, text);
+        if (entry == null) {
+            entry = text.length() > MAX_INPUT_LENGTH
+                    ? Entry.invalid(text, "Language tag longer than " + MAX_INPUT_LENGTH + " characters")
+                    : locales.resolve(text, canonicalLocale(text), ZoneLocaleCache::resolveLocale);
+        }
+        return entry;
+    }
+
+    private Entry lookup(Table table, String text) {
+        Entry entry = table.map.get(Objects.requireNonNull(text, "text"));
+        if (entry != null) {
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            (entry.value != null ? hits : negativeHits).increment();
+            return entry;
+        }
+        if (text.length() > MAX_INPUT_LENGTH) {
+            rejected.increment();
+        } else {
+            misses.increment();
+        }
+        return null;
+    }
+
+    private static Entry resolveZone(String canonical) {
+        try {
+            ZoneId zone = ZoneId.of(canonical);
+            return new Entry(canonical, zone, zone.getRules(), null, false);
+        } catch (DateTimeException e) {
+            return new Entry(canonical, null, null, e.getMessage(), e instanceof ZoneRulesException);
+        }
+    }
+
+    private static Entry resolveLocale(String canonical) {
+        try {
+            return new Entry(canonical, new Locale.Builder().setLanguageTag(canonical).build(), null, null, false);
+        } catch (IllformedLocaleException e) {
+            return new Entry(canonical, null, null, e.getMessage(), false);
+        }
+    }
+
+    /*
+    Zone: sem espaços nas pontas; prefixo UTC/GMT/UT e "Z" em maiúsculas; nome de região com as maiúsculas do nome
+    oficial. O resto (offsets como +02:00, textos inválidos) fica como está, e o ZoneId.of decide.
+     */
+    static String canonicalZone(String text) {
+        String zone = text.strip();
+        if (zone.equalsIgnoreCase("Z")) {
+            return "Z";
+        }
+        for (String prefix : OFFSET_PREFIXES) {
+            if (zone.regionMatches(true, 0, prefix, 0, prefix.length())
+                    && (zone.length() == prefix.length() || zone.charAt(prefix.length()) == '+'
+                    || zone.charAt(prefix.length()) == '-')) {
+                return prefix + zone.substring(prefix.length());
+            }
+        }
+        if (zone.isEmpty() || zone.charAt(0) == '+' || zone.charAt(0) == '-') {
+            return zone;
+        }
+        String region = regionIds().get(zone.toLowerCase(Locale.ROOT));
+        return region != null ? region : zone;
+    }
+
+    /* Locale: sem espaços nas pontas, "_" vira "-" e tudo em minúsculas (tags BCP 47 não diferenciam maiúsculas). */
+    static String canonicalLocale(String text) {
+        return text.strip().replace('_', '-').toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, String> regionIds() {
+        Map<String, String> ids = regionIds;
+        if (ids == null) {
+            Map<String, String> byLowerCase = new HashMap<>();
+            for (String id : ZoneId.getAvailableZoneIds()) {
+                byLowerCase.put(id.toLowerCase(Locale.ROOT), id);
+            }
+            ids = Map.copyOf(byLowerCase);
+            regionIds = ids;
+        }
+        return ids;
+    }
+
+    /* Uma entrada do cache. value é a ZoneId ou o Locale, ou null para uma entrada negativa (com a mensagem em error). */
+    private static final class Entry {
+        final String key;
+        final Object value;
+        final ZoneRules rules;
+        final String error;
+        final boolean unknownRegion;
+        // Escrito sem sincronização nos hits; perder uma marcação só antecipa a remoção da entrada.
+        boolean referenced;
+
+        Entry(String key, Object value, ZoneRules rules, String error, boolean unknownRegion) {
+            this.key = key;
+            this.value = value;
+            this.rules = rules;
+            this.error = error;
+            this.unknownRegion = unknownRegion;
+        }
+
+        static Entry invalid(String key, String error) {
+            return new Entry(key, null, null, error, false);
+        }
+
+        /* A mesma resolução guardada com outro texto (o texto original de uma forma canônica já resolvida). */
+        Entry alias(String key) {
+            return new Entry(key, value, rules, error, unknownRegion);
+        }
+
+        DateTimeException zoneException() {
+            return unknownRegion ? new ZoneRulesException(error) : new DateTimeException(error);
+        }
+    }
+
+    /* As entradas de um tipo (zones ou locales). */
+    private final class Table {
+        final ConcurrentMap<String, Entry> map = new ConcurrentHashMap<>();
+        final Segment[] segments;
+
+        Table(int maxSize) {
+            int segmentCount = MAX_SEGMENTS;
+            while (segmentCount > 1 && maxSize / segmentCount < MIN_PER_SEGMENT) {
+                segmentCount >>= 1;
+            }
+            segments = new Segment[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                segments[i] = new Segment(maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0));
+            }
+        }
+
+        /*
+        Resolve o texto pela forma canônica: se ela já está no cache, reaproveita a instância; senão faz o parse (fora
+        do lock) e guarda a forma canônica e, se for diferente, o texto original.
+         */
+        Entry resolve(String text, String canonical, Function<String, Entry> parser) {
+            Entry resolved = map.get(canonical);
+            if (resolved == null) {
+                resolved = insert(parser.apply(canonical));
+            }
+            return text.equals(canonical) ? resolved : insert(resolved.alias(text));
+        }
+
+        void clear() {
+            for (Segment segment : segments) {
+                synchronized (segment) {
+                    segment.clear();
+                }
+            }
+        }
+
+        private Entry insert(Entry entry) {
+            Segment segment = segments[(entry.key.hashCode() * 0x9E3779B9) >>> 16 & (segments.length - 1)];
+            synchronized (segment) {
+                // Outra thread pode ter inserido enquanto esta fazia o parse.
+                Entry existing = map.get(entry.key);
+                if (existing != null) {
+                    return existing;
+                }
+                segment.add(entry);
+                map.put(entry.key, entry);
+                return entry;
+            }
+        }
+
+        private final class Segment {
+            private final Entry[] clock;
+            private int count;
+            private int hand;
+
+            Segment(int maxSize) {
+                clock = new Entry[Math.max(maxSize, 1)];
+            }
+
+            /* Chamado com o lock do segmento. */
+            void add(Entry entry) {
+                if (count < clock.length) {
+                    clock[count++] = entry;
+                    return;
+                }
+                // CLOCK: pula (e desmarca) as entradas com hit desde a última volta.
+                while (clock[hand].referenced) {
+                    clock[hand].referenced = false;
+                    hand = hand + 1 == clock.length ? 0 : hand + 1;
+                }
+                map.remove(clock[hand].key, clock[hand]);
+                evictions.increment();
+                clock[hand] = entry;
+                hand = hand + 1 == clock.length ? 0 : hand + 1;
+            }
+
+            void clear() {
+                for (int i = 0; i < count; i++) {
+                    map.remove(clock[i].key, clock[i]);
+                    clock[i] = null;
+                }
+                count = 0;
+                hand = 0;
+            }
+        }
+    }
+}
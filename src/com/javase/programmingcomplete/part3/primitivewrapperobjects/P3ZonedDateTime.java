@@ -1,5 +1,10 @@
 package com.javase.programmingcomplete.part3.primitivewrapperobjects;
 
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters;
+import com.javase.programmingcomplete.part3.localization.LocaleNumberParser;
+import com.javase.programmingcomplete.part3.localization.MessageTemplate;
+import com.javase.programmingcomplete.part3.strings.StringBuilderPool;
+
 import java.math.BigDecimal;
 import java.text.MessageFormat;
 import java.text.NumberFormat;
@@ -12,6 +17,8 @@ import java.util.ResourceBundle;
 
 public class P3ZonedDateTime {
 
+    private static final StringBuilderPool.Site PRODUCT_MESSAGE = StringBuilderPool.shared().site("product");
+
     /*
     ZonedDateTime.
     Primeiro você precisa descobrir qual o timezone que você precisa usar. Para isso, é usado a classe ZoneId.
@@ -102,10 +109,21 @@ public class P3ZonedDateTime {
         // e retorna um objeto do tipo Number (classe pai de BigDecimal e de todas as outras classes wrappers de números).
         // Então você precisa converter esse Number para o tipo específico que eu preciso apresentar (BigDecimal? Double?
         // Algum tipo primitivo?)
+        // Cuidado com o cast direto: (Double) currencyFormat.parse("£2") lança ClassCastException, porque quando o valor
+        // não tem casas decimais o parse devolve um Long. Por isso usamos doubleValue() ao invés de (Double).
         try {
-            BigDecimal p = BigDecimal.valueOf((Double) currencyFormat.parse("£1.7"));
-            Double t = (Double) percentageFormat.parse("12%");
+            BigDecimal p = BigDecimal.valueOf(currencyFormat.parse("£1.7").doubleValue());
+            Double t = percentageFormat.parse("12%").doubleValue();
             int q = numberFormat.parse("54,321").intValue();
+
+            // O LocaleNumberParser faz o mesmo parse direto para primitivos, sem criar o Number.
+            LocaleNumberParser parser = LocaleNumberParser.of(locale);
+            BigDecimal p2 = BigDecimal.valueOf(parser.parseUnscaled(LocaleFormatters.Style.CURRENCY, "£1.7", 0, 4, 2), 2);
+            double t2 = parser.parsePercent("12%");
+            long q2 = parser.parseLong("54,321");
+
+            System.out.println(p + " " + t + " " + q); // 1.7 0.12 54321
+            System.out.println(p2 + " " + t2 + " " + q2); // 1.70 0.12 54321
         } catch (ParseException e) {
             e.printStackTrace();
         }
@@ -190,8 +208,10 @@ public class P3ZonedDateTime {
         BigDecimal price = BigDecimal.valueOf(2.99);
         int quantity = 5;
         LocalDate date = LocalDate.of(2021, Month.APRIL, 10);
-        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(locale);
-        NumberFormat numberFormat = NumberFormat.getNumberInstance(locale);
+        // Aqui os formatters vêm do LocaleFormatters, que guarda uma instância por thread ao invés de construir um
+        // NumberFormat novo a cada chamada (ver usingLocaleNumbers() para o jeito direto).
+        NumberFormat currencyFormat = LocaleFormatters.get(locale, LocaleFormatters.Style.CURRENCY);
+        NumberFormat numberFormat = LocaleFormatters.get(locale, LocaleFormatters.Style.NUMBER);
         DateTimeFormatter dateFomatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).localizedBy(locale);
 
 
@@ -210,8 +230,20 @@ public class P3ZonedDateTime {
 
         // Substitui os valores dentro do padrão especificado, na mesma ordem que aparecem.
         // Cuidar para esses valores também já estarem formatados no locale certo.
-        String message = MessageFormat.format(pattern, name, price, quantity, bestBefore);
+        // O MessageFormat.format estático formata os números no locale default da JVM, por isso o MessageFormat é criado
+        // com o locale do bundle.
+        String message = new MessageFormat(pattern, locale).format(new Object[]{name, price, quantity, bestBefore});
         System.out.println(message);
+
+        /* O MessageFormat faz o parse do padrão e cria um StringBuilder novo (que cresce algumas vezes) a cada chamada.
+        * O MessageTemplate guarda o padrão já compilado (com o locale do bundle, como o MessageFormat acima), e o
+        * StringBuilderPool empresta um builder que já vem com o tamanho das últimas mensagens desse site.  */
+        try (StringBuilderPool.Lease lease = PRODUCT_MESSAGE.acquire()) {
+            MessageTemplate.of("resource.messages", locale, "product").bind()
+                    .arg(0, name).arg(1, price).arg(2, quantity).arg(3, bestBefore)
+                    .renderTo(lease.builder());
+            System.out.println(message.contentEquals(lease.builder())); // true
+        }
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,100 @@
+package com.javase.programmingcomplete.part3.report;
+
+import com.javase.programmingcomplete.part3.datetime.EpochDays;
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters.Style;
+import com.javase.programmingcomplete.part3.localization.LocaleNumberParser;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Locale;
+
+public final class CsvProductSource implements ProductSource, Closeable {
+
+    /*
+    Lê produtos de um arquivo de texto com uma linha por produto, no formato independente de locale:
+        Cookie;2.99;5;2021-04-10
+    (nome; preço com ponto decimal; quantidade; data ISO). Linhas vazias são ignoradas.
+
+    O arquivo é lido em streaming pelo BufferedReader, um lote por vez, então o tamanho do arquivo não importa. Preço e
+    quantidade são lidos pelo LocaleNumberParser de Locale.ROOT direto da linha, sem criar BigDecimal nem Long. Linha
+    inválida lança IOException com o número da linha.
+     */
+
+    private static final char SEPARATOR = ';';
+
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    public CsvProductSource(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    public static CsvProductSource open(Path file, Charset charset) throws IOException {
+        return new CsvProductSource(Files.newBufferedReader(file, charset));
+    }
+
+    @Override
+    public int read(ProductBatch batch) throws IOException {
+        LocaleNumberParser parser = LocaleNumberParser.of(Locale.ROOT);
+        int scale = batch.priceScale();
+        int count = 0;
+        String line;
+        while (!batch.isFull() && (line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty()) {
+                continue;
+            }
+            int priceStart = line.indexOf(SEPARATOR) + 1;
+            int quantityStart = priceStart == 0 ? 0 : line.indexOf(SEPARATOR, priceStart) + 1;
+            int dateStart = quantityStart == 0 ? 0 : line.indexOf(SEPARATOR, quantityStart) + 1;
+            if (dateStart == 0) {
+                throw new IOException("Line " + lineNumber + ": expected name;price;quantity;date but was: " + line);
+            }
+            try {
+                long price = parser.parseUnscaled(Style.NUMBER, line, priceStart, quantityStart - 1, scale);
+                long quantity = parser.parseLong(Style.NUMBER, line, quantityStart, dateStart - 1);
+                batch.add(line.substring(0, priceStart - 1), price, quantity, parseDate(line, dateStart));
+            } catch (ParseException e) {
+                throw new IOException("Line " + lineNumber + ": " + e.getMessage() + ": " + line, e);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /* yyyy-MM-dd, validando mês e dia como o LocalDate.parse. */
+    private static long parseDate(String line, int start) throws ParseException {
+        if (line.length() - start != 10 || line.charAt(start + 4) != '-' || line.charAt(start + 7) != '-') {
+            throw new ParseException("Invalid date", start);
+        }
+        int year = digits(line, start, start + 4);
+        int month = digits(line, start + 5, start + 7);
+        int day = digits(line, start + 8, start + 10);
+        if (month < 1 || month > 12 || day < 1 || day > EpochDays.lengthOfMonth(year, month)) {
+            throw new ParseException("Invalid date", start);
+        }
+        return EpochDays.toEpochDay(year, month, day);
+    }
+
+    private static int digits(String line, int start, int end) throws ParseException {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char ch = line.charAt(i);
+            if (ch < '0' || ch > '9') {
+                throw new ParseException("Invalid date", i);
+            }
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
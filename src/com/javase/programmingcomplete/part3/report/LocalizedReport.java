@@ -0,0 +1,396 @@
+package com.javase.programmingcomplete.part3.report;
+
+import com.javase.programmingcomplete.part3.datetime.BatchDateFormatter;
+import com.javase.programmingcomplete.part3.datetime.TextColumn;
+import com.javase.programmingcomplete.part3.decimal.FixedDecimalArray;
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters;
+import com.javase.programmingcomplete.part3.localization.LocaleFormatters.Style;
+import com.javase.programmingcomplete.part3.localization.MessageTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.chrono.IsoChronology;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.FormatStyle;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public final class LocalizedReport {
+
+    /*
+    Gera uma lista de preços localizada: uma linha por produto, com o padrão "product" do resource bundle
+        product={0}, price {1}, quantity {2}, best before {3}
+    e o preço formatado como moeda, a quantidade como número e a validade com a data MEDIUM do locale. É o
+    P3ZonedDateTime.localizedResources() para um arquivo de vários GB:
+        Cookie, price £2.99, quantity 5, best before 10 Apr 2021
+
+    A entrada é lida em lotes (ProductSource) e cada lote vira um chunk: formatado para texto com o MessageTemplate, o
+    LocaleFormatters e o BatchDateFormatter, e codificado para bytes com um CharsetEncoder próprio do chunk. Os chunks
+    são formatados em paralelo no ForkJoinPool, mas escritos na ordem em que foram lidos, então o arquivo é byte a byte
+    igual ao do caminho sequencial (sequential() no builder), qualquer que seja a quantidade de threads.
+
+    A data é a mesma do DateTimeFormatter.ofLocalizedDate(style).localizedBy(locale). Locales com calendário ou dígitos
+    próprios (th-TH-u-ca-buddhist-nu-thai) formatam a data com esse formatter linha a linha, em vez do
+    BatchDateFormatter.
+
+    Memória limitada: no máximo 2 x parallelism chunks existem ao mesmo tempo (lendo, formatando ou esperando a vez de
+    escrever). Quando a janela enche, a leitura espera o chunk mais antigo ser escrito e reaproveita ele. Então a memória
+    é proporcional a chunkRecords x parallelism, não ao tamanho da entrada.
+
+    A escrita copia os bytes de cada chunk para um único ByteBuffer direto, que é enviado ao canal quando enche. O
+    FileChannel.write com um buffer do heap copiaria para um buffer direto temporário a cada chamada (e o JDK guarda
+    esse temporário por thread, do tamanho da maior escrita).
+
+    Como cada chunk é codificado separadamente, o charset precisa codificar sem estado (UTF-8, ISO-8859-1, windows-1252,
+    Shift_JIS...). Charsets com BOM ou sequências de escape (UTF-16, ISO-2022-JP) escreveriam o cabeçalho em cada chunk,
+    e são recusados no build(). Caracteres que o charset não representa viram o caractere de substituição, como no
+    String.getBytes(charset).
+     */
+
+    public static final int DEFAULT_CHUNK_RECORDS = 4096;
+    public static final int DEFAULT_IO_BUFFER = 1 << 20;
+
+    private static final char LINE_SEPARATOR = '\n';
+
+    private final Locale locale;
+    private final MessageTemplate template;
+    /* null quando o locale tem extensão ca, nu ou rg: aí cada data passa pelo localizedDates. */
+    private final BatchDateFormatter dates;
+    private final DateTimeFormatter localizedDates;
+    private final Charset charset;
+    private final int priceScale;
+    private final int chunkRecords;
+    private final int ioBufferSize;
+    private final ForkJoinPool pool;
+
+    private LocalizedReport(Builder builder) {
+        this.locale = builder.locale;
+        this.template = MessageTemplate.of(builder.baseName, builder.locale, builder.key);
+        this.localizedDates = DateTimeFormatter.ofLocalizedDate(builder.dateStyle).localizedBy(builder.locale);
+        if (hasCalendarExtension(builder.locale)) {
+            this.dates = null;
+        } else {
+            String datePattern = DateTimeFormatterBuilder.getLocalizedDateTimePattern(
+                    builder.dateStyle, null, IsoChronology.INSTANCE, builder.locale);
+            this.dates = BatchDateFormatter.ofPattern(datePattern, builder.locale);
+        }
+        this.charset = builder.charset;
+        this.priceScale = builder.priceScale;
+        this.chunkRecords = builder.chunkRecords;
+        this.ioBufferSize = builder.ioBufferSize;
+        this.pool = builder.pool;
+    }
+
+    /*
+    O localizedBy aplica as extensões ca (calendário, como o budista), nu (dígitos, como os tailandeses) e rg do locale,
+    e o BatchDateFormatter só conhece o calendário ISO com dígitos latinos.
+     */
+    private static boolean hasCalendarExtension(Locale locale) {
+        return locale.getUnicodeLocaleType("ca") != null || locale.getUnicodeLocaleType("nu") != null
+                || locale.getUnicodeLocaleType("rg") != null;
+    }
+
+    public static Builder builder(Locale locale) {
+        return new Builder(locale);
+    }
+
+    public Locale locale() {
+        return locale;
+    }
+
+    public Charset charset() {
+        return charset;
+    }
+
+    /* Quantos chunks podem existir ao mesmo tempo: 1 no caminho sequencial. */
+    public int window() {
+        return pool == null ? 1 : pool.getParallelism() * 2;
+    }
+
+    /* Escreve o relatório no arquivo (criado ou truncado) e devolve a quantidade de bytes escritos. */
+    public long write(ProductSource source, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return write(source, channel);
+        }
+    }
+
+    /* Escreve o relatório no canal, que não é fechado, e devolve a quantidade de bytes escritos. */
+    public long write(ProductSource source, WritableByteChannel channel) throws IOException {
+        Output output = new Output(channel, ioBufferSize);
+        if (pool == null) {
+            Chunk chunk = new Chunk();
+            while (chunk.read(source) > 0) {
+                output.write(chunk.format());
+            }
+        } else {
+            writeParallel(source, output);
+        }
+        return output.flush();
+    }
+
+    private void writeParallel(ProductSource source, Output output) throws IOException {
+        int window = window();
+        ArrayDeque<ForkJoinTask<ByteBuffer>> inFlight = new ArrayDeque<>(window);
+        ArrayDeque<Chunk> chunks = new ArrayDeque<>(window);
+        ArrayDeque<Chunk> idle = new ArrayDeque<>(window);
+        try {
+            while (true) {
+                if (inFlight.size() == window) {
+                    output.write(inFlight.poll().join());
+                    idle.push(chunks.poll());
+                }
+                Chunk chunk = idle.isEmpty() ? new Chunk() : idle.pop();
+                if (chunk.read(source) == 0) {
+                    break;
+                }
+                chunks.add(chunk);
+                inFlight.add(pool.submit(chunk::format));
+            }
+            while (!inFlight.isEmpty()) {
+                output.write(inFlight.poll().join());
+            }
+        } finally {
+            // Só tem algo aqui se a leitura, a formatação ou a escrita falhou: o resto não vai ser escrito.
+            for (ForkJoinTask<ByteBuffer> task : inFlight) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /* Um lote com tudo o que é preciso para formatar e codificar ele. Usado por uma thread de cada vez. */
+    private final class Chunk {
+        private final ProductBatch batch = new ProductBatch(chunkRecords, priceScale);
+        private final TextColumn dateColumn = new TextColumn(chunkRecords, chunkRecords * 12);
+        private final StringBuilder text = new StringBuilder(chunkRecords * 64);
+        private final StringBuilder price = new StringBuilder(32);
+        private final StringBuilder date = new StringBuilder(32);
+        private final CharsetEncoder encoder = newEncoder(charset);
+        private char[] chars = new char[0];
+        private ByteBuffer bytes = ByteBuffer.allocate(0);
+
+        int read(ProductSource source) throws IOException {
+            batch.clear();
+            source.read(batch);
+            return batch.size();
+        }
+
+        ByteBuffer format() {
+            int size = batch.size();
+            long[] bestBefore = batch.bestBeforeDays();
+            if (dates != null) {
+                dates.formatTo(bestBefore, 0, size, dateColumn);
+            }
+            char[] dateChars = dateColumn.chars();
+            FixedDecimalArray prices = batch.prices();
+            text.setLength(0);
+            for (int i = 0; i < size; i++) {
+                price.setLength(0);
+                LocaleFormatters.formatTo(locale, Style.CURRENCY,
+                        BigDecimal.valueOf(prices.getUnscaled(i), priceScale), price);
+                date.setLength(0);
+                if (dates != null) {
+                    date.append(dateChars, dateColumn.start(i), dateColumn.length(i));
+                } else {
+                    localizedDates.formatTo(LocalDate.ofEpochDay(bestBefore[i]), date);
+                }
+                template.bind()
+                        .arg(0, batch.name(i))
+                        .arg(1, price)
+                        .arg(2, batch.quantity(i))
+                        .arg(3, date)
+                        .renderTo(text)
+                        .append(LINE_SEPARATOR);
+            }
+            return encode();
+        }
+
+        private ByteBuffer encode() {
+            int length = text.length();
+            if (chars.length < length) {
+                chars = new char[length + (length >> 3)];
+            }
+            text.getChars(0, length, chars, 0);
+            int maxBytes = (int) Math.min(Integer.MAX_VALUE - 8, (long) Math.ceil(length * encoder.maxBytesPerChar()));
+            if (bytes.capacity() < maxBytes) {
+                bytes = ByteBuffer.allocate(maxBytes + (maxBytes >> 3));
+            }
+            bytes.clear();
+            encoder.reset();
+            try {
+                check(encoder.encode(CharBuffer.wrap(chars, 0, length), bytes, true));
+                check(encoder.flush(bytes));
+            } catch (CharacterCodingException e) {
+                // Com REPLACE só sobraria overflow, e o buffer tem o tamanho máximo possível.
+                throw new IllegalStateException(e);
+            }
+            return bytes.flip();
+        }
+    }
+
+    private static void check(CoderResult result) throws CharacterCodingException {
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+    }
+
+    private static CharsetEncoder newEncoder(Charset charset) {
+        return charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /*
+    Um charset codifica sem estado se a concatenação de dois textos codificados separadamente é igual ao texto
+    concatenado codificado de uma vez (sem BOM repetido nem escape para trocar de modo).
+     */
+    private static boolean isStateless(Charset charset) {
+        String sample = charset.newEncoder().canEncode('価') ? "a価" : "a";
+        byte[] once = encode(charset, sample);
+        byte[] twice = encode(charset, sample + sample);
+        byte[] concatenated = Arrays.copyOf(once, once.length * 2);
+        System.arraycopy(once, 0, concatenated, once.length, once.length);
+        return Arrays.equals(twice, concatenated);
+    }
+
+    private static byte[] encode(Charset charset, String text) {
+        ByteBuffer buffer = charset.encode(text);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /* O ByteBuffer direto por onde todos os bytes passam antes de ir para o canal. */
+    private static final class Output {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+        private long written;
+
+        Output(WritableByteChannel channel, int size) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(size);
+        }
+
+        void write(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+                int count = Math.min(buffer.remaining(), bytes.remaining());
+                buffer.put(buffer.position(), bytes, bytes.position(), count);
+                buffer.position(buffer.position() + count);
+                bytes.position(bytes.position() + count);
+            }
+        }
+
+        long flush() throws IOException {
+            drain();
+            return written;
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    public static final class Builder {
+        private final Locale locale;
+        private String baseName = "resource.messages";
+        private String key = "product";
+        private FormatStyle dateStyle = FormatStyle.MEDIUM;
+        private Charset charset = StandardCharsets.UTF_8;
+        private int priceScale = 2;
+        private int chunkRecords = DEFAULT_CHUNK_RECORDS;
+        private int ioBufferSize = DEFAULT_IO_BUFFER;
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        private Builder(Locale locale) {
+            if (locale == null) {
+                throw new NullPointerException("locale");
+            }
+            this.locale = locale;
+        }
+
+        /* Padrão da mensagem: a chave do bundle, com {0} nome, {1} preço, {2} quantidade e {3} validade. */
+        public Builder template(String baseName, String key) {
+            this.baseName = baseName;
+            this.key = key;
+            return this;
+        }
+
+        public Builder dateStyle(FormatStyle dateStyle) {
+            this.dateStyle = dateStyle;
+            return this;
+        }
+
+        public Builder charset(Charset charset) {
+            this.charset = charset;
+            return this;
+        }
+
+        /* Casas decimais dos preços lidos (2 para 2.99). */
+        public Builder priceScale(int priceScale) {
+            this.priceScale = priceScale;
+            return this;
+        }
+
+        public Builder chunkRecords(int chunkRecords) {
+            if (chunkRecords <= 0) {
+                throw new IllegalArgumentException("Illegal chunk size: " + chunkRecords);
+            }
+            this.chunkRecords = chunkRecords;
+            return this;
+        }
+
+        public Builder ioBufferSize(int ioBufferSize) {
+            if (ioBufferSize <= 0) {
+                throw new IllegalArgumentException("Illegal buffer size: " + ioBufferSize);
+            }
+            this.ioBufferSize = ioBufferSize;
+            return this;
+        }
+
+        /* Formata os chunks nesse pool (o padrão é o ForkJoinPool comum). */
+        public Builder parallel(ForkJoinPool pool) {
+            if (pool == null) {
+                throw new NullPointerException("pool");
+            }
+            this.pool = pool;
+            return this;
+        }
+
+        /* Formata e escreve tudo na thread que chamou write(). */
+        public Builder sequential() {
+            this.pool = null;
+            return this;
+        }
+
+        public LocalizedReport build() {
+            if (!isStateless(charset)) {
+                throw new IllegalArgumentException("Charset " + charset + " encodes with state (BOM or escapes)");
+            }
+            return new LocalizedReport(this);
+        }
+    }
+}
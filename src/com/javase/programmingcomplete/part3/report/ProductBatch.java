@@ -0,0 +1,86 @@
+package com.javase.programmingcomplete.part3.report;
+
+import com.javase.programmingcomplete.part3.decimal.FixedDecimalArray;
+
+import java.util.Arrays;
+
+public final class ProductBatch {
+
+    /*
+    Um lote de produtos guardado em colunas: nome, preço (FixedDecimalArray, todos com o mesmo scale), quantidade e data
+    de validade em epoch days. É o registro do P3ZonedDateTime.localizedResources() (Cookie, 2.99, 5, 2021-04-10), mas
+    para milhões de linhas: o lote tem capacidade fixa e é reusado, então ler um arquivo inteiro não cria um objeto por
+    produto além do nome.
+     */
+
+    private final String[] names;
+    private final FixedDecimalArray prices;
+    private final long[] quantities;
+    private final long[] bestBefore;
+    private int size;
+
+    public ProductBatch(int capacity, int priceScale) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        this.names = new String[capacity];
+        this.prices = new FixedDecimalArray(capacity, priceScale);
+        this.quantities = new long[capacity];
+        this.bestBefore = new long[capacity];
+    }
+
+    public int capacity() {
+        return names.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == names.length;
+    }
+
+    public int priceScale() {
+        return prices.scale();
+    }
+
+    /* Adiciona um produto. O preço é o valor unscaled no scale do lote (2.99 com scale 2 é 299). */
+    public void add(String name, long priceUnscaled, long quantity, long bestBeforeEpochDay) {
+        if (size == names.length) {
+            throw new IllegalStateException("Batch is full");
+        }
+        names[size] = name;
+        prices.setUnscaled(size, priceUnscaled);
+        quantities[size] = quantity;
+        bestBefore[size] = bestBeforeEpochDay;
+        size++;
+    }
+
+    /* Esvazia o lote, soltando as referências aos nomes. */
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        size = 0;
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    public FixedDecimalArray prices() {
+        return prices;
+    }
+
+    public long quantity(int index) {
+        return quantities[index];
+    }
+
+    public long bestBefore(int index) {
+        return bestBefore[index];
+    }
+
+    /* A coluna de datas inteira, para formatar em lote. Só as primeiras size() posições são válidas. */
+    long[] bestBeforeDays() {
+        return bestBefore;
+    }
+}
@@ -0,0 +1,14 @@
+package com.javase.programmingcomplete.part3.report;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface ProductSource {
+
+    /*
+    De onde o LocalizedReport lê os produtos, um lote por vez e sempre na ordem do relatório.
+    read() recebe um lote vazio, adiciona até capacity() produtos e devolve quantos adicionou. Zero significa que a
+    entrada acabou. O lote é reusado depois de formatado, então a fonte não deve guardar referência a ele.
+     */
+    int read(ProductBatch batch) throws IOException;
+}
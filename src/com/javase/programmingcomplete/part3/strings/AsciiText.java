@@ -0,0 +1,403 @@
+package com.javase.programmingcomplete.part3.strings;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+public final class AsciiText {
+
+    /*
+    Operações de texto do P1CharWrapper (indexOf, trim, toLowerCase/toUpperCase, Character.isDigit) sobre trechos de
+    char[] e byte[] (UTF-8), escrevendo o resultado em arrays de quem chamou ao invés de criar uma String nova.
+
+    O caminho rápido é o ASCII. Nos byte[] os bytes são lidos de 8 em 8 como um long (SWAR, "SIMD within a register"):
+    um único long diz se os 8 bytes são ASCII, em qual deles está o byte procurado, ou converte as 8 letras de uma vez.
+    Nos char[] os laços são simples (um char por vez, sem chamadas), para o JIT conseguir otimizar.
+    A Vector API (jdk.incubator.vector) não é usada de propósito: é um módulo incubator, que exige --add-modules para
+    compilar e para rodar, e muda entre versões do JDK. O SWAR e os laços que o JIT já vetoriza sozinho funcionam em
+    qualquer JVM 17, sem flags.
+
+    Texto não ASCII dá o mesmo resultado dos métodos da String:
+    - indexOf, trim e os dígitos não mudam de regra (trim remove os chars <= ' ', igual ao String.trim(); strip usa
+      Character.isWhitespace, igual ao String.strip(); dígitos usam Character.isDigit/Character.digit);
+    - a conversão de caixa é a do toLowerCase(Locale.ROOT)/toUpperCase(Locale.ROOT). Nos char[] cada code point usa
+      Character.toLowerCase/toUpperCase; os poucos em que a String faz diferente (o 'ß' que vira "SS", o 'İ' que vira
+      "i̇", o sigma final 'ς') fazem o trecho inteiro ser convertido pela String. Nos byte[], qualquer byte não ASCII faz
+      o trecho ser decodificado e convertido pela String. Por isso os métodos de conversão devolvem quantos chars ou
+      bytes foram escritos, que pode ser diferente do tamanho da entrada.
+     */
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final int CHAR_BLOCK = 64;
+
+    private AsciiText() {
+    }
+
+    // # ASCII #
+
+    public static boolean isAscii(byte[] src, int from, int to) {
+        checkRange(from, to, src.length);
+        int i = from;
+        long bits = 0;
+        for (; i + 8 <= to; i += 8) {
+            bits |= (long) LONGS.get(src, i);
+        }
+        for (; i < to; i++) {
+            bits |= src[i];
+        }
+        return (bits & HIGH_BITS) == 0;
+    }
+
+    public static boolean isAscii(char[] src, int from, int to) {
+        checkRange(from, to, src.length);
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            bits |= src[i];
+        }
+        return bits < 0x80;
+    }
+
+    // # indexOf #
+
+    /* Igual ao String.indexOf(ch) no trecho: a posição absoluta no array, ou -1. */
+    public static int indexOf(char[] src, int from, int to, char ch) {
+        checkRange(from, to, src.length);
+        for (int i = from; i < to; i++) {
+            if (src[i] == ch) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+    Posição (em bytes) do primeiro ch no trecho UTF-8, ou -1. Um byte ASCII nunca aparece dentro de um caractere de
+    vários bytes no UTF-8, então para ch ASCII basta procurar o byte.
+     */
+    public static int indexOf(byte[] src, int from, int to, char ch) {
+        checkRange(from, to, src.length);
+        if (ch >= 0x80) {
+            return indexOfEncoded(src, from, to, String.valueOf(ch).getBytes(StandardCharsets.UTF_8));
+        }
+        long pattern = ONES * ch;
+        int i = from;
+        // Dois longs por volta: só quando um dos dois tem o byte é que se procura qual.
+        for (; i + 16 <= to; i += 16) {
+            long first = zeroBytes((long) LONGS.get(src, i) ^ pattern);
+            long second = zeroBytes((long) LONGS.get(src, i + 8) ^ pattern);
+            if ((first | second) != 0) {
+                return first != 0 ? i + (Long.numberOfTrailingZeros(first) >>> 3)
+                        : i + 8 + (Long.numberOfTrailingZeros(second) >>> 3);
+            }
+        }
+        for (; i + 8 <= to; i += 8) {
+            long zeros = zeroBytes((long) LONGS.get(src, i) ^ pattern);
+            if (zeros != 0) {
+                return i + (Long.numberOfTrailingZeros(zeros) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (src[i] == ch) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // # trim / strip #
+
+    /* Primeira posição que o String.trim() manteria (primeiro char > ' '), ou to se o trecho for todo espaço. */
+    public static int trimStart(char[] src, int from, int to) {
+        checkRange(from, to, src.length);
+        while (from < to && src[from] <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    /* Posição depois do último char > ' ', ou from se o trecho for todo espaço. */
+    public static int trimEnd(char[] src, int from, int to) {
+        checkRange(from, to, src.length);
+        while (to > from && src[to - 1] <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    public static int trimStart(byte[] src, int from, int to) {
+        checkRange(from, to, src.length);
+        while (from < to && src[from] >= 0 && src[from] <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    public static int trimEnd(byte[] src, int from, int to) {
+        checkRange(from, to, src.length);
+        while (to > from && src[to - 1] >= 0 && src[to - 1] <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    /* Como o String.strip(): remove Character.isWhitespace, que inclui espaços Unicode (mas não o NBSP). */
+    public static int stripStart(char[] src, int from, int to) {
+        checkRange(from, to, src.length);
+        while (from < to && isWhitespace(src[from])) {
+            from++;
+        }
+        return from;
+    }
+
+    public static int stripEnd(char[] src, int from, int to) {
+        checkRange(from, to, src.length);
+        while (to > from && isWhitespace(src[to - 1])) {
+            to--;
+        }
+        return to;
+    }
+
+    // # Dígitos #
+
+    /* Posição do primeiro char que não é dígito (Character.isDigit), ou to. */
+    public static int digitPrefixEnd(char[] src, int from, int to) {
+        checkRange(from, to, src.length);
+        for (int i = from; i < to; i++) {
+            char c = src[i];
+            if ((c < '0' || c > '9') && (c < 0x80 || !Character.isDigit(c))) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /* Posição do primeiro byte que não é um dígito ASCII, ou to. Dígitos de outros alfabetos não são aceitos. */
+    public static int digitPrefixEnd(byte[] src, int from, int to) {
+        checkRange(from, to, src.length);
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long nonDigits = nonDigitBytes((long) LONGS.get(src, i));
+            if (nonDigits != 0) {
+                return i + (Long.numberOfTrailingZeros(nonDigits) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (src[i] < '0' || src[i] > '9') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /*
+    Valor de cada char como em Character.digit(c, 10) (0 a 9, ou -1 quando não é dígito) em out[outFrom...].
+    Devolve quantos não são dígitos.
+     */
+    public static int digitValues(char[] src, int from, int to, byte[] out, int outFrom) {
+        checkRange(from, to, src.length);
+        checkRange(outFrom, outFrom + (to - from), out.length);
+        int invalid = 0;
+        for (int i = from; i < to; i++) {
+            char c = src[i];
+            int digit = c < 0x80 ? (c >= '0' && c <= '9' ? c - '0' : -1) : Character.digit(c, 10);
+            out[outFrom++] = (byte) digit;
+            invalid += digit >>> 31;
+        }
+        return invalid;
+    }
+
+    // # Caixa #
+
+    /*
+    Escreve src[from, to) em minúsculas em dst a partir de dstFrom e devolve quantos chars foram escritos. dst precisa
+    ter pelo menos to - from posições a partir de dstFrom (e mais, se o texto tiver caracteres que aumentam).
+    dst pode ser o próprio src com dstFrom == from.
+     */
+    public static int toLowerCase(char[] src, int from, int to, char[] dst, int dstFrom) {
+        return convert(src, from, to, dst, dstFrom, true);
+    }
+
+    public static int toUpperCase(char[] src, int from, int to, char[] dst, int dstFrom) {
+        return convert(src, from, to, dst, dstFrom, false);
+    }
+
+    /* Mesma coisa para UTF-8; devolve quantos bytes foram escritos. */
+    public static int toLowerCase(byte[] src, int from, int to, byte[] dst, int dstFrom) {
+        return convert(src, from, to, dst, dstFrom, true);
+    }
+
+    public static int toUpperCase(byte[] src, int from, int to, byte[] dst, int dstFrom) {
+        return convert(src, from, to, dst, dstFrom, false);
+    }
+
+    private static int convert(char[] src, int from, int to, char[] dst, int dstFrom, boolean lower) {
+        checkRange(from, to, src.length);
+        checkRange(dstFrom, dstFrom + (to - from), dst.length);
+        // Em ASCII maiúscula e minúscula só diferem no bit 0x20.
+        int first = lower ? 'A' : 'a';
+        // Blocos de CHAR_BLOCK chars: primeiro confere se o bloco é ASCII, depois converte sem nenhum if, só com
+        // contas. Os dois laços não têm saída no meio, então o JIT pode usar instruções vetoriais neles.
+        for (int block = from; block < to; block += CHAR_BLOCK) {
+            int end = Math.min(to, block + CHAR_BLOCK);
+            int bits = 0;
+            for (int i = block; i < end; i++) {
+                bits |= src[i];
+            }
+            if (bits >= 0x80) {
+                return convertNonAscii(src, from, to, block, dst, dstFrom, lower);
+            }
+            int offset = dstFrom - from;
+            for (int i = block; i < end; i++) {
+                int c = src[i];
+                int d = c - first;
+                // 1 quando 0 <= d <= 25 (as duas contas ficam sem sinal), senão 0
+                int letter = ((d | (25 - d)) >>> 31) ^ 1;
+                dst[i + offset] = (char) (c ^ (letter << 5));
+            }
+        }
+        return to - from;
+    }
+
+    /*
+    O trecho antes de "ascii" já foi convertido; continua por code point com Character, ou refaz tudo com a String
+    quando aparece um dos code points especiais.
+     */
+    private static int convertNonAscii(char[] src, int from, int to, int ascii, char[] dst, int dstFrom, boolean lower) {
+        int out = dstFrom + (ascii - from);
+        for (int i = ascii; i < to; ) {
+            int codePoint = Character.codePointAt(src, i, to);
+            if (lower ? SpecialCasing.lower(codePoint) : SpecialCasing.upper(codePoint)) {
+                String text = new String(src, from, to - from);
+                String converted = lower ? text.toLowerCase(Locale.ROOT) : text.toUpperCase(Locale.ROOT);
+                checkRange(dstFrom, dstFrom + converted.length(), dst.length);
+                converted.getChars(0, converted.length(), dst, dstFrom);
+                return converted.length();
+            }
+            int mapped = lower ? Character.toLowerCase(codePoint) : Character.toUpperCase(codePoint);
+            out += Character.toChars(mapped, dst, out);
+            i += Character.charCount(codePoint);
+        }
+        return out - dstFrom;
+    }
+
+    private static int convert(byte[] src, int from, int to, byte[] dst, int dstFrom, boolean lower) {
+        checkRange(from, to, src.length);
+        checkRange(dstFrom, dstFrom + (to - from), dst.length);
+        // Somando (0x80 - limite) a cada byte ASCII, o bit alto do byte liga quando ele é >= limite. As letras são os
+        // bytes >= 'A' e não >= 'Z' + 1 (ou 'a' e 'z' + 1).
+        long aboveFirst = ONES * (0x80 - (lower ? 'A' : 'a'));
+        long aboveLast = ONES * (0x80 - (lower ? 'Z' : 'z') - 1);
+        int i = from;
+        int out = dstFrom;
+        for (; i + 8 <= to; i += 8, out += 8) {
+            long word = (long) LONGS.get(src, i);
+            if ((word & HIGH_BITS) != 0) {
+                return convertWithString(src, from, to, dst, dstFrom, lower);
+            }
+            long letters = ((word + aboveFirst) ^ (word + aboveLast)) & HIGH_BITS;
+            LONGS.set(dst, out, lower ? word | letters >>> 2 : word & ~(letters >>> 2));
+        }
+        for (; i < to; i++, out++) {
+            byte b = src[i];
+            if (b < 0) {
+                return convertWithString(src, from, to, dst, dstFrom, lower);
+            }
+            boolean letter = lower ? b >= 'A' && b <= 'Z' : b >= 'a' && b <= 'z';
+            dst[out] = letter ? (byte) (b ^ 0x20) : b;
+        }
+        return out - dstFrom;
+    }
+
+    private static int convertWithString(byte[] src, int from, int to, byte[] dst, int dstFrom, boolean lower) {
+        String text = new String(src, from, to - from, StandardCharsets.UTF_8);
+        byte[] converted = (lower ? text.toLowerCase(Locale.ROOT) : text.toUpperCase(Locale.ROOT))
+                .getBytes(StandardCharsets.UTF_8);
+        checkRange(dstFrom, dstFrom + converted.length, dst.length);
+        System.arraycopy(converted, 0, dst, dstFrom, converted.length);
+        return converted.length;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c < 0x80 ? c == ' ' || (c >= '\t' && c <= '\r') || (c >= 0x1C && c <= 0x1F) : Character.isWhitespace(c);
+    }
+
+    /* 0x80 exatamente nos bytes que são zero (sem os falsos positivos da versão curta do truque). */
+    private static long zeroBytes(long word) {
+        return ~(((word & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | word | LOW_SEVEN_BITS);
+    }
+
+    /* 0x80 nos bytes fora de '0'..'9'. */
+    private static long nonDigitBytes(long word) {
+        // Bytes com bit alto não são dígitos; nos outros, (b + 0x80 - '0') tem o bit alto se b >= '0' e
+        // (b + 0x80 - '9' - 1) tem o bit alto se b > '9'.
+        long atLeastZero = (word & LOW_SEVEN_BITS) + ONES * (0x80 - '0');
+        long aboveNine = (word & LOW_SEVEN_BITS) + ONES * (0x80 - '9' - 1);
+        return (~atLeastZero | aboveNine | word) & HIGH_BITS;
+    }
+
+    private static int indexOfEncoded(byte[] src, int from, int to, byte[] pattern) {
+        search:
+        for (int i = from; i <= to - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (src[i + j] != pattern[j]) {
+                    continue search;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static void checkRange(int from, int to, int length) {
+        if (from < 0 || from > to || to > length) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + length);
+        }
+    }
+
+    /*
+    Code points em que o toLowerCase/toUpperCase(Locale.ROOT) da String não é igual ao Character: os que mudam de
+    tamanho (os mapeamentos incondicionais do SpecialCasing.txt do Unicode) e o sigma maiúsculo, que vira 'ς' no fim de
+    palavra. São poucos e fixos, então ficam em uma tabela constante ao invés de serem calculados percorrendo todos os
+    code points. O AsciiTextTest confere a tabela contra a String do JDK em uso.
+     */
+    private static final class SpecialCasing {
+        // Só o 'İ', que vira "i̇", e o 'Σ'
+        private static final int LOWER_DOTTED_I = 0x0130;
+        private static final int LOWER_SIGMA = 0x03A3;
+
+        // Intervalos [início, fim] em ordem, começando no 'ß' (que vira "SS") e terminando nas ligaduras armênias
+        private static final int[] UPPER_RANGES = {
+                0x00DF, 0x00DF, 0x0149, 0x0149, 0x01F0, 0x01F0, 0x0390, 0x0390, 0x03B0, 0x03B0,
+                0x0587, 0x0587, 0x1E96, 0x1E9A, 0x1F50, 0x1F50, 0x1F52, 0x1F52, 0x1F54, 0x1F54,
+                0x1F56, 0x1F56, 0x1F80, 0x1FAF, 0x1FB2, 0x1FB4, 0x1FB6, 0x1FB7, 0x1FBC, 0x1FBC,
+                0x1FC2, 0x1FC4, 0x1FC6, 0x1FC7, 0x1FCC, 0x1FCC, 0x1FD2, 0x1FD3, 0x1FD6, 0x1FD7,
+                0x1FE2, 0x1FE4, 0x1FE6, 0x1FE7, 0x1FF2, 0x1FF4, 0x1FF6, 0x1FF7, 0x1FFC, 0x1FFC,
+                0xFB00, 0xFB06, 0xFB13, 0xFB17
+        };
+
+        private SpecialCasing() {
+        }
+
+        static boolean lower(int codePoint) {
+            return codePoint == LOWER_DOTTED_I || codePoint == LOWER_SIGMA;
+        }
+
+        static boolean upper(int codePoint) {
+            if (codePoint < UPPER_RANGES[0] || codePoint > UPPER_RANGES[UPPER_RANGES.length - 1]) {
+                return false;
+            }
+            for (int i = 0; i < UPPER_RANGES.length; i += 2) {
+                if (codePoint <= UPPER_RANGES[i + 1]) {
+                    return codePoint >= UPPER_RANGES[i];
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.javase.programmingcomplete.part3.strings;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class StringBuilderPool {
+
+    /*
+    Pool de StringBuilders que aprende o tamanho das mensagens.
+    O P1CharWrapper.testStringBuilder() explica que new StringBuilder(100) evita que o builder precise crescer (copiar o
+    array interno) várias vezes, mas para isso alguém precisa saber o tamanho. Aqui cada Site (um ponto do código que
+    monta texto, ou a chave de um template) guarda o tamanho das últimas mensagens, e o builder entregue já vem com essa
+    capacidade. O tamanho aprendido sobe na hora quando uma mensagem é maior e desce devagar quando elas ficam menores.
+
+    Os builders são reusados: cada thread guarda um builder livre, e os que sobram (quando a mesma thread usa dois ao
+    mesmo tempo, ou devolve um builder pego por outra) vão para um pool compartilhado de tamanho fixo, sem lock (cada
+    posição é trocada com compareAndSet). Builders que cresceram acima de maxRetainedCapacity são descartados ao serem
+    devolvidos, para que uma mensagem muito grande não fique ocupando memória para sempre.
+
+    Uso:
+        try (StringBuilderPool.Lease lease = SITE.acquire()) {
+            StringBuilder out = lease.builder();
+            ...
+            return out.toString();
+        }
+    O builder não pode ser usado depois do close(). Chamar close() de novo não faz nada.
+     */
+
+    public static final int DEFAULT_MAX_RETAINED_CAPACITY = 8 * 1024;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final StringBuilderPool SHARED = new StringBuilderPool(DEFAULT_MAX_RETAINED_CAPACITY);
+
+    private final int maxRetainedCapacity;
+    private final ThreadLocal<Buffer> local = new ThreadLocal<>();
+    private final AtomicReferenceArray<Buffer> overflow;
+    private final ConcurrentMap<Object, Site> sites = new ConcurrentHashMap<>();
+
+    private final LongAdder acquires = new LongAdder();
+    private final LongAdder threadLocalHits = new LongAdder();
+    private final LongAdder overflowHits = new LongAdder();
+    private final LongAdder resizes = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder retainedChars = new LongAdder();
+
+    public StringBuilderPool(int maxRetainedCapacity) {
+        if (maxRetainedCapacity < DEFAULT_CAPACITY) {
+            throw new IllegalArgumentException("maxRetainedCapacity must be at least " + DEFAULT_CAPACITY);
+        }
+        this.maxRetainedCapacity = maxRetainedCapacity;
+        this.overflow = new AtomicReferenceArray<>(Math.max(8, Integer.highestOneBit(
+                Runtime.getRuntime().availableProcessors() * 2 - 1) << 1));
+    }
+
+    /* Pool da aplicação, usado também pelo MessageTemplate. */
+    public static StringBuilderPool shared() {
+        return SHARED;
+    }
+
+    /* Site da chave, criado na primeira chamada. Guarde o Site em um campo para não procurar a chave a cada uso. */
+    public Site site(Object key) {
+        return site(key, DEFAULT_CAPACITY);
+    }
+
+    /* initialCapacity é a estimativa usada até a primeira mensagem ser devolvida. */
+    public Site site(Object key, int initialCapacity) {
+        Site site = sites.get(key);
+        return site != null ? site : sites.computeIfAbsent(key, k -> new Site(k, initialCapacity));
+    }
+
+    /*
+    Site sem chave, para quem guarda o próprio Site (um template compilado, por exemplo). Não fica registrado no pool,
+    então é liberado junto com o dono.
+     */
+    public Site newSite(int initialCapacity) {
+        return new Site(null, initialCapacity);
+    }
+
+    public Lease acquire(Object key) {
+        return site(key).acquire();
+    }
+
+    public long acquireCount() {
+        return acquires.sum();
+    }
+
+    /* Quantas vezes um builder precisou crescer (copiar o array) enquanto estava emprestado. */
+    public long resizeCount() {
+        return resizes.sum();
+    }
+
+    /* Builders devolvidos maiores que maxRetainedCapacity, que foram descartados. */
+    public long discardedCount() {
+        return discarded.sum();
+    }
+
+    /* Fração dos acquire() atendidos por um builder reusado (da thread ou do pool compartilhado). */
+    public double hitRate() {
+        long total = acquires.sum();
+        return total == 0 ? 0 : (double) (threadLocalHits.sum() + overflowHits.sum()) / total;
+    }
+
+    public double threadLocalHitRate() {
+        long total = acquires.sum();
+        return total == 0 ? 0 : (double) threadLocalHits.sum() / total;
+    }
+
+    /*
+    Memória guardada pelos builders livres. O StringBuilder usa 1 byte por char enquanto só tem texto Latin-1 e 2 bytes
+    depois do primeiro caractere fora dele, então o valor é o limite superior (2 bytes por char de capacidade).
+     */
+    public long retainedBytes() {
+        return retainedChars.sum() * 2;
+    }
+
+    public int maxRetainedCapacity() {
+        return maxRetainedCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StringBuilderPool[acquires=%d, hitRate=%.3f, threadLocalHitRate=%.3f, resizes=%d, "
+                        + "discarded=%d, retainedBytes<=%d]", acquireCount(), hitRate(), threadLocalHitRate(),
+                resizeCount(), discardedCount(), retainedBytes());
+    }
+
+    private Buffer take() {
+        Buffer buffer = local.get();
+        if (buffer != null) {
+            local.set(null);
+            threadLocalHits.increment();
+            retainedChars.add(-buffer.builder.capacity());
+            return buffer;
+        }
+        int length = overflow.length();
+        int start = (int) Thread.currentThread().getId() & (length - 1);
+        for (int i = 0; i < length; i++) {
+            int slot = (start + i) & (length - 1);
+            buffer = overflow.get(slot);
+            if (buffer != null && overflow.compareAndSet(slot, buffer, null)) {
+                overflowHits.increment();
+                retainedChars.add(-buffer.builder.capacity());
+                return buffer;
+            }
+        }
+        return new Buffer();
+    }
+
+    private void giveBack(Buffer buffer) {
+        int capacity = buffer.builder.capacity();
+        if (capacity > buffer.initialCapacity) {
+            resizes.increment();
+        }
+        if (capacity > maxRetainedCapacity) {
+            discarded.increment();
+            return;
+        }
+        buffer.builder.setLength(0);
+        retainedChars.add(capacity);
+        if (local.get() == null) {
+            local.set(buffer);
+            return;
+        }
+        int length = overflow.length();
+        int start = (int) Thread.currentThread().getId() & (length - 1);
+        for (int i = 0; i < length; i++) {
+            int slot = (start + i) & (length - 1);
+            if (overflow.get(slot) == null && overflow.compareAndSet(slot, null, buffer)) {
+                return;
+            }
+        }
+        // Pool cheio: o builder fica para o GC.
+        retainedChars.add(-capacity);
+    }
+
+    /* Um ponto do código que monta texto, com o tamanho aprendido das suas mensagens. */
+    public final class Site {
+        private final Object key;
+        // Lido e escrito sem sincronização: uma atualização perdida só muda um pouco a próxima estimativa.
+        private int expectedLength;
+
+        private Site(Object key, int initialCapacity) {
+            this.key = key;
+            this.expectedLength = Math.max(1, Math.min(initialCapacity, maxRetainedCapacity));
+        }
+
+        public Object key() {
+            return key;
+        }
+
+        /* Capacidade que o próximo builder deste site vai ter. */
+        public int expectedLength() {
+            return expectedLength;
+        }
+
+        public Lease acquire() {
+            acquires.increment();
+            Buffer buffer = take();
+            buffer.builder.ensureCapacity(expectedLength);
+            buffer.initialCapacity = buffer.builder.capacity();
+            return new Lease(this, buffer);
+        }
+
+        private StringBuilderPool pool() {
+            return StringBuilderPool.this;
+        }
+
+        private void learn(int length) {
+            int expected = expectedLength;
+            if (length > expected) {
+                expectedLength = Math.min(length, maxRetainedCapacity);
+            } else if (length < expected) {
+                // Desce 1/8 da diferença por mensagem, para uma mensagem curta isolada não desfazer o aprendizado.
+                expectedLength = expected - ((expected - length + 7) >> 3);
+            }
+        }
+    }
+
+    /*
+    Um builder emprestado. close() devolve o builder ao pool; os próximos close() não fazem nada. O que volta para o
+    pool é o Buffer, e cada acquire() cria um Lease novo (24 bytes): se o Lease fosse reusado, um close() repetido
+    devolveria o builder que já estaria com o acquire() seguinte.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final Site site;
+        private Buffer buffer;
+
+        private Lease(Site site, Buffer buffer) {
+            this.site = site;
+            this.buffer = buffer;
+        }
+
+        public StringBuilder builder() {
+            if (buffer == null) {
+                throw new IllegalStateException("Lease already closed");
+            }
+            return buffer.builder;
+        }
+
+        @Override
+        public void close() {
+            Buffer released = buffer;
+            if (released == null) {
+                return;
+            }
+            buffer = null;
+            site.learn(released.builder.length());
+            site.pool().giveBack(released);
+        }
+    }
+
+    /* O que fica no pool: o builder e a capacidade com que foi emprestado da última vez. */
+    private static final class Buffer {
+        private final StringBuilder builder = new StringBuilder(DEFAULT_CAPACITY);
+        private int initialCapacity;
+    }
+}
@@ -0,0 +1,409 @@
+package com.javase.programmingcomplete.part3.strings;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class StringInterner {
+
+    /*
+    Alternativa ao String.intern() com memória controlada.
+    O P1CharWrapper.testStringIntern() mostra o String Pool da JVM: intern() devolve sempre a mesma instância para o
+    mesmo texto. Mas esse pool é um só para a JVM inteira, não tem limite de tamanho nem métricas e não dá para
+    esvaziar. Cada StringInterner é independente (um por tenant, por exemplo) e tem uma de duas políticas:
+    - bounded(maxSize): guarda no máximo maxSize strings. Quando enche, remove uma string pouco usada, escolhida pelo
+      algoritmo CLOCK (uma aproximação de LRU: cada hit marca a entrada, e a remoção pula as entradas marcadas
+      desmarcando-as, então só sai quem não teve hit desde a última volta);
+    - weak(): sem limite, mas as strings só ficam enquanto alguém usa. Quando o GC coleta uma string, a entrada é
+      removida na próxima inserção do segmento.
+
+    As strings são divididas em segmentos pelo hash. Cada segmento tem o seu próprio lock, usado só para inserir e
+    remover; a busca não usa lock, então threads que procuram strings que já estão no interner não disputam nada.
+
+    intern(char[], offset, length) e intern(byte[], offset, length) procuram direto no trecho do array, sem criar a
+    String antes, e só criam a String quando o texto ainda não está no interner. Os bytes são lidos como UTF-8; texto
+    ASCII é procurado direto, os demais são decodificados antes.
+
+    Diferente do String.intern(), uma string removida pode voltar depois como outra instância, então compare com
+    equals, e não com ==, strings internadas em momentos diferentes.
+     */
+
+    private static final int MAX_SEGMENTS = 64;
+    private static final int MIN_PER_SEGMENT = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    // Tipos de origem do texto procurado
+    private static final int STRING = 0;
+    private static final int CHAR_SEQUENCE = 1;
+    private static final int CHARS = 2;
+    private static final int ASCII_BYTES = 3;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final boolean weak;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private StringInterner(int segmentCount, int maxSize, boolean weak) {
+        this.weak = weak;
+        this.segments = new Segment[segmentCount];
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            int segmentMax = weak ? 0 : maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment(segmentMax);
+        }
+    }
+
+    /* Guarda no máximo maxSize strings, removendo as menos usadas. */
+    public static StringInterner bounded(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        int segmentCount = MAX_SEGMENTS;
+        while (segmentCount > 1 && maxSize / segmentCount < MIN_PER_SEGMENT) {
+            segmentCount >>= 1;
+        }
+        return new StringInterner(segmentCount, maxSize, false);
+    }
+
+    /* Sem limite de tamanho; as strings que ninguém mais usa são liberadas pelo GC. */
+    public static StringInterner weak() {
+        return new StringInterner(MAX_SEGMENTS, 0, true);
+    }
+
+    public String intern(String text) {
+        int hash = text.hashCode();
+        return intern(hash, text, 0, text.length(), STRING);
+    }
+
+    /* Texto entre start (inclusive) e end (exclusive). */
+    public String intern(CharSequence text, int start, int end) {
+        checkRange(start, end - start, text.length());
+        if (text instanceof String && start == 0 && end == text.length()) {
+            return intern((String) text);
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return intern(hash, text, start, end - start, CHAR_SEQUENCE);
+    }
+
+    public String intern(char[] chars, int offset, int length) {
+        checkRange(offset, length, chars.length);
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return intern(hash, chars, offset, length, CHARS);
+    }
+
+    /* Bytes em UTF-8. */
+    public String intern(byte[] bytes, int offset, int length) {
+        checkRange(offset, length, bytes.length);
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = bytes[i];
+            if (b < 0) {
+                return intern(new String(bytes, offset, length, StandardCharsets.UTF_8));
+            }
+            hash = 31 * hash + b;
+        }
+        return intern(hash, bytes, offset, length, ASCII_BYTES);
+    }
+
+    /* Quantidade de strings guardadas. Entradas já coletadas pelo GC (no modo weak) são removidas antes da contagem. */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.purge();
+                size += segment.count;
+            }
+        }
+        return size;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /* Strings removidas pelo limite de tamanho ou, no modo weak, coletadas pelo GC. */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StringInterner[%s, size=%d, hits=%d, misses=%d, evictions=%d, hitRate=%.3f]",
+                weak ? "weak" : "bounded", size(), hitCount(), missCount(), evictionCount(), hitRate());
+    }
+
+    private String intern(int hash, Object source, int offset, int length, int kind) {
+        // Mistura os bits para que o segmento (bits altos) e a posição na tabela (bits baixos) sejam independentes.
+        int spread = hash * 0x9E3779B9;
+        Segment segment = segments[segmentShift == 32 ? 0 : spread >>> segmentShift];
+        int bucketHash = spread ^ (spread >>> 16);
+        String found = segment.find(bucketHash, source, offset, length, kind);
+        if (found != null) {
+            hits.increment();
+            return found;
+        }
+        synchronized (segment) {
+            // Outra thread pode ter inserido enquanto esta esperava o lock.
+            found = segment.find(bucketHash, source, offset, length, kind);
+            if (found != null) {
+                hits.increment();
+                return found;
+            }
+            misses.increment();
+            return segment.insert(bucketHash, create(source, offset, length, kind));
+        }
+    }
+
+    private static boolean matches(String candidate, Object source, int offset, int length, int kind) {
+        if (candidate.length() != length) {
+            return false;
+        }
+        switch (kind) {
+            case STRING:
+                return candidate.equals(source);
+            case CHAR_SEQUENCE: {
+                CharSequence text = (CharSequence) source;
+                for (int i = 0; i < length; i++) {
+                    if (candidate.charAt(i) != text.charAt(offset + i)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            case CHARS: {
+                char[] chars = (char[]) source;
+                for (int i = 0; i < length; i++) {
+                    if (candidate.charAt(i) != chars[offset + i]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            default: {
+                byte[] bytes = (byte[]) source;
+                for (int i = 0; i < length; i++) {
+                    if (candidate.charAt(i) != bytes[offset + i]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+    }
+
+    private static String create(Object source, int offset, int length, int kind) {
+        switch (kind) {
+            case STRING:
+                return (String) source;
+            case CHAR_SEQUENCE:
+                return ((CharSequence) source).subSequence(offset, offset + length).toString();
+            case CHARS:
+                return new String((char[]) source, offset, length);
+            default:
+                return new String((byte[]) source, offset, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static void checkRange(int offset, int length, int arrayLength) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", size " + arrayLength);
+        }
+    }
+
+    /*
+    Entrada de um bucket. "value" é a String (bounded) ou um WeakValue (weak). "next" é volatile porque as buscas
+    percorrem as listas sem lock enquanto outra thread remove entradas.
+     */
+    private static final class Entry {
+        final int hash;
+        final Object value;
+        volatile Entry next;
+        // Escrito sem sincronização nos hits; perder uma marcação só antecipa a remoção da entrada.
+        boolean referenced;
+
+        Entry(int hash, Object value, Entry next) {
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+
+        String get() {
+            return value instanceof String ? (String) value : ((WeakValue) value).get();
+        }
+    }
+
+    private static final class WeakValue extends WeakReference<String> {
+        final int hash;
+
+        WeakValue(String value, int hash, ReferenceQueue<String> queue) {
+            super(value, queue);
+            this.hash = hash;
+        }
+    }
+
+    private final class Segment {
+        private final int maxSize;
+        private final Entry[] clock;
+        private final ReferenceQueue<String> queue;
+        private volatile AtomicReferenceArray<Entry> table;
+        private int count;
+        private int hand;
+
+        Segment(int maxSize) {
+            this.maxSize = maxSize;
+            if (weak) {
+                this.clock = null;
+                this.queue = new ReferenceQueue<>();
+                this.table = new AtomicReferenceArray<>(16);
+            } else {
+                // O tamanho é fixo, então a tabela já nasce do tamanho final e nunca é redimensionada.
+                this.clock = new Entry[maxSize];
+                this.queue = null;
+                this.table = new AtomicReferenceArray<>(Integer.highestOneBit((int) (maxSize / LOAD_FACTOR) + 1) << 1);
+            }
+        }
+
+        String find(int hash, Object source, int offset, int length, int kind) {
+            AtomicReferenceArray<Entry> current = table;
+            for (Entry e = current.get(hash & (current.length() - 1)); e != null; e = e.next) {
+                if (e.hash == hash) {
+                    String candidate = e.get();
+                    if (candidate != null && matches(candidate, source, offset, length, kind)) {
+                        if (!e.referenced) {
+                            e.referenced = true;
+                        }
+                        return candidate;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /* Chamado com o lock do segmento. */
+        String insert(int hash, String value) {
+            if (weak) {
+                purge();
+                if (count + 1 > table.length() * LOAD_FACTOR) {
+                    resize();
+                }
+                add(new Entry(hash, new WeakValue(value, hash, queue), null));
+                count++;
+                return value;
+            }
+            Entry entry = new Entry(hash, value, null);
+            if (count < maxSize) {
+                clock[count++] = entry;
+            } else {
+                // CLOCK: pula (e desmarca) as entradas com hit desde a última volta.
+                while (clock[hand].referenced) {
+                    clock[hand].referenced = false;
+                    hand = hand + 1 == maxSize ? 0 : hand + 1;
+                }
+                unlink(clock[hand]);
+                evictions.increment();
+                clock[hand] = entry;
+                hand = hand + 1 == maxSize ? 0 : hand + 1;
+            }
+            add(entry);
+            return value;
+        }
+
+        /* Remove as entradas cujas strings foram coletadas pelo GC. Chamado com o lock do segmento. */
+        void purge() {
+            if (queue == null) {
+                return;
+            }
+            Reference<? extends String> cleared;
+            while ((cleared = queue.poll()) != null) {
+                AtomicReferenceArray<Entry> current = table;
+                int index = ((WeakValue) cleared).hash & (current.length() - 1);
+                for (Entry e = current.get(index); e != null; e = e.next) {
+                    if (e.value == cleared) {
+                        unlink(e);
+                        count--;
+                        evictions.increment();
+                        break;
+                    }
+                }
+            }
+        }
+
+        void clear() {
+            table = new AtomicReferenceArray<>(table.length());
+            if (clock != null) {
+                java.util.Arrays.fill(clock, null);
+            }
+            count = 0;
+            hand = 0;
+        }
+
+        private void add(Entry entry) {
+            AtomicReferenceArray<Entry> current = table;
+            int index = entry.hash & (current.length() - 1);
+            entry.next = current.get(index);
+            current.set(index, entry);
+        }
+
+        private void unlink(Entry entry) {
+            AtomicReferenceArray<Entry> current = table;
+            int index = entry.hash & (current.length() - 1);
+            Entry previous = null;
+            for (Entry e = current.get(index); e != null; previous = e, e = e.next) {
+                if (e == entry) {
+                    if (previous == null) {
+                        current.set(index, e.next);
+                    } else {
+                        previous.next = e.next;
+                    }
+                    return;
+                }
+            }
+        }
+
+        /*
+        Cria novas entradas em uma tabela nova e só depois publica a tabela, então uma busca concorrente vê a tabela
+        antiga inteira ou a nova inteira. Só existe no modo weak.
+         */
+        private void resize() {
+            AtomicReferenceArray<Entry> old = table;
+            AtomicReferenceArray<Entry> resized = new AtomicReferenceArray<>(old.length() * 2);
+            int mask = resized.length() - 1;
+            for (int i = 0; i < old.length(); i++) {
+                for (Entry e = old.get(i); e != null; e = e.next) {
+                    int index = e.hash & mask;
+                    resized.set(index, new Entry(e.hash, e.value, resized.get(index)));
+                }
+            }
+            table = resized;
+        }
+    }
+}